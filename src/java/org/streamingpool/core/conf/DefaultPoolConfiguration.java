@@ -25,9 +25,9 @@ package org.streamingpool.core.conf;
 import static java.util.Arrays.stream;
 import static org.streamingpool.core.conf.TestPoolConfiguration.STREAMINGPOOL_TEST_SCHEDULER;
 
-import java.util.concurrent.Executors;
+import java.time.Duration;
 
-import io.reactivex.schedulers.Schedulers;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Condition;
@@ -37,11 +37,18 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.core.type.AnnotatedTypeMetadata;
 
+import io.reactivex.Scheduler;
+
 @Configuration
-public class DefaultPoolConfiguration {
+public class DefaultPoolConfiguration implements DisposableBean {
 
     public static final String STREAMINGPOOL_THREAD_POOL_SIZE = "streamingpool.threadPoolSize";
     public static final String STREAMINGPOOL_OBSERVE_ON_CAPACITY = "streamingpool.observeOnCapacity";
+    public static final String STREAMINGPOOL_SCHEDULER_TYPE = "streamingpool.schedulerType";
+    public static final String STREAMINGPOOL_EVICTION_GRACE_PERIOD_MS = "streamingpool.evictionGracePeriodMs";
+    public static final String STREAMINGPOOL_SHUTDOWN_TIMEOUT_MS = "streamingpool.shutdownTimeoutMs";
+    public static final String STREAMINGPOOL_NEGATIVE_CACHE_TTL_MS = "streamingpool.negativeCacheTtlMs";
+    public static final String STREAMINGPOOL_NEGATIVE_CACHE_MAX_SIZE = "streamingpool.negativeCacheMaxSize";
 
     @Value("${" + STREAMINGPOOL_THREAD_POOL_SIZE + ":100}")
     private int threadPoolSize;
@@ -49,10 +56,42 @@ public class DefaultPoolConfiguration {
     @Value("${" + STREAMINGPOOL_OBSERVE_ON_CAPACITY + ":128}")
     private int observeOnCapacity;
 
+    @Value("${" + STREAMINGPOOL_SCHEDULER_TYPE + ":FIXED_THREAD_POOL}")
+    private PoolSchedulerType schedulerType;
+
+    @Value("${" + STREAMINGPOOL_EVICTION_GRACE_PERIOD_MS + ":-1}")
+    private long evictionGracePeriodMs;
+
+    @Value("${" + STREAMINGPOOL_SHUTDOWN_TIMEOUT_MS + ":0}")
+    private long shutdownTimeoutMs;
+
+    @Value("${" + STREAMINGPOOL_NEGATIVE_CACHE_TTL_MS + ":-1}")
+    private long negativeCacheTtlMs;
+
+    @Value("${" + STREAMINGPOOL_NEGATIVE_CACHE_MAX_SIZE + ":10000}")
+    private int negativeCacheMaxSize;
+
+    private Scheduler scheduler;
+
     @Bean
     @Conditional(NoTestSchedulerPresent.class)
     public PoolConfiguration localPoolConfiguration() {
-        return new PoolConfiguration(Schedulers.from(Executors.newFixedThreadPool(threadPoolSize)), observeOnCapacity);
+        scheduler = PoolSchedulers.schedulerOfType(schedulerType, threadPoolSize);
+        return new PoolConfiguration(scheduler, observeOnCapacity)
+                .withEvictionGracePeriod(Duration.ofMillis(evictionGracePeriodMs))
+                .withNegativeCache(Duration.ofMillis(negativeCacheTtlMs), negativeCacheMaxSize);
+    }
+
+    /**
+     * Shuts down the scheduler created by this configuration, waiting at most for the configured shutdown timeout for
+     * the already scheduled tasks. By default, the tasks are interrupted immediately: the pool is closed before, so all
+     * its streams are completed anyway.
+     */
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            PoolSchedulers.shutdown(scheduler, Duration.ofMillis(shutdownTimeoutMs));
+        }
     }
 
     private static class NoTestSchedulerPresent implements Condition {
@@ -72,6 +72,11 @@ public class DefaultStreamFactories {
         return new FilteredStreamFactory();
     }
 
+    @Bean
+    public PrimitiveStreamFactory primitiveStreamFactory() {
+        return new PrimitiveStreamFactory();
+    }
+
     @Bean
     public  IntervalStreamFactory intervalStreamFactory() {
         return new IntervalStreamFactory();
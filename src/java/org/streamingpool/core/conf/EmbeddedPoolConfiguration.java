@@ -24,15 +24,22 @@ package org.streamingpool.core.conf;
 
 import static org.streamingpool.core.util.MoreCollections.emptyIfNull;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.TypedStreamFactory;
+import org.streamingpool.core.service.impl.IdentifiedStreamCreator;
 import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.impl.PoolWarmUp;
 
 /**
  * The spring configuration which shall be used in any application that will have the spring pool embedded. It provides
@@ -42,6 +49,9 @@ import org.streamingpool.core.service.impl.LocalPool;
  * <ul>
  * <li>{@link TypedStreamFactory}: Any additional Stream factory will be automatically plugged into the pool to be used for
  * stream discovery.
+ * <li>{@link IdentifiedStreamCreator}s flagged as {@link IdentifiedStreamCreator#isEager() eager} and
+ * {@link WarmUpStreamIds}: The corresponding streams are created in the background once the application context is
+ * refreshed. The progress of this warm-up is available through the {@link PoolWarmUp} bean.
  * </ul>
  *
  * @author kfuchsbe
@@ -57,12 +67,37 @@ public class EmbeddedPoolConfiguration {
     @Autowired(required = false)
     private List<StreamFactory> streamFactories;
 
+    @Autowired(required = false)
+    private List<IdentifiedStreamCreator<?>> identifiedStreamCreators;
+
+    @Autowired(required = false)
+    private List<WarmUpStreamIds> warmUpStreamIds;
+
     @Autowired
     private PoolConfiguration poolConfiguration;
 
-    @Bean
+    @Bean(destroyMethod = "close")
     public LocalPool pool() {
         return new LocalPool(emptyIfNull(streamFactories), poolConfiguration);
     }
 
+    @Bean
+    public PoolWarmUp poolWarmUp() {
+        Set<StreamId<?>> ids = new LinkedHashSet<>();
+        for (IdentifiedStreamCreator<?> creator : emptyIfNull(identifiedStreamCreators)) {
+            if (creator.isEager()) {
+                ids.add(creator.getId());
+            }
+        }
+        for (WarmUpStreamIds warmUpIds : emptyIfNull(warmUpStreamIds)) {
+            ids.addAll(warmUpIds.ids());
+        }
+        return pool().prepareWarmUp(ids);
+    }
+
+    @Bean
+    public ApplicationListener<ContextRefreshedEvent> poolWarmUpStarter() {
+        return new PoolWarmUpStarter(poolWarmUp());
+    }
+
 }
@@ -0,0 +1,84 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.conf;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * A {@link Scheduler} backed by an {@link ExecutorService} which it owns. Differently from
+ * {@link Schedulers#from(java.util.concurrent.Executor)}, shutting down this scheduler shuts down the executor, so that
+ * its threads do not outlive the pool using it.
+ */
+public class ExecutorServiceScheduler extends Scheduler {
+
+    private final ExecutorService executor;
+    private final Scheduler delegate;
+
+    public ExecutorServiceScheduler(ExecutorService executor) {
+        this.executor = requireNonNull(executor, "executor must not be null");
+        this.delegate = Schedulers.from(executor);
+    }
+
+    @Override
+    public Worker createWorker() {
+        return delegate.createWorker();
+    }
+
+    /**
+     * Stops accepting new tasks. The already scheduled tasks are still executed.
+     */
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Waits for the scheduled tasks to finish after a {@link #shutdown()}. The tasks which did not finish within the
+     * given time are interrupted.
+     *
+     * @param timeout the maximum time to wait
+     * @return {@code true} if all the tasks finished within the given time
+     */
+    public boolean awaitTermination(Duration timeout) {
+        try {
+            if (executor.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        return false;
+    }
+
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+}
@@ -0,0 +1,88 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.conf;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collection;
+
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Decides which of the streams created by the factories of a pool are multicast. A multicast stream subscribes only
+ * once to the publisher returned by the factory, as soon as it gets the first subscriber, and dispatches the emitted
+ * items to all its subscribers. Therefore, the operators of the stream (e.g. the conversion of a derived stream) are
+ * executed only once per item, independent of the number of subscribers. The upstream subscription is cancelled when
+ * the last subscriber cancels.
+ * <p>
+ * Note that multicast streams are hot: subscribers only receive the items emitted after their subscription. By default
+ * no stream is multicast (see {@link #none()}).
+ *
+ * @see PoolConfiguration#withMulticastPolicy(MulticastPolicy)
+ */
+@FunctionalInterface
+public interface MulticastPolicy {
+
+    /**
+     * @param id the id of the newly created stream
+     * @param factory the factory which created the stream
+     * @return {@code true} if the stream shall be multicast to all its subscribers, {@code false} otherwise
+     */
+    boolean isMulticast(StreamId<?> id, StreamFactory factory);
+
+    /**
+     * @return a policy which is true if either this policy or the other one is true
+     */
+    default MulticastPolicy or(MulticastPolicy other) {
+        requireNonNull(other, "other policy must not be null");
+        return (id, factory) -> isMulticast(id, factory) || other.isMulticast(id, factory);
+    }
+
+    static MulticastPolicy none() {
+        return (id, factory) -> false;
+    }
+
+    static MulticastPolicy allStreams() {
+        return (id, factory) -> true;
+    }
+
+    /**
+     * @return a policy which multicasts all streams created by factories of one of the given types (or subtypes)
+     */
+    static MulticastPolicy forStreamsCreatedBy(Collection<? extends Class<? extends StreamFactory>> factoryTypes) {
+        Collection<Class<? extends StreamFactory>> types = ImmutableSet.copyOf(factoryTypes);
+        return (id, factory) -> types.stream().anyMatch(type -> type.isInstance(factory));
+    }
+
+    /**
+     * @return a policy which multicasts all streams whose ids are of one of the given types (or subtypes)
+     */
+    @SuppressWarnings("rawtypes")
+    static MulticastPolicy forIdsOfType(Collection<? extends Class<? extends StreamId>> idTypes) {
+        Collection<Class<? extends StreamId>> types = ImmutableSet.copyOf(idTypes);
+        return (id, factory) -> types.stream().anyMatch(type -> type.isInstance(id));
+    }
+
+}
@@ -1,5 +1,18 @@
 package org.streamingpool.core.conf;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static org.streamingpool.core.util.DaemonThreads.numberedDaemonThreads;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import org.streamingpool.core.domain.batching.BatchingAware;
+import org.streamingpool.core.domain.batching.BatchingStrategy;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamId;
+
 import io.reactivex.Scheduler;
 
 /**
@@ -7,23 +20,366 @@ import io.reactivex.Scheduler;
  */
 public class PoolConfiguration {
 
+    private static final int DEFAULT_OBSERVE_ON_CAPACITY = 128;
+    private static final Duration NO_EVICTION = Duration.ofSeconds(-1);
+    private static final Executor DEFAULT_DISCOVERY_EXECUTOR = Executors
+            .newCachedThreadPool(numberedDaemonThreads("streamingpool-discovery-"));
+    private static final int DEFAULT_BULK_DISCOVERY_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final Duration NO_NEGATIVE_CACHE = Duration.ofSeconds(-1);
+    private static final int DEFAULT_NEGATIVE_CACHE_MAXIMUM_SIZE = 10_000;
+    private static final Duration NO_METRICS = Duration.ofSeconds(-1);
+    private static final Duration DEFAULT_DROP_REPORTING_PERIOD = Duration.ofSeconds(1);
+
     private final Scheduler scheduler;
     private final int observeOnCapacity;
+    private final Duration evictionGracePeriod;
+    private final MulticastPolicy multicastPolicy;
+    private final Executor discoveryExecutor;
+    private final int bulkDiscoveryParallelism;
+    private final Duration negativeCacheTimeToLive;
+    private final int negativeCacheMaximumSize;
+    private final boolean observeOnPerStage;
+    private final BatchingStrategy batchingStrategy;
+    private final Duration metricsSamplingPeriod;
+    private final Duration dropReportingPeriod;
 
     public PoolConfiguration(Scheduler scheduler) {
-        this(scheduler, 128);
+        this(scheduler, DEFAULT_OBSERVE_ON_CAPACITY);
     }
 
     public PoolConfiguration(Scheduler scheduler, int observeOnCapacity) {
-        this.scheduler = scheduler;
-        this.observeOnCapacity = observeOnCapacity;
+        this(new Builder(scheduler, observeOnCapacity));
+    }
+
+    private PoolConfiguration(Builder builder) {
+        this.scheduler = builder.scheduler;
+        this.observeOnCapacity = builder.observeOnCapacity;
+        this.evictionGracePeriod = builder.evictionGracePeriod;
+        this.multicastPolicy = builder.multicastPolicy;
+        this.discoveryExecutor = builder.discoveryExecutor;
+        this.bulkDiscoveryParallelism = builder.bulkDiscoveryParallelism;
+        this.negativeCacheTimeToLive = builder.negativeCacheTimeToLive;
+        this.negativeCacheMaximumSize = builder.negativeCacheMaximumSize;
+        this.observeOnPerStage = builder.observeOnPerStage;
+        this.batchingStrategy = builder.batchingStrategy;
+        this.metricsSamplingPeriod = builder.metricsSamplingPeriod;
+        this.dropReportingPeriod = builder.dropReportingPeriod;
+    }
+
+    /**
+     * Creates a configuration equal to this one, but in which the streams created by the factories are evicted from the
+     * pool once they had no subscribers for the given grace period. Evicted streams are created again (through the
+     * factories) on the next discovery. A negative grace period disables the eviction, which is the default.
+     *
+     * @param newEvictionGracePeriod the time a stream is kept in the pool after its last subscriber cancelled
+     * @return a new pool configuration
+     */
+    public PoolConfiguration withEvictionGracePeriod(Duration newEvictionGracePeriod) {
+        return toBuilder().evictionGracePeriod(
+                requireNonNull(newEvictionGracePeriod, "evictionGracePeriod must not be null")).build();
+    }
+
+    /**
+     * Creates a configuration equal to this one, but in which the streams created by the factories are multicast to
+     * their subscribers as decided by the given policy.
+     *
+     * @param newMulticastPolicy the policy deciding which streams are multicast
+     * @return a new pool configuration
+     */
+    public PoolConfiguration withMulticastPolicy(MulticastPolicy newMulticastPolicy) {
+        return toBuilder().multicastPolicy(requireNonNull(newMulticastPolicy, "multicastPolicy must not be null"))
+                .build();
+    }
+
+    /**
+     * Creates a configuration equal to this one, but in which asynchronous discoveries (see
+     * {@link DiscoveryService#discoverAsync(StreamId)}) are executed by the given executor. The creation of a stream
+     * can wait for the creation of its upstream streams in other tasks of this executor, so it must not have a bounded
+     * number of threads. By default, a cached pool of daemon threads shared by all the pools is used.
+     *
+     * @param newDiscoveryExecutor the executor for asynchronous discoveries
+     * @return a new pool configuration
+     */
+    public PoolConfiguration withDiscoveryExecutor(Executor newDiscoveryExecutor) {
+        return toBuilder()
+                .discoveryExecutor(requireNonNull(newDiscoveryExecutor, "discoveryExecutor must not be null")).build();
+    }
+
+    /**
+     * Creates a configuration equal to this one, but in which at most the given number of streams are created in
+     * parallel by a bulk discovery (see {@link DiscoveryService#discoverAll(java.util.Collection)}). By default, this
+     * is the number of available processors.
+     *
+     * @param newBulkDiscoveryParallelism the maximum number of threads used by a bulk discovery
+     * @return a new pool configuration
+     */
+    public PoolConfiguration withBulkDiscoveryParallelism(int newBulkDiscoveryParallelism) {
+        checkArgument(newBulkDiscoveryParallelism > 0, "bulkDiscoveryParallelism must be positive, but was %s",
+                newBulkDiscoveryParallelism);
+        return toBuilder().bulkDiscoveryParallelism(newBulkDiscoveryParallelism).build();
+    }
+
+    /**
+     * Creates a configuration equal to this one, but in which the ids which none of the factories can create are
+     * remembered for the given time, so that discovering them again fails fast. The cache is dropped whenever a stream,
+     * a factory or a creator (of a {@link org.streamingpool.core.service.DynamicStreamFactory}) is added to the pool. A
+     * negative time to live disables the cache, which is the default.
+     *
+     * @param newTimeToLive the time an unresolvable id is remembered
+     * @param newMaximumSize the maximum number of unresolvable ids remembered at the same time
+     * @return a new pool configuration
+     */
+    public PoolConfiguration withNegativeCache(Duration newTimeToLive, int newMaximumSize) {
+        checkArgument(newMaximumSize > 0, "negative cache maximum size must be positive, but was %s", newMaximumSize);
+        return toBuilder()
+                .negativeCacheTimeToLive(requireNonNull(newTimeToLive, "negativeCacheTimeToLive must not be null"))
+                .negativeCacheMaximumSize(newMaximumSize).build();
+    }
+
+    /**
+     * Creates a configuration equal to this one, but in which the streams discovered by the factories (to build their
+     * own streams on top of them) are also observed on the pool scheduler. By default, only the streams discovered from
+     * outside the pool are: the items then travel through a whole chain of streams (e.g. derived ids) on the producing
+     * thread and are handed over to the pool scheduler only once, right before the subscriber. Enabling this adds a
+     * thread hand-over per stage of the chain, which only helps if the factories do blocking work on the items.
+     *
+     * @param newObserveOnPerStage whether the streams discovered by the factories are observed on the pool scheduler
+     * @return a new pool configuration
+     */
+    public PoolConfiguration withObserveOnPerStage(boolean newObserveOnPerStage) {
+        return toBuilder().observeOnPerStage(newObserveOnPerStage).build();
+    }
+
+    /**
+     * Creates a configuration equal to this one, but in which the items of the discovered streams are handed over to
+     * the pool scheduler as described by the given strategy. Ids implementing {@link BatchingAware} can override this
+     * per stream. By default, the items are handed over one by one.
+     *
+     * @param newBatchingStrategy the batching strategy for all the streams
+     * @return a new pool configuration
+     */
+    public PoolConfiguration withBatching(BatchingStrategy newBatchingStrategy) {
+        return toBuilder()
+                .batchingStrategy(requireNonNull(newBatchingStrategy, "batchingStrategy must not be null")).build();
+    }
+
+    /**
+     * Creates a configuration equal to this one, but in which the pool keeps runtime metrics for each of its streams
+     * (emissions, subscribers, items waiting to be observed on the pool scheduler, dropped items and creation time).
+     * The metrics are sampled with the given period and published as snapshots by
+     * {@link org.streamingpool.core.service.streamid.StreamMetricsHook#STREAM_METRICS} and as JMX MBeans. A negative
+     * period disables the metrics, which is the default: the streams are then not instrumented at all.
+     *
+     * @param newSamplingPeriod the period at which the metrics are sampled and published
+     * @return a new pool configuration
+     */
+    public PoolConfiguration withMetrics(Duration newSamplingPeriod) {
+        requireNonNull(newSamplingPeriod, "metricsSamplingPeriod must not be null");
+        checkArgument(!newSamplingPeriod.isZero(), "metrics sampling period must not be zero");
+        return toBuilder().metricsSamplingPeriod(newSamplingPeriod).build();
+    }
+
+    /**
+     * Creates a configuration equal to this one, but in which the companion streams of the
+     * {@link org.streamingpool.core.domain.backpressure.BackpressureAware} streams (see
+     * {@link org.streamingpool.core.service.diagnostic.DroppedStreamId}) summarize the dropped items over the given
+     * period. By default, this is one second.
+     *
+     * @param newDropReportingPeriod the interval of the drop summaries
+     * @return a new pool configuration
+     */
+    public PoolConfiguration withDropReportingPeriod(Duration newDropReportingPeriod) {
+        requireNonNull(newDropReportingPeriod, "dropReportingPeriod must not be null");
+        checkArgument(!newDropReportingPeriod.isNegative() && !newDropReportingPeriod.isZero(),
+                "drop reporting period must be positive, but was %s", newDropReportingPeriod);
+        return toBuilder().dropReportingPeriod(newDropReportingPeriod).build();
     }
 
     public Scheduler getScheduler() {
         return scheduler;
     }
 
+    /**
+     * Returns the scheduler on which the stream with the given id shall be observed. This is the scheduler of this
+     * configuration, except for a {@link StripedScheduler}, which provides a dedicated lane per id.
+     *
+     * @param id the id of the stream to observe
+     * @return the scheduler for the given stream
+     */
+    public Scheduler getScheduler(StreamId<?> id) {
+        if (scheduler instanceof StripedScheduler) {
+            return ((StripedScheduler) scheduler).laneFor(id);
+        }
+        return scheduler;
+    }
+
     public int getObserveOnCapacity() {
         return observeOnCapacity;
     }
+
+    public Duration getEvictionGracePeriod() {
+        return evictionGracePeriod;
+    }
+
+    public MulticastPolicy getMulticastPolicy() {
+        return multicastPolicy;
+    }
+
+    public Executor getDiscoveryExecutor() {
+        return discoveryExecutor;
+    }
+
+    public int getBulkDiscoveryParallelism() {
+        return bulkDiscoveryParallelism;
+    }
+
+    public Duration getNegativeCacheTimeToLive() {
+        return negativeCacheTimeToLive;
+    }
+
+    public int getNegativeCacheMaximumSize() {
+        return negativeCacheMaximumSize;
+    }
+
+    public boolean isNegativeCacheEnabled() {
+        return !negativeCacheTimeToLive.isNegative();
+    }
+
+    public boolean isObserveOnPerStage() {
+        return observeOnPerStage;
+    }
+
+    public BatchingStrategy getBatchingStrategy() {
+        return batchingStrategy;
+    }
+
+    /**
+     * Returns the batching strategy for the stream with the given id: the one of the id, if it is
+     * {@link BatchingAware}, otherwise the one of this configuration.
+     *
+     * @param id the id of the stream
+     * @return the batching strategy for the given stream
+     */
+    public BatchingStrategy getBatchingStrategy(StreamId<?> id) {
+        if (id instanceof BatchingAware) {
+            BatchingStrategy idStrategy = ((BatchingAware) id).batchingStrategy();
+            if (idStrategy != null) {
+                return idStrategy;
+            }
+        }
+        return batchingStrategy;
+    }
+
+    public Duration getMetricsSamplingPeriod() {
+        return metricsSamplingPeriod;
+    }
+
+    public boolean isMetricsEnabled() {
+        return !metricsSamplingPeriod.isNegative();
+    }
+
+    public Duration getDropReportingPeriod() {
+        return dropReportingPeriod;
+    }
+
+    public boolean isEvictionEnabled() {
+        return !evictionGracePeriod.isNegative();
+    }
+
+    private Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Collects the values of a configuration, so that each wither only has to name the value it changes.
+     */
+    private static final class Builder {
+
+        private final Scheduler scheduler;
+        private final int observeOnCapacity;
+        private Duration evictionGracePeriod = NO_EVICTION;
+        private MulticastPolicy multicastPolicy = MulticastPolicy.none();
+        private Executor discoveryExecutor = DEFAULT_DISCOVERY_EXECUTOR;
+        private int bulkDiscoveryParallelism = DEFAULT_BULK_DISCOVERY_PARALLELISM;
+        private Duration negativeCacheTimeToLive = NO_NEGATIVE_CACHE;
+        private int negativeCacheMaximumSize = DEFAULT_NEGATIVE_CACHE_MAXIMUM_SIZE;
+        private boolean observeOnPerStage = false;
+        private BatchingStrategy batchingStrategy = BatchingStrategy.none();
+        private Duration metricsSamplingPeriod = NO_METRICS;
+        private Duration dropReportingPeriod = DEFAULT_DROP_REPORTING_PERIOD;
+
+        Builder(Scheduler scheduler, int observeOnCapacity) {
+            this.scheduler = scheduler;
+            this.observeOnCapacity = observeOnCapacity;
+        }
+
+        Builder(PoolConfiguration configuration) {
+            this(configuration.scheduler, configuration.observeOnCapacity);
+            this.evictionGracePeriod = configuration.evictionGracePeriod;
+            this.multicastPolicy = configuration.multicastPolicy;
+            this.discoveryExecutor = configuration.discoveryExecutor;
+            this.bulkDiscoveryParallelism = configuration.bulkDiscoveryParallelism;
+            this.negativeCacheTimeToLive = configuration.negativeCacheTimeToLive;
+            this.negativeCacheMaximumSize = configuration.negativeCacheMaximumSize;
+            this.observeOnPerStage = configuration.observeOnPerStage;
+            this.batchingStrategy = configuration.batchingStrategy;
+            this.metricsSamplingPeriod = configuration.metricsSamplingPeriod;
+            this.dropReportingPeriod = configuration.dropReportingPeriod;
+        }
+
+        Builder evictionGracePeriod(Duration newEvictionGracePeriod) {
+            this.evictionGracePeriod = newEvictionGracePeriod;
+            return this;
+        }
+
+        Builder multicastPolicy(MulticastPolicy newMulticastPolicy) {
+            this.multicastPolicy = newMulticastPolicy;
+            return this;
+        }
+
+        Builder discoveryExecutor(Executor newDiscoveryExecutor) {
+            this.discoveryExecutor = newDiscoveryExecutor;
+            return this;
+        }
+
+        Builder bulkDiscoveryParallelism(int newBulkDiscoveryParallelism) {
+            this.bulkDiscoveryParallelism = newBulkDiscoveryParallelism;
+            return this;
+        }
+
+        Builder negativeCacheTimeToLive(Duration newTimeToLive) {
+            this.negativeCacheTimeToLive = newTimeToLive;
+            return this;
+        }
+
+        Builder negativeCacheMaximumSize(int newMaximumSize) {
+            this.negativeCacheMaximumSize = newMaximumSize;
+            return this;
+        }
+
+        Builder observeOnPerStage(boolean newObserveOnPerStage) {
+            this.observeOnPerStage = newObserveOnPerStage;
+            return this;
+        }
+
+        Builder batchingStrategy(BatchingStrategy newBatchingStrategy) {
+            this.batchingStrategy = newBatchingStrategy;
+            return this;
+        }
+
+        Builder metricsSamplingPeriod(Duration newSamplingPeriod) {
+            this.metricsSamplingPeriod = newSamplingPeriod;
+            return this;
+        }
+
+        Builder dropReportingPeriod(Duration newDropReportingPeriod) {
+            this.dropReportingPeriod = newDropReportingPeriod;
+            return this;
+        }
+
+        PoolConfiguration build() {
+            return new PoolConfiguration(this);
+        }
+    }
+
 }
@@ -0,0 +1,50 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.conf;
+
+/**
+ * The types of schedulers which can be used by a pool to observe its streams on. The type can be selected through the
+ * {@value DefaultPoolConfiguration#STREAMINGPOOL_SCHEDULER_TYPE} property.
+ *
+ * @see PoolSchedulers
+ */
+public enum PoolSchedulerType {
+
+    /**
+     * A fixed number of platform threads (see {@value DefaultPoolConfiguration#STREAMINGPOOL_THREAD_POOL_SIZE}). This
+     * is the default.
+     */
+    FIXED_THREAD_POOL,
+
+    /**
+     * A new virtual thread for each task. Subscribers which block (e.g. slow consumers) do not occupy platform threads
+     * then. Falls back to {@link #FIXED_THREAD_POOL} on runtimes without virtual threads (before Java 21).
+     */
+    VIRTUAL_THREADS,
+
+    /**
+     * One single-threaded lane per available processor, each stream being always observed on the lane determined by the
+     * hash of its id (see {@link StripedScheduler}). This keeps the items of a stream on the same thread.
+     */
+    STRIPED_BY_STREAM_ID
+
+}
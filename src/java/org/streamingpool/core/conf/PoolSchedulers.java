@@ -0,0 +1,137 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.conf;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.reactivex.Scheduler;
+
+/**
+ * Factory methods for the {@link Scheduler}s on which the streams of a pool are observed.
+ *
+ * @see PoolSchedulerType
+ */
+public final class PoolSchedulers {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PoolSchedulers.class);
+    private static final String VIRTUAL_THREAD_EXECUTOR_FACTORY_METHOD = "newVirtualThreadPerTaskExecutor";
+
+    private PoolSchedulers() {
+        /* only static methods */
+    }
+
+    /**
+     * Creates a scheduler of the given type.
+     *
+     * @param schedulerType the type of the scheduler to create
+     * @param threadPoolSize the number of threads for the types which use a pool of platform threads
+     * @return a new scheduler
+     */
+    public static Scheduler schedulerOfType(PoolSchedulerType schedulerType, int threadPoolSize) {
+        switch (schedulerType) {
+        case FIXED_THREAD_POOL:
+            return fixedThreadPool(threadPoolSize);
+        case VIRTUAL_THREADS:
+            return virtualThreadPerTask(threadPoolSize);
+        case STRIPED_BY_STREAM_ID:
+            return stripedByStreamId(Runtime.getRuntime().availableProcessors());
+        default:
+            throw new IllegalArgumentException("Unknown scheduler type: " + schedulerType);
+        }
+    }
+
+    /**
+     * @return a scheduler backed by a fixed number of platform threads
+     */
+    public static Scheduler fixedThreadPool(int threadPoolSize) {
+        return new ExecutorServiceScheduler(Executors.newFixedThreadPool(threadPoolSize));
+    }
+
+    /**
+     * Creates a scheduler which executes each task in a new virtual thread. Virtual threads are only available from
+     * Java 21 onwards. On older runtimes a warning is logged and a scheduler backed by a fixed thread pool of the given
+     * size is returned instead.
+     *
+     * @param fallbackThreadPoolSize the number of platform threads to use if virtual threads are not available
+     * @return a new scheduler
+     */
+    public static Scheduler virtualThreadPerTask(int fallbackThreadPoolSize) {
+        Optional<ExecutorService> executor = newVirtualThreadPerTaskExecutor();
+        if (executor.isPresent()) {
+            return new ExecutorServiceScheduler(executor.get());
+        }
+        LOGGER.warn("Virtual threads are not supported by this Java runtime ({}). Falling back to a fixed thread pool "
+                + "of {} threads.", System.getProperty("java.version"), fallbackThreadPoolSize);
+        return fixedThreadPool(fallbackThreadPoolSize);
+    }
+
+    /**
+     * @return a scheduler with the given number of single-threaded lanes, on which each stream is observed on the lane
+     *         determined by its id
+     * @see StripedScheduler
+     */
+    public static Scheduler stripedByStreamId(int numberOfLanes) {
+        return new StripedScheduler(numberOfLanes);
+    }
+
+    /**
+     * Shuts down the given scheduler and, for the schedulers created by this class, waits for their threads to finish
+     * the already scheduled tasks. Tasks which did not finish within the given time are interrupted.
+     *
+     * @param scheduler the scheduler to shut down
+     * @param timeout the maximum time to wait for the scheduled tasks
+     * @return {@code true} if all the scheduled tasks finished within the given time
+     */
+    public static boolean shutdown(Scheduler scheduler, Duration timeout) {
+        scheduler.shutdown();
+        if (scheduler instanceof ExecutorServiceScheduler) {
+            return ((ExecutorServiceScheduler) scheduler).awaitTermination(timeout);
+        }
+        if (scheduler instanceof StripedScheduler) {
+            return ((StripedScheduler) scheduler).awaitTermination(timeout);
+        }
+        return true;
+    }
+
+    /**
+     * @return a new executor starting a virtual thread per task or an empty optional if virtual threads are not
+     *         supported by the current Java runtime
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factoryMethod = Executors.class.getMethod(VIRTUAL_THREAD_EXECUTOR_FACTORY_METHOD);
+            return Optional.of((ExecutorService) factoryMethod.invoke(null));
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            LOGGER.debug("Virtual thread executor not available", e);
+            return Optional.empty();
+        }
+    }
+
+}
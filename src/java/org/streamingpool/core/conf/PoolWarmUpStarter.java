@@ -0,0 +1,46 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.conf;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.streamingpool.core.service.impl.PoolWarmUp;
+
+/**
+ * Starts the warm-up of the pool once the application context is refreshed, so that all the beans which might be
+ * needed to create the streams are available.
+ */
+final class PoolWarmUpStarter implements ApplicationListener<ContextRefreshedEvent> {
+
+    private final PoolWarmUp warmUp;
+
+    PoolWarmUpStarter(PoolWarmUp warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        /* Has no effect on refreshes of child contexts, as the warm-up is already started */
+        warmUp.start();
+    }
+
+}
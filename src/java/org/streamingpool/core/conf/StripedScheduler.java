@@ -0,0 +1,112 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.conf;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static org.streamingpool.core.util.DaemonThreads.newDaemonThread;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Scheduler;
+
+/**
+ * A scheduler consisting of a fixed number of single-threaded lanes. Work which is related to a certain key (e.g. a
+ * {@link org.streamingpool.core.service.StreamId}) can be scheduled on the lane of this key (see
+ * {@link #laneFor(Object)}), which is always the same one. Consecutive items of a stream are then processed in order by
+ * the same thread, which keeps its data in the CPU caches of this thread, without the need of a big shared thread pool.
+ * <p>
+ * Used as a plain {@link Scheduler}, the workers are distributed over the lanes in a round robin fashion.
+ *
+ * @see PoolSchedulerType#STRIPED_BY_STREAM_ID
+ */
+public class StripedScheduler extends Scheduler {
+
+    private final ExecutorServiceScheduler[] lanes;
+    private final AtomicInteger nextLane = new AtomicInteger();
+
+    public StripedScheduler(int numberOfLanes) {
+        checkArgument(numberOfLanes > 0, "number of lanes must be > 0 but was " + numberOfLanes);
+        this.lanes = new ExecutorServiceScheduler[numberOfLanes];
+        for (int i = 0; i < numberOfLanes; i++) {
+            lanes[i] = new ExecutorServiceScheduler(Executors.newSingleThreadExecutor(laneThreadFactory(i)));
+        }
+    }
+
+    /**
+     * @return the lane on which all the work related to the given key shall be scheduled
+     */
+    public Scheduler laneFor(Object key) {
+        requireNonNull(key, "key must not be null");
+        int hash = key.hashCode();
+        return lanes[Math.floorMod(hash ^ (hash >>> 16), lanes.length)];
+    }
+
+    public int numberOfLanes() {
+        return lanes.length;
+    }
+
+    @Override
+    public Worker createWorker() {
+        return lanes[Math.floorMod(nextLane.getAndIncrement(), lanes.length)].createWorker();
+    }
+
+    @Override
+    public void start() {
+        for (Scheduler lane : lanes) {
+            lane.start();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        for (Scheduler lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    /**
+     * Waits for the tasks of all the lanes to finish after a {@link #shutdown()}, interrupting the ones which did not
+     * finish within the given time.
+     *
+     * @param timeout the maximum time to wait for all the lanes together
+     * @return {@code true} if all the tasks finished within the given time
+     * @see ExecutorServiceScheduler#awaitTermination(Duration)
+     */
+    public boolean awaitTermination(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        boolean terminated = true;
+        for (ExecutorServiceScheduler lane : lanes) {
+            Duration remaining = Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+            terminated &= lane.awaitTermination(remaining);
+        }
+        return terminated;
+    }
+
+    private static ThreadFactory laneThreadFactory(int laneIndex) {
+        return runnable -> newDaemonThread(runnable, "streamingpool-lane-" + laneIndex);
+    }
+
+}
@@ -0,0 +1,59 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.conf;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.impl.PoolWarmUp;
+
+/**
+ * Ids of streams which shall be created when the pool starts (see {@link PoolWarmUp}). All the beans of this type are
+ * picked up by the {@link EmbeddedPoolConfiguration}.
+ */
+public final class WarmUpStreamIds {
+
+    private final List<StreamId<?>> ids;
+
+    private WarmUpStreamIds(Collection<? extends StreamId<?>> ids) {
+        this.ids = unmodifiableList(new ArrayList<>(ids));
+    }
+
+    public static WarmUpStreamIds of(StreamId<?>... ids) {
+        return new WarmUpStreamIds(asList(ids));
+    }
+
+    public static WarmUpStreamIds of(Collection<? extends StreamId<?>> ids) {
+        return new WarmUpStreamIds(ids);
+    }
+
+    public List<StreamId<?>> ids() {
+        return ids;
+    }
+
+}
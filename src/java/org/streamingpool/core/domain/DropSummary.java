@@ -0,0 +1,90 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.domain;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.streamingpool.core.service.diagnostic.DroppedStreamId;
+
+/**
+ * The items of a stream dropped by its backpressure strategy during a reporting interval of the pool.
+ *
+ * @param <T> the type of the items of the stream
+ * @see DroppedStreamId
+ */
+public final class DropSummary<T> {
+
+    private final long count;
+    private final Duration interval;
+    private final T lastDropped;
+
+    public DropSummary(long count, Duration interval, T lastDropped) {
+        this.count = count;
+        this.interval = Objects.requireNonNull(interval, "interval must not be null");
+        this.lastDropped = lastDropped;
+    }
+
+    /**
+     * @return the number of items dropped during the interval
+     */
+    public long count() {
+        return count;
+    }
+
+    public Duration interval() {
+        return interval;
+    }
+
+    /**
+     * @return the last dropped item, if known. The buffer strategies only count the items they drop, so no item is
+     *         known for them.
+     */
+    public Optional<T> lastDropped() {
+        return Optional.ofNullable(lastDropped);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(count, interval, lastDropped);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        DropSummary<?> other = (DropSummary<?>) obj;
+        return count == other.count && interval.equals(other.interval)
+                && Objects.equals(lastDropped, other.lastDropped);
+    }
+
+    @Override
+    public String toString() {
+        return "DropSummary [count=" + count + ", interval=" + interval + ", lastDropped=" + lastDropped + "]";
+    }
+
+}
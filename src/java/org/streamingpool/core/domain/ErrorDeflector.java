@@ -81,6 +81,25 @@ public final class ErrorDeflector {
         }
     }
 
+    /**
+     * Applies the function to the given value, deflecting an exception onto the error stream. In case an exception
+     * occurs, then the given default value is returned. Other than {@link #emptyOnException(Function)}, this does not
+     * allocate anything per value.
+     *
+     * @param function the function to apply
+     * @param value the value to apply the function to
+     * @param defaultValue the default value to return in case an exception occurred
+     * @return the result of the function or the default value
+     */
+    public <S, T> T deflectExceptions(Function<S, T> function, S value, T defaultValue) {
+        try {
+            return function.apply(value);
+        } catch (Exception e) {
+            deflectOperationIncomingError(function, value, e);
+            return defaultValue;
+        }
+    }
+
     public <T> Optional<T> emptyOnException(Supplier<T> callable) {
         try {
             return Optional.of(callable.get());
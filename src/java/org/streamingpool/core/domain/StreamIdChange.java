@@ -0,0 +1,93 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.domain;
+
+import java.util.Objects;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.StreamChangeHook;
+
+/**
+ * A change of the set of ids of the streams which are currently in a pool. Applying all the changes in the order they
+ * were emitted to an initially empty set results in the ids currently in the pool.
+ *
+ * @see StreamChangeHook#STREAM_CHANGE_HOOK
+ */
+public final class StreamIdChange {
+
+    /**
+     * The kinds of changes of the ids in the pool
+     */
+    public enum Kind {
+        /** A stream was added to the pool */
+        ADDED,
+        /** A stream was removed from the pool (e.g. evicted because it had no subscribers) */
+        REMOVED
+    }
+
+    private final Kind kind;
+    private final StreamId<?> id;
+
+    private StreamIdChange(Kind kind, StreamId<?> id) {
+        this.kind = kind;
+        this.id = Objects.requireNonNull(id, "id must not be null");
+    }
+
+    public static StreamIdChange added(StreamId<?> id) {
+        return new StreamIdChange(Kind.ADDED, id);
+    }
+
+    public static StreamIdChange removed(StreamId<?> id) {
+        return new StreamIdChange(Kind.REMOVED, id);
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public StreamId<?> id() {
+        return id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, id);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        StreamIdChange other = (StreamIdChange) obj;
+        return kind == other.kind && id.equals(other.id);
+    }
+
+    @Override
+    public String toString() {
+        return "StreamIdChange [kind=" + kind + ", id=" + id + "]";
+    }
+
+}
@@ -0,0 +1,131 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.domain;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.StreamMetricsHook;
+
+/**
+ * The runtime metrics of a stream of a pool at a given moment. The counters are cumulated since the stream was added to
+ * the pool (i.e. since its creation).
+ *
+ * @see StreamMetricsHook#STREAM_METRICS
+ */
+public final class StreamMetricsSnapshot {
+
+    private final StreamId<?> id;
+    private final Instant creationTime;
+    private final long emissions;
+    private final double emissionsPerSecond;
+    private final long subscribers;
+    private final long queueDepth;
+    private final long drops;
+
+    public StreamMetricsSnapshot(StreamId<?> id, Instant creationTime, long emissions, double emissionsPerSecond,
+            long subscribers, long queueDepth, long drops) {
+        this.id = Objects.requireNonNull(id, "id must not be null");
+        this.creationTime = Objects.requireNonNull(creationTime, "creationTime must not be null");
+        this.emissions = emissions;
+        this.emissionsPerSecond = emissionsPerSecond;
+        this.subscribers = subscribers;
+        this.queueDepth = queueDepth;
+        this.drops = drops;
+    }
+
+    public StreamId<?> id() {
+        return id;
+    }
+
+    /**
+     * @return the time at which the stream was added to the pool
+     */
+    public Instant creationTime() {
+        return creationTime;
+    }
+
+    /**
+     * @return the number of items emitted to the subscribers of the stream. An item emitted to two subscribers counts
+     *         twice.
+     */
+    public long emissions() {
+        return emissions;
+    }
+
+    /**
+     * @return the emissions per second during the last sampling period of the pool
+     */
+    public double emissionsPerSecond() {
+        return emissionsPerSecond;
+    }
+
+    /**
+     * @return the number of subscribers of the stream, including the streams of the pool built on top of it
+     */
+    public long subscribers() {
+        return subscribers;
+    }
+
+    /**
+     * @return the number of items waiting to be observed on the pool scheduler, summed over all the subscribers
+     */
+    public long queueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @return the number of items dropped by the backpressure strategy of the stream (see
+     *         {@link org.streamingpool.core.domain.backpressure.BackpressureAware})
+     */
+    public long drops() {
+        return drops;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, creationTime, emissions, emissionsPerSecond, subscribers, queueDepth, drops);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        StreamMetricsSnapshot other = (StreamMetricsSnapshot) obj;
+        return id.equals(other.id) && creationTime.equals(other.creationTime) && emissions == other.emissions
+                && Double.compare(emissionsPerSecond, other.emissionsPerSecond) == 0
+                && subscribers == other.subscribers && queueDepth == other.queueDepth && drops == other.drops;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamMetricsSnapshot [id=" + id + ", creationTime=" + creationTime + ", emissions=" + emissions
+                + ", emissionsPerSecond=" + emissionsPerSecond + ", subscribers=" + subscribers + ", queueDepth="
+                + queueDepth + ", drops=" + drops + "]";
+    }
+
+}
@@ -0,0 +1,34 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.domain.batching;
+
+import org.streamingpool.core.conf.PoolConfiguration;
+
+/**
+ * Implemented by stream ids whose streams shall be handed over to the pool scheduler in batches. The strategy of the id
+ * takes precedence over the one of the pool (see {@link PoolConfiguration#withBatching(BatchingStrategy)}).
+ */
+public interface BatchingAware {
+
+    BatchingStrategy batchingStrategy();
+}
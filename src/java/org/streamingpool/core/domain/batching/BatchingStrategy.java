@@ -0,0 +1,115 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.domain.batching;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Describes how the items of a stream are handed over to the pool scheduler: one by one (the default, see
+ * {@link #none()}) or in batches (see {@link #batchesOf(int, Duration)}). In the latter case, the items are collected
+ * into a batch until either the batch is full or the linger time since the first item of the batch has passed. The
+ * whole batch is then handed over as one element and unpacked again for the subscriber. This reduces the per-item cost
+ * of the thread hand-over for high rate streams at the price of a latency of up to the linger time.
+ * <p>
+ * The latest and drop {@link org.streamingpool.core.domain.backpressure.BackpressureStrategy backpressure strategies}
+ * of a batched stream apply to whole batches: a batch is dropped as a whole (and reported as that many dropped items).
+ * The buffer strategies apply to the unpacked items: they buffer and drop items. All of them are applied after the
+ * hand-over, though: the source of a batched stream is consumed without backpressure and the batches not yet taken over
+ * by the pool scheduler are buffered without bound. Batching is thus only suited to streams whose pool scheduler keeps
+ * up with the source on average.
+ *
+ * @see BatchingAware
+ */
+public final class BatchingStrategy {
+
+    private static final BatchingStrategy NONE = new BatchingStrategy(1, Duration.ZERO);
+
+    private final int maxSize;
+    private final Duration linger;
+
+    private BatchingStrategy(int maxSize, Duration linger) {
+        this.maxSize = maxSize;
+        this.linger = linger;
+    }
+
+    /**
+     * @return the strategy handing over the items one by one
+     */
+    public static BatchingStrategy none() {
+        return NONE;
+    }
+
+    /**
+     * Creates a strategy handing over the items in batches of at most the given size, which are emitted at the latest
+     * after the given linger time (counted from the first item of the batch).
+     *
+     * @param maxSize the maximum number of items in a batch, must be greater than one
+     * @param linger the maximum time an item waits for its batch to be emitted, must be positive
+     * @return a new batching strategy
+     */
+    public static BatchingStrategy batchesOf(int maxSize, Duration linger) {
+        checkArgument(maxSize > 1, "maxSize of a batch must be greater than one, but was %s", maxSize);
+        requireNonNull(linger, "linger must not be null");
+        checkArgument(!linger.isNegative() && !linger.isZero(), "linger must be positive, but was %s", linger);
+        return new BatchingStrategy(maxSize, linger);
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 1;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public Duration linger() {
+        return linger;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        BatchingStrategy that = (BatchingStrategy) o;
+
+        return maxSize == that.maxSize && linger.equals(that.linger);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxSize, linger);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchingStrategy[" +
+            "maxSize=" + maxSize +
+            ", linger=" + linger +
+            ']';
+    }
+}
@@ -0,0 +1,109 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.rx.process;
+
+import java.util.Objects;
+
+/**
+ * A change of the content of a {@link ClearableBufferProcessor}. Applying all the deltas in the order they were emitted
+ * to an initially empty list results in the current content of the buffer.
+ *
+ * @see ClearableBufferProcessor#bufferedDeltas()
+ * @param <T> the type of the buffered elements
+ */
+public final class BufferDelta<T> {
+
+    /**
+     * The kinds of changes of the buffer content
+     */
+    public enum Kind {
+        /** One element was appended at the end of the buffer */
+        APPENDED,
+        /** The {@link BufferDelta#count()} oldest elements were removed from the buffer */
+        EVICTED,
+        /** All the {@link BufferDelta#count()} elements were removed from the buffer */
+        CLEARED
+    }
+
+    private final Kind kind;
+    private final T element;
+    private final int count;
+
+    private BufferDelta(Kind kind, T element, int count) {
+        this.kind = kind;
+        this.element = element;
+        this.count = count;
+    }
+
+    public static <T> BufferDelta<T> appended(T element) {
+        return new BufferDelta<>(Kind.APPENDED, Objects.requireNonNull(element, "element must not be null"), 1);
+    }
+
+    public static <T> BufferDelta<T> evicted(int count) {
+        return new BufferDelta<>(Kind.EVICTED, null, count);
+    }
+
+    public static <T> BufferDelta<T> cleared(int count) {
+        return new BufferDelta<>(Kind.CLEARED, null, count);
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * @return the appended element, or {@code null} if this delta is not of kind {@link Kind#APPENDED}
+     */
+    public T element() {
+        return element;
+    }
+
+    /**
+     * @return the number of elements which were appended or removed
+     */
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, element, count);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        BufferDelta<?> other = (BufferDelta<?>) obj;
+        return kind == other.kind && Objects.equals(element, other.element) && count == other.count;
+    }
+
+    @Override
+    public String toString() {
+        return "BufferDelta [kind=" + kind + ", element=" + element + ", count=" + count + "]";
+    }
+
+}
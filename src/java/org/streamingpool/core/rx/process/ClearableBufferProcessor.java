@@ -24,11 +24,16 @@ package org.streamingpool.core.rx.process;
 import static org.streamingpool.core.rx.process.RunState.RUNNING;
 
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.google.common.collect.ImmutableList;
+
 import io.reactivex.Flowable;
 import io.reactivex.processors.BehaviorProcessor;
+import io.reactivex.processors.PublishProcessor;
 
 /**
  * Provides a buffered version of an observable of items of a certain type, where the buffering can be customized.
@@ -55,6 +60,19 @@ import io.reactivex.processors.BehaviorProcessor;
  * fills up and is emitted when it is full. All following buffers are only emitted once. The default value for this is
  * {@value #DEFAULT_MIN_EMIT_SIZE}.
  * </ul>
+ * <p>
+ * The buffered content is available in three forms:
+ * <ul>
+ * <li>{@link #bufferedContent()}: an immutable copy of the whole buffer for each buffered element, shared by all the
+ * subscribers. The copies are only made while this Flowable has subscribers.
+ * <li>{@link #bufferedSnapshots()}: an immutable view of the whole buffer for each buffered element. Consecutive views
+ * share their elements, so that emitting them does not depend on the size of the buffer.
+ * <li>{@link #bufferedDeltas()}: only the changes of the buffer, for consumers which keep their own copy of the
+ * content (e.g. a plot appending the newest point).
+ * </ul>
+ * The buffer is updated under a lock, but the items are emitted after releasing it (in the order of the changes of the
+ * buffer), so that slow subscribers do not hold up the producers while they are called and subscribers can call back
+ * into this processor.
  * 
  * @author kfuchsbe
  * @param <T> of the observable items to buffer.
@@ -63,37 +81,66 @@ public class ClearableBufferProcessor<T> {
 
     private static final RunState DEFAULT_RUN_STATE = RUNNING;
     private static final int DEFAULT_MIN_EMIT_SIZE = 1;
+    private static final int DEFAULT_BUFFER_SIZE = 1;
 
     private AtomicInteger minEmitSize = new AtomicInteger(DEFAULT_MIN_EMIT_SIZE);
     private final AtomicReference<RunState> runState = new AtomicReference<>(DEFAULT_RUN_STATE);
-    private BehaviorProcessor<List<T>> bufferedContent = BehaviorProcessor.create();
-    private ConcurrentCircularBuffer<T> buffer = new ConcurrentCircularBuffer<>();
+    /* Guarded by itself, the emissions are queued under the same lock to keep them in the order of the changes */
+    private final PersistentWindow<T> window = new PersistentWindow<>(DEFAULT_BUFFER_SIZE);
+    private final Queue<Runnable> pendingEmissions = new ConcurrentLinkedQueue<>();
+    /* The number of emission requests, only the thread incrementing it from zero emits */
+    private final AtomicInteger emissionRequests = new AtomicInteger();
+    private final BehaviorProcessor<List<T>> bufferedSnapshots = BehaviorProcessor.create();
+    private final PublishProcessor<BufferDelta<T>> bufferedDeltas = PublishProcessor.create();
+    private final Flowable<List<T>> bufferedContent = bufferedSnapshots.<List<T>> map(ImmutableList::copyOf).replay(1)
+            .refCount();
 
     public void setClearTrigger(Flowable<?> triggerClear) {
-        triggerClear.subscribe(object -> buffer.clear());
+        triggerClear.subscribe(object -> clearWindow());
     }
 
     public Flowable<List<T>> bufferedContent() {
         return bufferedContent;
     }
 
+    /**
+     * Same as {@link #bufferedContent()}, but the emitted lists are immutable views sharing their elements with each
+     * other, instead of copies of the buffer. Taking such a view does not depend on the size of the buffer.
+     */
+    public Flowable<List<T>> bufferedSnapshots() {
+        return bufferedSnapshots;
+    }
+
+    /**
+     * Emits every change of the buffer content: an {@link BufferDelta.Kind#APPENDED} delta for each buffered element
+     * (preceded by an {@link BufferDelta.Kind#EVICTED} delta if the buffer was full), an
+     * {@link BufferDelta.Kind#EVICTED} delta when the buffer size is reduced below the current content and a
+     * {@link BufferDelta.Kind#CLEARED} delta for each clear trigger. The minimum emit size does not apply to the
+     * deltas.
+     * <p>
+     * The deltas are not replayed, so subscribers have to subscribe before the first element is buffered in order to
+     * know the full content of the buffer.
+     */
+    public Flowable<BufferDelta<T>> bufferedDeltas() {
+        return bufferedDeltas;
+    }
+
     public void setMinEmitSize(int minEmitSize) {
         this.minEmitSize.set(minEmitSize);
     }
 
     public void setBufferSize(int bufferSize) {
-        buffer.setLength(bufferSize);
+        resizeWindow(bufferSize);
     }
 
     public void setBufferSize(Flowable<Integer> bufferSize) {
-        bufferSize.subscribe(buffer::setLength);
+        bufferSize.subscribe(this::setBufferSize);
     }
 
     public void setInput(Flowable<T> input) {
         input.subscribe(element -> {
             if (isAcquiring()) {
-                buffer.add(element);
-                publish();
+                appendToWindow(element);
             }
         });
     }
@@ -102,11 +149,57 @@ public class ClearableBufferProcessor<T> {
         return RunState.RUNNING.equals(runState.get());
     }
 
-    private void publish() {
-        List<T> bufferedList = buffer.toList();
-        if (bufferedList.size() >= minEmitSize.get()) {
-            bufferedContent.onNext(bufferedList);
+    private void appendToWindow(T element) {
+        synchronized (window) {
+            int evicted = window.append(element);
+            if (evicted > 0) {
+                emitDelta(BufferDelta.evicted(evicted));
+            }
+            emitDelta(BufferDelta.appended(element));
+            if (window.size() >= minEmitSize.get()) {
+                List<T> snapshot = window.snapshot();
+                pendingEmissions.add(() -> bufferedSnapshots.onNext(snapshot));
+            }
         }
+        emitPending();
+    }
+
+    private void resizeWindow(int length) {
+        synchronized (window) {
+            int evicted = window.setLength(length);
+            if (evicted > 0) {
+                emitDelta(BufferDelta.evicted(evicted));
+            }
+        }
+        emitPending();
+    }
+
+    private void clearWindow() {
+        synchronized (window) {
+            emitDelta(BufferDelta.cleared(window.clear()));
+        }
+        emitPending();
+    }
+
+    private void emitDelta(BufferDelta<T> delta) {
+        pendingEmissions.add(() -> bufferedDeltas.onNext(delta));
+    }
+
+    /**
+     * Emits the queued items, unless another thread is already doing so. In this case, that thread emits them as well.
+     */
+    private void emitPending() {
+        if (emissionRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Runnable emission;
+            while ((emission = pendingEmissions.poll()) != null) {
+                emission.run();
+            }
+            missed = emissionRequests.addAndGet(-missed);
+        } while (missed != 0);
     }
 
     public void setRunState(RunState runState) {
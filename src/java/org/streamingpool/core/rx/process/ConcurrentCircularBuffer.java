@@ -25,45 +25,60 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * A buffer keeping the last {@code length} added elements. Elements are stored in a ring of slots, whose size is the
+ * smallest power of two that fits the length, together with the index under which they were added. Adding claims the
+ * next index and writes its slot without any lock and without allocating; writers only wait for each other if one of
+ * them is a whole ring behind the other. Reading ({@link #toList()}) checks the index of every slot before and after
+ * reading the element, so that it never returns an element which was overwritten meanwhile. Elements whose add is still
+ * in progress while reading are not part of the returned list.
+ * <p>
+ * Changing the length to a value which needs a ring of another size creates a new ring and copies the retained
+ * elements into it. Elements which fall out of the window (or are cleared) are only released when their slot is reused.
+ *
+ * @param <T> the type of the buffered elements
+ */
 public class ConcurrentCircularBuffer<T> {
 
+    private static final int DEFAULT_LENGTH = 1;
+
     private final AtomicLong nextIndex = new AtomicLong(0);
     private final AtomicLong firstIndex = new AtomicLong(0);
-    private final AtomicInteger length = new AtomicInteger(1);
-    
-    private final ConcurrentHashMap<Long, T> elements = new ConcurrentHashMap<>();
+    private final AtomicInteger length = new AtomicInteger(DEFAULT_LENGTH);
+
+    private volatile Ring<T> ring = new Ring<>(DEFAULT_LENGTH);
 
     public void add(T value) {
         long index = nextIndex.getAndIncrement();
-        elements.put(index, value);
-        cleanup();
+        Ring<T> writtenRing = ring;
+        writtenRing.write(index, value);
+        /* The ring might have been replaced while writing, after the element was copied from the old one */
+        Ring<T> currentRing;
+        while ((currentRing = ring) != writtenRing) {
+            currentRing.write(index, value);
+            writtenRing = currentRing;
+        }
     }
 
     public void clear() {
-        cleanUpTo(nextIndex.get());
-    }
-
-    private void cleanup() {
-        long newFirstIndex = nextIndex.get() - length.get();
-        cleanUpTo(newFirstIndex);
-    }
-
-    private void cleanUpTo(long newFirstIndex) {
-        long oldFirstIndex = firstIndex.getAndSet(newFirstIndex);
-        for (long i = oldFirstIndex; i < newFirstIndex; i++) {
-            elements.remove(i);
-        }
+        firstIndex.accumulateAndGet(nextIndex.get(), Math::max);
     }
 
     public List<T> toList() {
-        List<T> list = new ArrayList<>();
-        for (long i = firstIndex.get(), next = nextIndex.get(); i < next; i++) {
-            T element = elements.get(i);
-            /* we have to check for null here, because a concurrent modification could have removed it in the meantime */
+        Ring<T> currentRing = ring;
+        /* first has to be read before next: a clear in between could otherwise move it beyond the read next */
+        long cleared = firstIndex.get();
+        long next = nextIndex.get();
+        long first = Math.max(cleared, next - Math.min(length.get(), currentRing.capacity()));
+        List<T> list = new ArrayList<>((int) (next - first));
+        for (long i = first; i < next; i++) {
+            T element = currentRing.read(i);
+            /* we have to check for null here, because the element might still be written or already be overwritten */
             if (element != null) {
                 list.add(element);
             }
@@ -71,8 +86,85 @@ public class ConcurrentCircularBuffer<T> {
         return list;
     }
 
-    public void setLength(int newLength) {
+    public synchronized void setLength(int newLength) {
         checkArgument(newLength >= 0, "buffer length must be >= 0 but was set to " + newLength);
+        Ring<T> oldRing = ring;
+        if (Ring.capacityFor(newLength) == oldRing.capacity()) {
+            length.set(newLength);
+            return;
+        }
+
+        Ring<T> newRing = new Ring<>(newLength);
+        ring = newRing;
+        long cleared = firstIndex.get();
+        long next = nextIndex.get();
+        long first = Math.max(cleared, next - Math.min(Math.min(length.get(), newLength), oldRing.capacity()));
+        for (long i = first; i < next; i++) {
+            T element = oldRing.read(i);
+            if (element != null) {
+                newRing.write(i, element);
+            }
+        }
         length.set(newLength);
     }
+
+    /**
+     * The slots of the buffer. Each slot holds an element and the index under which it was added. While an element is
+     * written, the index of the slot is replaced by a (negative) marker owned by the writer, which keeps readers and
+     * other writers away from the slot.
+     */
+    private static final class Ring<T> {
+
+        private static final long EMPTY = -1;
+
+        private final AtomicReferenceArray<T> elements;
+        private final AtomicLongArray indices;
+        private final int mask;
+
+        private Ring(int length) {
+            int capacity = capacityFor(length);
+            this.elements = new AtomicReferenceArray<>(capacity);
+            this.indices = new AtomicLongArray(capacity);
+            this.mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                indices.set(i, EMPTY);
+            }
+        }
+
+        private static int capacityFor(int length) {
+            checkArgument(length <= 1 << 30, "buffer length must be <= 2^30 but was " + length);
+            return length <= 1 ? 1 : Integer.highestOneBit(length - 1) << 1;
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        private void write(long index, T element) {
+            int slot = (int) index & mask;
+            long current;
+            do {
+                current = indices.get(slot);
+                if (current >= index) {
+                    /* Already written (e.g. when copied into a new ring) or overwritten by a newer element */
+                    return;
+                }
+            } while (current < EMPTY || !indices.compareAndSet(slot, current, writingMarker(index)));
+            elements.set(slot, element);
+            indices.set(slot, index);
+        }
+
+        private static long writingMarker(long index) {
+            return EMPTY - 1 - index;
+        }
+
+        private T read(long index) {
+            int slot = (int) index & mask;
+            if (indices.get(slot) != index) {
+                return null;
+            }
+            T element = elements.get(slot);
+            return indices.get(slot) == index ? element : null;
+        }
+    }
 }
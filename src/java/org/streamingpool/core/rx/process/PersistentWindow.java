@@ -0,0 +1,157 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.rx.process;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A sliding window over the last {@code length} appended elements, whose snapshots are immutable lists sharing the
+ * elements with the window and with each other. Taking a snapshot therefore costs O(1), independent of the length.
+ * <p>
+ * The elements are stored in fixed-size chunks, referenced by a chunk directory. A stored element is never
+ * overwritten: appending only writes behind the newest element, and when the directory is full a new one is created
+ * which references only the chunks still in the window. A snapshot keeps the directory of the moment it was taken and
+ * therefore stays valid forever.
+ * <p>
+ * This class is not thread-safe; the snapshots are and can be passed to other threads.
+ *
+ * @param <T> the type of the elements
+ */
+final class PersistentWindow<T> {
+
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MIN_DIRECTORY_SIZE = 4;
+
+    private Object[][] chunks = new Object[MIN_DIRECTORY_SIZE][];
+    /* The index of the first element of the first chunk in the directory */
+    private long base;
+    /* The index of the oldest element in the window */
+    private long start;
+    /* The index the next appended element will get */
+    private long end;
+    private int length;
+
+    PersistentWindow(int length) {
+        setLength(length);
+    }
+
+    /**
+     * @return the number of elements evicted because the window would have been longer than its length otherwise
+     */
+    int append(T element) {
+        long position = end - base;
+        int chunk = (int) (position >>> CHUNK_SHIFT);
+        if (chunk == chunks.length) {
+            chunk = moveToNewDirectory();
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new Object[CHUNK_SIZE];
+        }
+        chunks[chunk][(int) (position & CHUNK_MASK)] = element;
+        end++;
+        return evictExceedingElements();
+    }
+
+    /**
+     * @return the number of elements evicted because they do not fit into the new length
+     */
+    int setLength(int newLength) {
+        checkArgument(newLength >= 0, "window length must be >= 0 but was set to " + newLength);
+        length = newLength;
+        return evictExceedingElements();
+    }
+
+    /**
+     * @return the number of removed elements
+     */
+    int clear() {
+        int size = size();
+        start = end;
+        return size;
+    }
+
+    int size() {
+        return (int) (end - start);
+    }
+
+    List<T> snapshot() {
+        return new Snapshot<>(chunks, start - base, size());
+    }
+
+    private int evictExceedingElements() {
+        int exceeding = size() - length;
+        if (exceeding <= 0) {
+            return 0;
+        }
+        start += exceeding;
+        return exceeding;
+    }
+
+    /**
+     * Replaces the full chunk directory by a new one, referencing only the chunks which contain elements of the
+     * window. The old directory is left untouched, as snapshots might still use it.
+     *
+     * @return the index of the next chunk to write in the new directory
+     */
+    private int moveToNewDirectory() {
+        int firstChunk = (int) ((start - base) >>> CHUNK_SHIFT);
+        int usedChunks = chunks.length - firstChunk;
+        Object[][] newChunks = new Object[Math.max(MIN_DIRECTORY_SIZE, 2 * (usedChunks + 1))][];
+        System.arraycopy(chunks, firstChunk, newChunks, 0, usedChunks);
+        chunks = newChunks;
+        base += (long) firstChunk << CHUNK_SHIFT;
+        return usedChunks;
+    }
+
+    private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+
+        private final Object[][] chunks;
+        private final long offset;
+        private final int size;
+
+        private Snapshot(Object[][] chunks, long offset, int size) {
+            this.chunks = chunks;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T get(int index) {
+            checkElementIndex(index, size);
+            long position = offset + index;
+            return (T) chunks[(int) (position >>> CHUNK_SHIFT)][(int) (position & CHUNK_MASK)];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.domain.ErrorStreamPair;
+
+/**
+ * A {@link StreamFactory} which creates its streams asynchronously. This is useful for factories which have to wait for
+ * something while creating a stream (e.g. a connection to a remote system) or which depend on several upstream streams:
+ * they can discover them in parallel using {@link DiscoveryService#discoverAsync(StreamId)} on the provided
+ * {@link DiscoveryService} and combine the resulting stages.
+ * <p>
+ * Differently from {@link StreamFactory#create(StreamId, DiscoveryService)}, the provided {@link DiscoveryService} may
+ * be used from other threads for asynchronous discoveries (e.g. in the continuation of a stage). Synchronous
+ * discoveries ({@link DiscoveryService#discover(StreamId)}) are still only allowed in the thread calling
+ * {@link #createAsync(StreamId, DiscoveryService)}. Cycles between the streams are detected in all cases and make the
+ * discovery fail with a {@link CycleInStreamDiscoveryDetectedException}.
+ *
+ * @see DiscoveryService#discoverAsync(StreamId)
+ */
+public interface AsyncStreamFactory extends StreamFactory {
+
+    /**
+     * Starts the creation of the {@link Publisher} for the given id.
+     *
+     * @param id the id of the stream to create
+     * @param discoveryService {@link DiscoveryService} which can be used by the factory to look up other streams
+     *            ('upstream' of the one it will create)
+     * @return a stage completing with the newly created stream or with {@link ErrorStreamPair#empty()} if this factory
+     *         cannot create the stream of the given id
+     */
+    <T> CompletionStage<ErrorStreamPair<T>> createAsync(StreamId<T> id, DiscoveryService discoveryService);
+
+    /**
+     * Default implementation of the {@link StreamFactory#create(StreamId, DiscoveryService)} method, waiting for the
+     * completion of {@link #createAsync(StreamId, DiscoveryService)}.
+     */
+    @Override
+    default <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+        try {
+            return createAsync(id, discoveryService).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
@@ -22,10 +22,21 @@
 
 package org.streamingpool.core.service;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 import org.reactivestreams.Publisher;
 
 /**
  * Interface used to discover {@link Publisher}.
+ * <p>
+ * <strong>Threading</strong>: the publishers returned by {@link #discover(StreamId)} may deliver their items on a
+ * thread different from the one on which they are produced (e.g. a pool implementation observes them on its own
+ * scheduler), so that slow subscribers do not block the producers. {@link #discoverDirect(StreamId)} returns publishers
+ * which deliver the items on the producing thread.
  * 
  * @see ProvidingService
  */
@@ -42,4 +53,60 @@ public interface DiscoveryService {
      */
     <T> Publisher<T> discover(StreamId<T> id);
 
+    /**
+     * Discovers the {@link Publisher} with the given id, like {@link #discover(StreamId)}, but without switching the
+     * thread on which the items are delivered: subscribers are called directly on the thread which produces the items.
+     * This avoids the cost of a thread hand-over per item and is meant for subscribers which are cheap and never block,
+     * e.g. counting the items or forwarding them to another in-memory stream. Slow subscribers will slow down the
+     * producer and (depending on the producer) all the other subscribers of the same stream.
+     * <p>
+     * The default implementation falls back to {@link #discover(StreamId)}.
+     *
+     * @param id the identifier of the stream to be discovered
+     * @return the discovered {@link Publisher}, emitting on the producing thread
+     */
+    default <T> Publisher<T> discoverDirect(StreamId<T> id) {
+        return discover(id);
+    }
+
+    /**
+     * Discovers the {@link Publisher} with the given id without blocking the calling thread while the stream is
+     * created. The returned stage completes with the same publisher {@link #discover(StreamId)} would return, or
+     * exceptionally if the discovery fails.
+     * <p>
+     * Factories can use this method on the {@link DiscoveryService} they get to discover several upstream streams in
+     * parallel (see {@link AsyncStreamFactory}).
+     * <p>
+     * The default implementation discovers the stream synchronously and returns an already completed stage.
+     *
+     * @param id the identifier of the stream to be discovered
+     * @return a stage completing with the discovered {@link Publisher}
+     */
+    default <T> CompletionStage<Publisher<T>> discoverAsync(StreamId<T> id) {
+        CompletableFuture<Publisher<T>> discovery = new CompletableFuture<>();
+        try {
+            discovery.complete(discover(id));
+        } catch (RuntimeException e) {
+            discovery.completeExceptionally(e);
+        }
+        return discovery;
+    }
+
+    /**
+     * Discovers the {@link Publisher}s of all the given ids at once. Implementations can use the knowledge of all the
+     * ids to create the streams in parallel, creating the streams shared by several of them only once.
+     * <p>
+     * The default implementation discovers the ids one after the other using {@link #discover(StreamId)}.
+     *
+     * @param ids the identifiers of the streams to be discovered
+     * @return the discovered {@link Publisher}s by id, in the iteration order of the given ids
+     */
+    default Map<StreamId<?>, Publisher<?>> discoverAll(Collection<? extends StreamId<?>> ids) {
+        Map<StreamId<?>, Publisher<?>> discovered = new LinkedHashMap<>();
+        for (StreamId<?> id : ids) {
+            discovered.computeIfAbsent(id, this::discover);
+        }
+        return discovered;
+    }
+
 }
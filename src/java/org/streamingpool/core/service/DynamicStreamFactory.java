@@ -0,0 +1,39 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service;
+
+/**
+ * A {@link StreamFactory} whose set of creatable ids can change at runtime (e.g. because new creators are provided to
+ * it). A pool caching the ids which none of its factories can create (see
+ * {@link org.streamingpool.core.conf.PoolConfiguration#withNegativeCache(java.time.Duration, int)}) listens to these
+ * changes to drop its cache.
+ */
+public interface DynamicStreamFactory extends StreamFactory {
+
+    /**
+     * Registers a listener which is called every time this factory becomes able to create more ids than before.
+     *
+     * @param listener the listener to call
+     */
+    void addChangeListener(Runnable listener);
+
+}
@@ -22,6 +22,9 @@
 
 package org.streamingpool.core.service;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.reactivestreams.Publisher;
 import org.streamingpool.core.domain.ErrorStreamPair;
 
@@ -37,6 +40,11 @@ import org.streamingpool.core.domain.ErrorStreamPair;
  * is risen. It is not possible to enforce the single thread execution in the
  * {@link #create(StreamId, DiscoveryService)} method, but using the {@link DiscoveryService} from different threads may
  * lead to unpredictable behavior and can cause deadlocks.
+ * <p>
+ * <strong>Threading</strong>: the streams discovered through the provided {@link DiscoveryService} of a pool deliver
+ * their items on the producing thread (as with {@link DiscoveryService#discoverDirect(StreamId)}), so the operators
+ * applied to them by the factory should not block. The created stream is moved to the pool scheduler only when it is
+ * discovered from outside the pool.
  * 
  * @author acalia
  */
@@ -57,4 +65,34 @@ public interface StreamFactory {
      */
     <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService);
 
+    /**
+     * Returns the classes of the {@link StreamId}s this factory is able to create streams for. The pool uses them to
+     * ask only the factories which can handle the class of a discovered id (instances of subclasses included), instead
+     * of all of them. The returned set must not change over time.
+     * <p>
+     * The default implementation returns an empty set, which means that the factory might handle any id and is
+     * therefore asked for all of them. This is the right choice for generic factories, e.g. ones which look up the ids
+     * in a registry.
+     *
+     * @return the classes of the ids handled by this factory, or an empty set if this factory might handle any id
+     */
+    default Set<Class<?>> streamIdClasses() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Tells whether this factory would create the stream of the given id, without creating it. The pool asks this when
+     * it needs to know in advance which factory would create a stream, e.g. to fuse the chains of derived and filtered
+     * ids into one stage only if no other factory creates their intermediate streams.
+     * <p>
+     * The default implementation returns {@code true}, i.e. the factory might create any id it is asked for. Generic
+     * factories which look up the ids in a registry should answer from it.
+     *
+     * @param id the id of the stream
+     * @return {@code false} if this factory surely does not create the stream of the given id, {@code true} otherwise
+     */
+    default boolean canCreate(StreamId<?> id) {
+        return true;
+    }
+
 }
@@ -22,6 +22,9 @@
 
 package org.streamingpool.core.service;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.reactivestreams.Publisher;
 import org.streamingpool.core.domain.ErrorStreamPair;
 
@@ -55,6 +58,15 @@ public interface TypedStreamFactory<X, T extends StreamId<X>> extends StreamFact
         return ErrorStreamPair.ofData((Publisher<Y>) createReactiveStream((T) id, discoveryService));
     }
 
+    /**
+     * Default implementation of the {@link StreamFactory#streamIdClasses()} method, returning the
+     * {@link #streamIdClass()}.
+     */
+    @Override
+    default Set<Class<?>> streamIdClasses() {
+        return Collections.singleton(streamIdClass());
+    }
+
     /**
      * Actually create the {@link org.reactivestreams.Publisher} from the given id. It is much like
      * {@link StreamFactory#create(StreamId, DiscoveryService)} but with typed {@link StreamId}.
@@ -0,0 +1,87 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.diagnostic;
+
+import static java.util.Objects.requireNonNull;
+
+import org.streamingpool.core.domain.DropSummary;
+import org.streamingpool.core.domain.backpressure.BackpressureAware;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.AbstractCompositeStreamId;
+
+/**
+ * The companion stream of a {@link BackpressureAware} stream of a pool, which reports the items dropped by its
+ * backpressure strategy. It emits a {@link DropSummary} at the end of every reporting interval in which items were
+ * dropped (see {@link org.streamingpool.core.conf.PoolConfiguration#withDropReportingPeriod(java.time.Duration)}). The
+ * companion stream is added to and removed from the pool together with the source stream. There is none for streams
+ * which are not {@link BackpressureAware}.
+ *
+ * @param <T> the type of the items of the source stream
+ */
+public class DroppedStreamId<T> extends AbstractCompositeStreamId<DropSummary<T>> {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<T> sourceId;
+
+    private DroppedStreamId(StreamId<T> sourceId) {
+        this.sourceId = requireNonNull(sourceId, "sourceId must not be null");
+    }
+
+    public static <T> DroppedStreamId<T> of(StreamId<T> sourceId) {
+        return new DroppedStreamId<>(sourceId);
+    }
+
+    public StreamId<T> sourceId() {
+        return sourceId;
+    }
+
+    @Override
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
+        return 31 + sourceId.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        if (hashCode() != obj.hashCode()) {
+            return false;
+        }
+        DroppedStreamId<?> other = (DroppedStreamId<?>) obj;
+        return sourceId.equals(other.sourceId);
+    }
+
+    @Override
+    public String toString() {
+        return "DroppedStreamId [sourceId=" + sourceId + "]";
+    }
+
+}
@@ -5,8 +5,9 @@ import static java.util.Objects.requireNonNull;
 import java.io.Serializable;
 
 import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.AbstractCompositeStreamId;
 
-public class ErrorStreamId<S extends StreamId<?>> implements StreamId<Throwable>, Serializable {
+public class ErrorStreamId<S extends StreamId<?>> extends AbstractCompositeStreamId<Throwable> implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final S sourceId;
@@ -24,7 +25,12 @@ public class ErrorStreamId<S extends StreamId<?>> implements StreamId<Throwable>
 	}
 
 	@Override
-	public int hashCode() {
+	public final int hashCode() {
+		return cachedHashCode();
+	}
+
+	@Override
+	protected int computeHashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((sourceId == null) ? 0 : sourceId.hashCode());
@@ -42,6 +48,9 @@ public class ErrorStreamId<S extends StreamId<?>> implements StreamId<Throwable>
 		if (getClass() != obj.getClass()) {
 			return false;
 		}
+		if (hashCode() != obj.hashCode()) {
+			return false;
+		}
 		ErrorStreamId<?> other = (ErrorStreamId<?>) obj;
 		if (sourceId == null) {
 			if (other.sourceId != null) {
@@ -0,0 +1,128 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.impl;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.domain.batching.BatchingStrategy;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Collects the items of a stream into batches as described by a {@link BatchingStrategy}: a batch is emitted as soon as
+ * it is full, or at the latest when the linger time has passed since its first item. For this, a periodic linger timer
+ * emits the open batch on every tick. The timer is only started when an item arrives and stops itself on the first tick
+ * without items, so idle streams do not cause any work. (A timer per batch would be more expensive for high rate
+ * streams.)
+ * <p>
+ * The source is consumed without backpressure (like by a time bounded buffer), the batches are buffered without bound
+ * until they are requested (see {@link BatchingStrategy}). A pending batch is emitted before the completion or the
+ * error of the source.
+ */
+final class BatchCollector<T> {
+
+    private final FlowableEmitter<List<T>> emitter;
+    private final BatchingStrategy strategy;
+    private final Scheduler.Worker worker;
+
+    /* guarded by this */
+    private List<T> batch;
+    private Disposable lingerTimer;
+    private boolean itemsSinceLastTick;
+
+    private BatchCollector(FlowableEmitter<List<T>> emitter, BatchingStrategy strategy, Scheduler.Worker worker) {
+        this.emitter = emitter;
+        this.strategy = strategy;
+        this.worker = worker;
+    }
+
+    static <T> Flowable<List<T>> batched(Publisher<T> source, BatchingStrategy strategy, Scheduler lingerScheduler) {
+        return Flowable.create(emitter -> {
+            Scheduler.Worker worker = lingerScheduler.createWorker();
+            BatchCollector<T> collector = new BatchCollector<>(emitter, strategy, worker);
+            Disposable subscription = Flowable.fromPublisher(source).subscribe(collector::add, collector::error,
+                    collector::complete);
+            emitter.setCancellable(() -> {
+                subscription.dispose();
+                worker.dispose();
+            });
+        }, BackpressureStrategy.BUFFER);
+    }
+
+    private synchronized void add(T item) {
+        if (batch == null) {
+            batch = new ArrayList<>(strategy.maxSize());
+        }
+        if (lingerTimer == null) {
+            long lingerNanos = strategy.linger().toNanos();
+            lingerTimer = worker.schedulePeriodically(this::tick, lingerNanos, lingerNanos, NANOSECONDS);
+        }
+        itemsSinceLastTick = true;
+        batch.add(item);
+        if (batch.size() >= strategy.maxSize()) {
+            emit();
+        }
+    }
+
+    private synchronized void tick() {
+        if (batch != null) {
+            emit();
+        }
+        if (!itemsSinceLastTick && lingerTimer != null) {
+            lingerTimer.dispose();
+            lingerTimer = null;
+        }
+        itemsSinceLastTick = false;
+    }
+
+    private synchronized void complete() {
+        if (batch != null) {
+            emit();
+        }
+        worker.dispose();
+        emitter.onComplete();
+    }
+
+    private synchronized void error(Throwable error) {
+        if (batch != null) {
+            emit();
+        }
+        worker.dispose();
+        emitter.onError(error);
+    }
+
+    private void emit() {
+        List<T> full = batch;
+        batch = null;
+        emitter.onNext(full);
+    }
+
+}
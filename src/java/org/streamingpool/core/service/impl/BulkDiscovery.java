@@ -0,0 +1,143 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.streamingpool.core.util.DaemonThreads.numberedDaemonThreads;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BiConsumer;
+
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamId;
+
+/**
+ * Discovers many ids at once by running their discoveries on a bounded number of threads. The dependency graph of the
+ * streams does not need to be known in advance: the {@link PoolContent} creates every stream at most once, so a stream
+ * shared by several of the discovered ids is created by the first thread which needs it, while the other threads wait
+ * for this creation only. Waiting threads always wait for a creation which is running in another thread, so the
+ * bounded number of threads cannot starve.
+ * <p>
+ * The discoveries can also run in the background ({@link #discoverAllInBackground(Collection, BiConsumer)}), e.g. to
+ * warm up the pool.
+ */
+final class BulkDiscovery {
+
+    private static final ThreadFactory THREADS = numberedDaemonThreads("streamingpool-bulk-discovery-");
+
+    private final DiscoveryService discoveryService;
+    private final int parallelism;
+
+    BulkDiscovery(DiscoveryService discoveryService, int parallelism) {
+        this.discoveryService = discoveryService;
+        this.parallelism = parallelism;
+    }
+
+    Map<StreamId<?>, Publisher<?>> discoverAll(Collection<? extends StreamId<?>> ids) {
+        Set<StreamId<?>> distinctIds = new LinkedHashSet<>(ids);
+        int threads = Math.min(parallelism, distinctIds.size());
+        if (threads <= 1) {
+            return discoverSequentially(distinctIds);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, THREADS);
+        Map<StreamId<?>, Future<Publisher<?>>> discoveries = new LinkedHashMap<>();
+        try {
+            for (StreamId<?> id : distinctIds) {
+                Callable<Publisher<?>> discovery = () -> discoveryService.discover(id);
+                discoveries.put(id, executor.submit(discovery));
+            }
+            return collect(discoveries);
+        } finally {
+            discoveries.values().forEach(future -> future.cancel(false));
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Starts the discoveries of the given ids and returns immediately. Once the discovery of an id is finished, the
+     * given callback is called on the discovering thread, with the exception thrown by the discovery or {@code null} if
+     * it succeeded.
+     */
+    void discoverAllInBackground(Collection<? extends StreamId<?>> ids,
+            BiConsumer<StreamId<?>, RuntimeException> onDiscovered) {
+        Set<StreamId<?>> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, distinctIds.size()), THREADS);
+        for (StreamId<?> id : distinctIds) {
+            executor.execute(() -> {
+                try {
+                    discoveryService.discover(id);
+                } catch (RuntimeException e) {
+                    onDiscovered.accept(id, e);
+                    return;
+                }
+                onDiscovered.accept(id, null);
+            });
+        }
+        executor.shutdown();
+    }
+
+    private Map<StreamId<?>, Publisher<?>> discoverSequentially(Set<StreamId<?>> ids) {
+        Map<StreamId<?>, Publisher<?>> discovered = new LinkedHashMap<>();
+        for (StreamId<?> id : ids) {
+            discovered.put(id, discoveryService.discover(id));
+        }
+        return discovered;
+    }
+
+    private static Map<StreamId<?>, Publisher<?>> collect(Map<StreamId<?>, Future<Publisher<?>>> discoveries) {
+        Map<StreamId<?>, Publisher<?>> discovered = new LinkedHashMap<>();
+        for (Map.Entry<StreamId<?>, Future<Publisher<?>>> discovery : discoveries.entrySet()) {
+            discovered.put(discovery.getKey(), resultOf(discovery.getValue()));
+        }
+        return discovered;
+    }
+
+    private static Publisher<?> resultOf(Future<Publisher<?>> discovery) {
+        try {
+            return discovery.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while discovering streams", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to discover streams", e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import org.streamingpool.core.service.StreamId;
+
+/**
+ * The ids of the streams under creation in a chain of nested discoveries, from the innermost to the outermost one. The
+ * path is immutable: extending it creates a new node pointing to the existing ones, so every nesting level costs O(1)
+ * and all the {@link TrackKeepingDiscoveryService}s of a chain share the same nodes.
+ */
+final class DiscoveryPath {
+
+    private static final DiscoveryPath EMPTY = new DiscoveryPath(null, 0, null, 0);
+
+    private final StreamId<?> id;
+    private final int idHash;
+    private final DiscoveryPath parent;
+    private final int length;
+
+    private DiscoveryPath(StreamId<?> id, int idHash, DiscoveryPath parent, int length) {
+        this.id = id;
+        this.idHash = idHash;
+        this.parent = parent;
+        this.length = length;
+    }
+
+    static DiscoveryPath empty() {
+        return EMPTY;
+    }
+
+    DiscoveryPath including(StreamId<?> newId) {
+        return new DiscoveryPath(newId, newId.hashCode(), this, length + 1);
+    }
+
+    boolean contains(StreamId<?> queriedId) {
+        int queriedHash = queriedId.hashCode();
+        for (DiscoveryPath node = this; node != EMPTY; node = node.parent) {
+            if (node.idHash == queriedHash && node.id.equals(queriedId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the id which was included last, or {@code null} if the path is empty
+     */
+    StreamId<?> innermostId() {
+        return id;
+    }
+
+    int length() {
+        return length;
+    }
+
+}
@@ -0,0 +1,89 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.streamingpool.core.domain.DropSummary;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+
+/**
+ * Counts the items of a stream dropped by its backpressure strategy, from any thread, and remembers the last one (if
+ * the strategy tells which one it dropped) until it is reported by a summary.
+ *
+ * @param <T> the type of the items of the stream
+ */
+final class DropAccount<T> {
+
+    private final LongAdder drops = new LongAdder();
+    /* null as long as no dropped item is known since the last summary */
+    private final AtomicReference<T> lastDropped = new AtomicReference<>();
+
+    void dropped(T item) {
+        lastDropped.set(item);
+        drops.increment();
+    }
+
+    void droppedAll(List<T> items) {
+        if (!items.isEmpty()) {
+            lastDropped.set(items.get(items.size() - 1));
+            drops.add(items.size());
+        }
+    }
+
+    /**
+     * Counts a dropped item without knowing which one it was.
+     */
+    void droppedUnknown() {
+        drops.increment();
+    }
+
+    long drops() {
+        return drops.sum();
+    }
+
+    /**
+     * @return a stream emitting a summary of the drops at the end of each interval in which items were dropped. The
+     *         stream is shared by its subscribers, as the last dropped item is forgotten once it is reported.
+     */
+    Flowable<DropSummary<T>> summaries(Duration interval, Scheduler scheduler) {
+        long intervalMillis = Math.max(1, interval.toMillis());
+        return Flowable.defer(() -> {
+            AtomicLong reportedDrops = new AtomicLong(drops());
+            return Flowable.interval(intervalMillis, intervalMillis, MILLISECONDS, scheduler).onBackpressureDrop()
+                    .map(tick -> {
+                        long currentDrops = drops();
+                        long count = currentDrops - reportedDrops.getAndSet(currentDrops);
+                        return new DropSummary<>(count, interval, count > 0 ? lastDropped.getAndSet(null) : null);
+                    }).filter(summary -> summary.count() > 0);
+        }).share();
+    }
+
+}
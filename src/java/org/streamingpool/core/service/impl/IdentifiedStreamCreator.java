@@ -38,4 +38,12 @@ public interface IdentifiedStreamCreator<T> {
 
     StreamCreator<T> getCreator();
 
+    /**
+     * @return {@code true} if the stream shall be created when the pool starts (see {@link PoolWarmUp}) instead of on
+     *         its first discovery
+     */
+    default boolean isEager() {
+        return false;
+    }
+
 }
\ No newline at end of file
@@ -37,16 +37,30 @@ public class ImmutableIdentifiedStreamCreator<T> implements IdentifiedStreamCrea
 
     private final StreamId<T> id;
     private final StreamCreator<T> creator;
+    private final boolean eager;
 
     protected ImmutableIdentifiedStreamCreator(StreamId<T> id, StreamCreator<T> creator) {
+        this(id, creator, false);
+    }
+
+    protected ImmutableIdentifiedStreamCreator(StreamId<T> id, StreamCreator<T> creator, boolean eager) {
         this.id = requireNonNull(id, "id must not be null.");
         this.creator = requireNonNull(creator, "creator must not be null.");
+        this.eager = eager;
     }
 
     public static <T> IdentifiedStreamCreator<T> of(StreamId<T> id, StreamCreator<T> creator) {
         return new ImmutableIdentifiedStreamCreator<>(id, creator);
     }
 
+    /**
+     * @return a creator of the given stream which is flagged to be created when the pool starts
+     * @see IdentifiedStreamCreator#isEager()
+     */
+    public static <T> IdentifiedStreamCreator<T> eager(StreamId<T> id, StreamCreator<T> creator) {
+        return new ImmutableIdentifiedStreamCreator<>(id, creator, true);
+    }
+
     @Override
     public StreamId<T> getId() {
         return id;
@@ -56,4 +70,9 @@ public class ImmutableIdentifiedStreamCreator<T> implements IdentifiedStreamCrea
     public StreamCreator<T> getCreator() {
         return creator;
     }
+
+    @Override
+    public boolean isEager() {
+        return eager;
+    }
 }
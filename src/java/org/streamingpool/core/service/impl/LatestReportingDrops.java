@@ -0,0 +1,186 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.reactivex.FlowableOperator;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Same as {@link io.reactivex.Flowable#onBackpressureLatest()}, but passes the items replaced by a newer one before the
+ * subscriber requested them to the given consumer. As the error is not delayed, an item still waiting for a request
+ * when the source fails is passed to the consumer as well.
+ *
+ * @param <T> the type of the items
+ */
+final class LatestReportingDrops<T> implements FlowableOperator<T, T> {
+
+    private final Consumer<? super T> onDrop;
+
+    LatestReportingDrops(Consumer<? super T> onDrop) {
+        this.onDrop = onDrop;
+    }
+
+    @Override
+    public Subscriber<? super T> apply(Subscriber<? super T> downstream) {
+        return new LatestSubscriber<>(downstream, onDrop);
+    }
+
+    /**
+     * Keeps the latest item until it is requested. The counter of this atomic integer is the work in progress of the
+     * drain loop, which serializes the signals to the downstream subscriber.
+     */
+    private static final class LatestSubscriber<T> extends AtomicInteger
+            implements FlowableSubscriber<T>, Subscription {
+        private static final long serialVersionUID = 1L;
+
+        private final Subscriber<? super T> downstream;
+        private final Consumer<? super T> onDrop;
+        private final AtomicReference<T> latest = new AtomicReference<>();
+        private final AtomicLong requested = new AtomicLong();
+        private Subscription upstream;
+        private Throwable error;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        private LatestSubscriber(Subscriber<? super T> downstream, Consumer<? super T> onDrop) {
+            this.downstream = downstream;
+            this.onDrop = onDrop;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            upstream = subscription;
+            downstream.onSubscribe(this);
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(T item) {
+            T replaced = latest.getAndSet(item);
+            if (replaced != null) {
+                onDrop.accept(replaced);
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long count) {
+            if (count <= 0) {
+                RxJavaPlugins.onError(new IllegalArgumentException("n > 0 required but it was " + count));
+                return;
+            }
+            long current;
+            long updated;
+            do {
+                current = requested.get();
+                updated = current + count < 0 ? Long.MAX_VALUE : current + count;
+            } while (!requested.compareAndSet(current, updated));
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                if (getAndIncrement() == 0) {
+                    latest.lazySet(null);
+                }
+            }
+        }
+
+        private void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand) {
+                    boolean terminated = done;
+                    if (isFinished(terminated, latest.get() == null)) {
+                        return;
+                    }
+                    T item = latest.getAndSet(null);
+                    if (item == null) {
+                        break;
+                    }
+                    downstream.onNext(item);
+                    emitted++;
+                }
+                if (emitted == demand && isFinished(done, latest.get() == null)) {
+                    return;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private boolean isFinished(boolean terminated, boolean empty) {
+            if (cancelled) {
+                latest.lazySet(null);
+                return true;
+            }
+            if (terminated) {
+                if (error != null) {
+                    T pending = latest.getAndSet(null);
+                    if (pending != null) {
+                        onDrop.accept(pending);
+                    }
+                    downstream.onError(error);
+                    return true;
+                }
+                if (empty) {
+                    downstream.onComplete();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+}
@@ -24,8 +24,13 @@ package org.streamingpool.core.service.impl;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,12 +38,17 @@ import org.slf4j.LoggerFactory;
 import org.reactivestreams.Publisher;
 import org.streamingpool.core.conf.PoolConfiguration;
 import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.domain.StreamMetricsSnapshot;
+import org.streamingpool.core.domain.backpressure.BackpressureAware;
 import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.DynamicStreamFactory;
 import org.streamingpool.core.service.ProvidingService;
 import org.streamingpool.core.service.StreamFactory;
 import org.streamingpool.core.service.StreamFactoryRegistry;
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.TypedStreamFactory;
+import org.streamingpool.core.service.UnresolvableStreamIdException;
+import org.streamingpool.core.service.diagnostic.ErrorStreamId;
 
 /**
  * Local pool for providing and discovery of {@link Publisher}s. (this class is both a {@link DiscoveryService} and a
@@ -46,21 +56,55 @@ import org.streamingpool.core.service.TypedStreamFactory;
  * of the streams, specifically, they are created when discovered using {@link StreamFactory}s. When a {@link StreamId}
  * is discovered, the discovery is delegated to a new instance of {@link TrackKeepingDiscoveryService}. The
  * {@link TrackKeepingDiscoveryService} then tries to create the stream using the provided {@link TypedStreamFactory}s
- * if no matching {@link StreamId} has already been provided.
+ * if no matching {@link StreamId} has already been provided. Only the factories declaring the class of the id (or no
+ * class at all, see {@link StreamFactory#streamIdClasses()}) are asked, in the order of the registration. Once a stream
+ * was discovered, subsequent discoveries of the same id return the same (cached) publisher without any further
+ * processing.
+ * <p>
+ * Many ids can be discovered at once using {@link #discoverAll(Collection)}, which creates the streams of independent
+ * ids in parallel (see {@link PoolConfiguration#withBulkDiscoveryParallelism(int)}).
+ * <p>
+ * Streams created by the factories are kept in the pool for its whole lifetime, unless an eviction grace period is
+ * configured (see {@link PoolConfiguration#withEvictionGracePeriod(java.time.Duration)}). In this case, they are
+ * removed once they had no subscribers for the grace period and are created again on the next discovery. Explicitly
+ * provided streams are never evicted.
+ * <p>
+ * Optionally, the ids which none of the factories can create are remembered for a while (see
+ * {@link PoolConfiguration#withNegativeCache(java.time.Duration, int)}), so that clients repeatedly discovering such
+ * ids do not make the pool ask all the factories every time.
+ * <p>
+ * If enabled (see {@link PoolConfiguration#withMetrics(java.time.Duration)}), runtime metrics of every stream are
+ * available through {@link #streamMetrics()}, the
+ * {@link org.streamingpool.core.service.streamid.StreamMetricsHook#STREAM_METRICS} and JMX.
+ * <p>
+ * A pool which is not needed anymore shall be {@link #close() closed}, to release its streams and threads. The
+ * scheduler of the {@link PoolConfiguration} is not owned by the pool and has to be shut down by its creator (see
+ * {@link org.streamingpool.core.conf.PoolSchedulers#shutdown(io.reactivex.Scheduler, java.time.Duration)}).
  */
-public class LocalPool implements DiscoveryService, ProvidingService, StreamFactoryRegistry {
+public class LocalPool implements DiscoveryService, ProvidingService, StreamFactoryRegistry, AutoCloseable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LocalPool.class);
 
     private final PoolConfiguration poolConfiguration;
     private final List<StreamFactory> factories;
-    private final PoolContent content = new PoolContent();
+    private volatile StreamFactoryIndex factoryIndex;
+    private final PoolContent content;
+    /* null if the cache of unresolvable ids is disabled */
+    private final NegativeDiscoveryCache negativeCache;
 
     public LocalPool(List<StreamFactory> factories, PoolConfiguration poolConfiguration) {
         requireNonNull(factories,"Factories can not be null");
         this.factories = new CopyOnWriteArrayList<>(factories);
+        this.factoryIndex = new StreamFactoryIndex(this.factories);
         LOGGER.info("Available Stream Factories: {}", factories);
         this.poolConfiguration = poolConfiguration;
+        this.content = new PoolContent(poolConfiguration.getEvictionGracePeriod(),
+                poolConfiguration.getMetricsSamplingPeriod(), poolConfiguration.getDropReportingPeriod());
+        this.negativeCache = poolConfiguration.isNegativeCacheEnabled()
+                ? new NegativeDiscoveryCache(poolConfiguration.getNegativeCacheTimeToLive(),
+                        poolConfiguration.getNegativeCacheMaximumSize())
+                : null;
+        this.factories.forEach(this::listenToChangesOf);
     }
 
     @Override
@@ -72,23 +116,155 @@ public class LocalPool implements DiscoveryService, ProvidingService, StreamFact
         if (!inserted) {
             throw new IllegalArgumentException("Id " + id + " already registered! Cannot register twice.");
         }
+        invalidateNegativeCache();
     }
 
     @Override
     public <T> Publisher<T> discover(StreamId<T> id) {
         requireNonNull(id, "Cannot discover a null id");
-        return new TrackKeepingDiscoveryService(factories, content, poolConfiguration).discover(id);
+        Publisher<T> alreadyDiscovered = content.getDecorated(id);
+        if (alreadyDiscovered != null) {
+            return alreadyDiscovered;
+        }
+        return resolving(id,
+                () -> new TrackKeepingDiscoveryService(factoryIndex, content, poolConfiguration).discover(id));
+    }
+
+    @Override
+    public <T> Publisher<T> discoverDirect(StreamId<T> id) {
+        requireNonNull(id, "Cannot discover a null id");
+        Publisher<T> activeStream = content.get(id);
+        if (activeStream != null && !(id instanceof BackpressureAware)) {
+            return activeStream;
+        }
+        return resolving(id,
+                () -> new TrackKeepingDiscoveryService(factoryIndex, content, poolConfiguration).discoverDirect(id));
+    }
+
+    @Override
+    public <T> CompletionStage<Publisher<T>> discoverAsync(StreamId<T> id) {
+        requireNonNull(id, "Cannot discover a null id");
+        Publisher<T> alreadyDiscovered = content.getDecorated(id);
+        if (alreadyDiscovered != null) {
+            return CompletableFuture.completedFuture(alreadyDiscovered);
+        }
+        try {
+            return resolving(id,
+                    () -> new TrackKeepingDiscoveryService(factoryIndex, content, poolConfiguration).discoverAsync(id));
+        } catch (UnresolvableStreamIdException e) {
+            CompletableFuture<Publisher<T>> failedDiscovery = new CompletableFuture<>();
+            failedDiscovery.completeExceptionally(e);
+            return failedDiscovery;
+        }
+    }
+
+    /**
+     * Executes the given discovery of the given id, unless the id is known to be unresolvable (if the cache of
+     * unresolvable ids is enabled, see {@link PoolConfiguration#withNegativeCache(java.time.Duration, int)}). The pool
+     * is checked before the cache, as some ids (e.g. the {@link ErrorStreamId}s) are added to the pool together with
+     * another stream, without invalidating the cache.
+     */
+    private <R> R resolving(StreamId<?> id, Supplier<R> discovery) {
+        if (negativeCache == null || content.get(id) != null) {
+            return discovery.get();
+        }
+        return negativeCache.discover(id, discovery);
+    }
+
+    private void invalidateNegativeCache() {
+        if (negativeCache != null) {
+            negativeCache.invalidateAll();
+        }
+    }
+
+    private void listenToChangesOf(StreamFactory factory) {
+        if (negativeCache != null && factory instanceof DynamicStreamFactory) {
+            ((DynamicStreamFactory) factory).addChangeListener(negativeCache::invalidateAll);
+        }
+    }
+
+    /**
+     * @return the counters of the cache of unresolvable ids. All of them are zero if the cache is disabled.
+     */
+    public NegativeCacheStatistics negativeCacheStatistics() {
+        if (negativeCache == null) {
+            return new NegativeCacheStatistics(0, 0, 0);
+        }
+        return negativeCache.statistics();
+    }
+
+    /**
+     * @return the current runtime metrics of the streams in the pool. They are empty if the metrics are disabled.
+     */
+    public List<StreamMetricsSnapshot> streamMetrics() {
+        return content.streamMetrics();
+    }
+
+    @Override
+    public Map<StreamId<?>, Publisher<?>> discoverAll(Collection<? extends StreamId<?>> ids) {
+        requireNonNull(ids, "Cannot discover null ids");
+        ids.forEach(id -> requireNonNull(id, "Cannot discover a null id"));
+        return bulkDiscovery().discoverAll(ids);
+    }
+
+    /**
+     * Starts to create the streams of the given ids in the background, so that their first discovery does not pay the
+     * cost of their creation. At most {@link PoolConfiguration#getBulkDiscoveryParallelism()} streams are created in
+     * parallel. Note that streams created by the factories are evicted as usual, if an eviction grace period is
+     * configured and nobody subscribes to them.
+     *
+     * @param ids the ids of the streams to create
+     * @return the warm-up, which allows to follow its progress and to wait for its completion
+     */
+    public PoolWarmUp warmUp(Collection<? extends StreamId<?>> ids) {
+        return prepareWarmUp(ids).start();
+    }
+
+    /**
+     * Same as {@link #warmUp(Collection)}, but the returned warm-up is not started yet (see
+     * {@link PoolWarmUp#start()}). This allows to make it available (e.g. to a readiness probe) before the application
+     * is ready to create the streams.
+     *
+     * @param ids the ids of the streams to create
+     * @return the warm-up, which has to be started
+     */
+    public PoolWarmUp prepareWarmUp(Collection<? extends StreamId<?>> ids) {
+        requireNonNull(ids, "Cannot warm up null ids");
+        ids.forEach(id -> requireNonNull(id, "Cannot warm up a null id"));
+        return new PoolWarmUp(bulkDiscovery(), ids);
+    }
+
+    private BulkDiscovery bulkDiscovery() {
+        return new BulkDiscovery(this, poolConfiguration.getBulkDiscoveryParallelism());
+    }
+
+    /**
+     * Closes the pool: all its streams complete, cancelling their upstream subscriptions, and its housekeeping thread
+     * is stopped. Afterwards, streams can neither be discovered nor provided anymore.
+     */
+    @Override
+    public void close() {
+        if (!content.isClosed()) {
+            content.close();
+            LOGGER.info("Pool closed");
+        }
     }
 
     @Override
-    public void addIntercept(StreamFactory interceptFactory) {
+    public synchronized void addIntercept(StreamFactory interceptFactory) {
         factories.add(0, interceptFactory);
+        factoryIndex = new StreamFactoryIndex(factories);
+        listenToChangesOf(interceptFactory);
+        invalidateNegativeCache();
         LOGGER.info("Intercept {} has been added to the factories", interceptFactory);
     }
 
     @Override
-    public void addFallback(StreamFactory fallbackFactory) {
+    public synchronized void addFallback(StreamFactory fallbackFactory) {
         factories.add(factories.size(), fallbackFactory);
+        factoryIndex = new StreamFactoryIndex(factories);
+        listenToChangesOf(fallbackFactory);
+        invalidateNegativeCache();
         LOGGER.info("Fallback {} has been added to the factories", fallbackFactory);
     }
 
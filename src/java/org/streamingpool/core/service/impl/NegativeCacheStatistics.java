@@ -0,0 +1,68 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+/**
+ * A snapshot of the counters of the cache of unresolvable ids of a {@link LocalPool}.
+ *
+ * @see LocalPool#negativeCacheStatistics()
+ */
+public final class NegativeCacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long size;
+
+    NegativeCacheStatistics(long hits, long misses, long size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.size = size;
+    }
+
+    /**
+     * @return the number of discoveries which failed fast, because their id was known to be unresolvable
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of discoveries which had to ask the factories, because their id was not known to be
+     *         unresolvable
+     */
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of ids currently known to be unresolvable
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "NegativeCacheStatistics [hits=" + hits + ", misses=" + misses + ", size=" + size + "]";
+    }
+
+}
@@ -0,0 +1,90 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.UnresolvableStreamIdException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A bounded cache of the ids which could not be resolved by a pool (see {@link UnresolvableStreamIdException}), so
+ * that repeated discoveries of such ids fail fast instead of asking all the factories again. The ids expire after a
+ * fixed time and the whole cache is dropped whenever the pool might be able to resolve more ids than before (e.g. a
+ * stream or a factory was added).
+ * <p>
+ * A discovery which started before an invalidation does not put its result into the cache, as it might be outdated
+ * already.
+ */
+final class NegativeDiscoveryCache {
+
+    private final Cache<StreamId<?>, UnresolvableStreamIdException> unresolvableIds;
+    /* Incremented on every invalidation, so that discoveries can detect that they raced with one */
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    NegativeDiscoveryCache(Duration timeToLive, int maximumSize) {
+        this.unresolvableIds = CacheBuilder.newBuilder().expireAfterWrite(timeToLive.toNanos(), TimeUnit.NANOSECONDS)
+                .maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Executes the given discovery of the given id, unless the id is known to be unresolvable. In this case the
+     * exception of the last failed discovery is thrown again.
+     */
+    <T> T discover(StreamId<?> id, Supplier<T> discovery) {
+        UnresolvableStreamIdException knownFailure = unresolvableIds.getIfPresent(id);
+        if (knownFailure != null) {
+            hits.increment();
+            throw new UnresolvableStreamIdException(knownFailure.getMessage());
+        }
+        misses.increment();
+
+        long generationBeforeDiscovery = generation.get();
+        try {
+            return discovery.get();
+        } catch (UnresolvableStreamIdException e) {
+            if (generation.get() == generationBeforeDiscovery) {
+                unresolvableIds.put(id, e);
+            }
+            throw e;
+        }
+    }
+
+    void invalidateAll() {
+        generation.incrementAndGet();
+        unresolvableIds.invalidateAll();
+    }
+
+    NegativeCacheStatistics statistics() {
+        return new NegativeCacheStatistics(hits.sum(), misses.sum(), unresolvableIds.size());
+    }
+
+}
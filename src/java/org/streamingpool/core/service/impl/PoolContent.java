@@ -19,57 +19,412 @@
 * 
 */
 // @formatter:on
-
 package org.streamingpool.core.service.impl;
 
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.streamingpool.core.service.streamid.StreamChangeHook.STREAM_CHANGE_HOOK;
+import static org.streamingpool.core.service.streamid.StreamMetricsHook.STREAM_METRICS;
 import static org.streamingpool.core.service.streamid.StreamingPoolHook.NEW_STREAM_HOOK;
+import static org.streamingpool.core.util.DaemonThreads.numberedDaemonThreads;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.streamingpool.core.domain.DropSummary;
 import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.domain.StreamMetricsSnapshot;
+import org.streamingpool.core.domain.backpressure.BackpressureAware;
+import org.streamingpool.core.service.AsyncStreamFactory;
+import org.streamingpool.core.service.CycleInStreamDiscoveryDetectedException;
 import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.diagnostic.DroppedStreamId;
 import org.streamingpool.core.service.diagnostic.ErrorStreamId;
+import org.streamingpool.core.service.streamid.StreamChangeHook;
+import org.streamingpool.core.service.streamid.StreamMetricsHook;
 import org.streamingpool.core.service.streamid.StreamingPoolHook;
 
-import io.reactivex.processors.ReplayProcessor;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.processors.AsyncProcessor;
+import io.reactivex.schedulers.Schedulers;
 
 /**
  * Encapsulate the state of a streaming pool.
+ * <p>
+ * Streams are created at most once per id. The creation of a stream does not block the pool: creations of different
+ * ids run in parallel, while threads that want to create an id which is already under creation wait only for this
+ * specific creation to finish. If creations in different threads wait for each other, a
+ * {@link CycleInStreamDiscoveryDetectedException} is thrown instead of deadlocking.
+ * <p>
+ * Streams that can be re-created on demand (e.g. the ones created by the factories) can be put into the pool as
+ * evictable. If an eviction grace period is configured, the subscribers of such a stream (and of its error stream) are
+ * counted and both are removed from the pool once they had no subscribers for the whole grace period. The next lookup
+ * of the id will then find nothing and the stream has to be created again.
+ * <p>
+ * The ids in the pool are published through the {@link StreamingPoolHook#NEW_STREAM_HOOK} and the
+ * {@link StreamChangeHook#STREAM_CHANGE_HOOK}. Only the ids currently in the pool are kept for late subscribers, so the
+ * memory used by the hooks does not grow with the history of the pool.
+ * <p>
+ * Optionally, runtime metrics are kept for each stream put into the pool and published through the
+ * {@link StreamMetricsHook#STREAM_METRICS} and as JMX MBeans (see {@link StreamMetricsMXBean}). Without metrics, the
+ * streams are not instrumented at all.
+ * <p>
+ * The items dropped by the backpressure strategy of a {@link BackpressureAware} stream are counted and reported by its
+ * companion {@link DroppedStreamId}, which is put into the pool together with the stream.
+ * <p>
+ * Once {@link #close() closed}, all the streams of the pool complete and no more streams can be put into it.
  * 
  * @author acalia, kfuchsbe, mihostet
  */
-public class PoolContent {
+public class PoolContent implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PoolContent.class);
+    private static final Duration NO_EVICTION = Duration.ofSeconds(-1);
+    private static final Duration NO_METRICS = Duration.ofSeconds(-1);
+    private static final Duration DEFAULT_DROP_REPORTING_PERIOD = Duration.ofSeconds(1);
+    private static final Duration DEFAULT_CLOSE_TIMEOUT = Duration.ofSeconds(5);
+    private static final ThreadFactory HOUSEKEEPING_THREADS = numberedDaemonThreads("streamingpool-housekeeping-");
 
     private final ConcurrentMap<StreamId<?>, Publisher<?>> activeStreams = new ConcurrentHashMap<>();
-    private final ReplayProcessor<StreamId<?>> newStreamHook = ReplayProcessor.create();
-    private final ExecutorService hookExecutor = Executors.newSingleThreadExecutor();
+    private final ConcurrentMap<StreamId<?>, Publisher<?>> decoratedStreams = new ConcurrentHashMap<>();
+    private final ConcurrentMap<StreamId<?>, StreamCreation> streamsUnderCreation = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Thread, StreamCreation> creationsAwaitedByThread = new ConcurrentHashMap<>();
+    private final ConcurrentMap<StreamId<?>, DropAccount<?>> dropAccounts = new ConcurrentHashMap<>();
+    private final PoolContentChanges changes = new PoolContentChanges();
+    private final ScheduledExecutorService housekeepingExecutor = Executors
+            .newSingleThreadScheduledExecutor(HOUSEKEEPING_THREADS);
+    private final Scheduler housekeepingScheduler = Schedulers.from(housekeepingExecutor);
+    /* Completes all the streams of the pool (and cancels their upstream subscriptions) when the pool is closed */
+    private final AsyncProcessor<Boolean> closing = AsyncProcessor.create();
+    private final Duration evictionGracePeriod;
+    private final Duration dropReportingPeriod;
+    /* null if the metrics are disabled */
+    private final PoolMetrics metrics;
+    private volatile boolean closed;
 
     public PoolContent() {
+        this(NO_EVICTION);
+    }
+
+    /**
+     * @param evictionGracePeriod the time an evictable stream is kept in the pool after its last subscriber is gone. A
+     *            negative value disables the eviction.
+     */
+    public PoolContent(Duration evictionGracePeriod) {
+        this(evictionGracePeriod, NO_METRICS, DEFAULT_DROP_REPORTING_PERIOD);
+    }
+
+    /**
+     * @param evictionGracePeriod the time an evictable stream is kept in the pool after its last subscriber is gone. A
+     *            negative value disables the eviction.
+     * @param metricsSamplingPeriod the period at which the metrics of the streams are sampled and published. A negative
+     *            value disables the metrics.
+     * @param dropReportingPeriod the interval of the summaries emitted by the {@link DroppedStreamId}s
+     */
+    public PoolContent(Duration evictionGracePeriod, Duration metricsSamplingPeriod, Duration dropReportingPeriod) {
+        this.evictionGracePeriod = evictionGracePeriod;
+        this.dropReportingPeriod = dropReportingPeriod;
+        this.metrics = metricsSamplingPeriod.isNegative() ? null : new PoolMetrics();
         addStreamHooks();
+        if (metrics != null) {
+            activeStreams.put(STREAM_METRICS, completedOnClose(metrics.snapshots()));
+            long periodMillis = Math.max(1, metricsSamplingPeriod.toMillis());
+            housekeepingExecutor.scheduleAtFixedRate(metrics::sample, periodMillis, periodMillis, MILLISECONDS);
+        }
     }
 
+    /**
+     * Puts the stream supplied by the given supplier into the pool, if no stream is registered for the given id yet.
+     * The stream will stay in the pool for its whole lifetime.
+     *
+     * @return {@code true} if the stream was created and added, {@code false} otherwise
+     */
     public <T> boolean synchronousPutIfAbsent(StreamId<T> id, Supplier<ErrorStreamPair<T>> supplier) {
-        if (!activeStreams.containsKey(id)) {
-            synchronized (activeStreams) {
-                if (!activeStreams.containsKey(id)) {
-                    ErrorStreamPair<T> stream = supplier.get();
-                    if (stream.isPresent()) {
-                        ErrorStreamId<StreamId<T>> errorStreamId = ErrorStreamId.of(id);
-                        activeStreams.put(id, stream.data());
-                        activeStreams.put(errorStreamId, stream.error());
-                        hookExecutor.submit(() -> newStreamHook.onNext(id));
-                        hookExecutor.submit(() -> newStreamHook.onNext(errorStreamId));
-                        return true;
-                    }
-                }
+        return synchronousPutIfAbsent(id, supplier, false);
+    }
+
+    /**
+     * Same as {@link #synchronousPutIfAbsent(StreamId, Supplier)}, but the stream will be evicted from the pool when it
+     * has no subscribers anymore (if eviction is enabled for this pool). Only streams that can be created again on
+     * demand shall be added through this method.
+     *
+     * @return {@code true} if the stream was created and added, {@code false} otherwise
+     */
+    public <T> boolean synchronousPutEvictableIfAbsent(StreamId<T> id, Supplier<ErrorStreamPair<T>> supplier) {
+        return synchronousPutIfAbsent(id, supplier, !evictionGracePeriod.isNegative());
+    }
+
+    private <T> boolean synchronousPutIfAbsent(StreamId<T> id, Supplier<ErrorStreamPair<T>> supplier,
+            boolean evictable) {
+        checkNotClosed();
+        if (activeStreams.containsKey(id)) {
+            return false;
+        }
+
+        StreamCreation creation = new StreamCreation(id);
+        StreamCreation concurrentCreation = streamsUnderCreation.putIfAbsent(id, creation);
+        if (concurrentCreation != null) {
+            awaitCompletion(concurrentCreation);
+            return false;
+        }
+
+        ErrorStreamId<StreamId<T>> errorStreamId = ErrorStreamId.of(id);
+        streamsUnderCreation.putIfAbsent(errorStreamId, creation);
+        try {
+            boolean created = createIfAbsent(id, errorStreamId, supplier, evictable);
+            creation.complete();
+            return created;
+        } catch (RuntimeException e) {
+            creation.completeExceptionally(e);
+            throw e;
+        } finally {
+            streamsUnderCreation.remove(errorStreamId, creation);
+            streamsUnderCreation.remove(id, creation);
+        }
+    }
+
+    private <T> boolean createIfAbsent(StreamId<T> id, ErrorStreamId<StreamId<T>> errorStreamId,
+            Supplier<ErrorStreamPair<T>> supplier, boolean evictable) {
+        /* A concurrent creation might have finished between the first check and the registration of this creation */
+        if (activeStreams.containsKey(id)) {
+            return false;
+        }
+
+        ErrorStreamPair<T> createdStream = supplier.get();
+        if (!createdStream.isPresent()) {
+            return false;
+        }
+
+        DropAccount<T> dropAccount = id instanceof BackpressureAware ? new DropAccount<>() : null;
+        StreamMetrics streamMetrics = metrics == null ? null : metrics.add(id, dropAccount);
+        Publisher<T> data = streamMetrics == null ? createdStream.data() : streamMetrics.metered(createdStream.data());
+        ErrorStreamPair<T> stream = ErrorStreamPair.ofDataError(completedOnClose(data),
+                completedOnClose(createdStream.error()));
+        Publisher<DropSummary<T>> dropSummaries = dropAccount == null ? null : addDropReporting(id, dropAccount);
+        if (evictable) {
+            new ReferenceCountedEntry<>(id, errorStreamId, stream, streamMetrics, dropAccount, dropSummaries)
+                    .register();
+        } else {
+            activeStreams.put(id, stream.data());
+            activeStreams.put(errorStreamId, stream.error());
+        }
+        housekeeping(() -> {
+            changes.added(id);
+            changes.added(errorStreamId);
+            if (dropAccount != null) {
+                changes.added(DroppedStreamId.of(id));
+            }
+            if (streamMetrics != null) {
+                metrics.registerMBean(streamMetrics);
             }
+        }, 0);
+        return true;
+    }
+
+    /**
+     * Registers the account of the items dropped by the backpressure strategy of the stream with the given id (see
+     * {@link #dropAccountOf(StreamId)}) and the {@link DroppedStreamId} reporting them. Both are removed together with
+     * the stream, if it is evicted.
+     *
+     * @return the stream of the {@link DroppedStreamId}
+     */
+    private <T> Publisher<DropSummary<T>> addDropReporting(StreamId<T> id, DropAccount<T> dropAccount) {
+        Publisher<DropSummary<T>> dropSummaries = completedOnClose(
+                dropAccount.summaries(dropReportingPeriod, housekeepingScheduler));
+        dropAccounts.put(id, dropAccount);
+        activeStreams.put(DroppedStreamId.of(id), dropSummaries);
+        return dropSummaries;
+    }
+
+    /**
+     * Closes the pool, waiting at most 5 seconds for its housekeeping tasks to finish.
+     *
+     * @see #close(Duration)
+     */
+    @Override
+    public void close() {
+        close(DEFAULT_CLOSE_TIMEOUT);
+    }
+
+    /**
+     * Closes the pool: all its streams complete (cancelling their upstream subscriptions) and are removed, no more
+     * streams can be put into it and its housekeeping thread is stopped. Pending evictions are discarded. Closing a
+     * closed pool has no effect.
+     *
+     * @param timeout the maximum time to wait for the housekeeping thread to finish its current task
+     * @return {@code true} if the housekeeping thread terminated within the given time
+     */
+    public boolean close(Duration timeout) {
+        synchronized (closing) {
+            if (closed) {
+                return true;
+            }
+            closed = true;
+        }
+        closing.onNext(Boolean.TRUE);
+        closing.onComplete();
+        activeStreams.clear();
+        decoratedStreams.clear();
+        dropAccounts.clear();
+        housekeepingExecutor.shutdownNow();
+        try {
+            return housekeepingExecutor.awaitTermination(timeout.toNanos(), NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (metrics != null) {
+                metrics.close();
+            }
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("The pool is closed");
+        }
+    }
+
+    /**
+     * Schedules the given task on the housekeeping thread. Once the pool is closed, there is nothing to keep clean
+     * anymore and the task is discarded.
+     */
+    private void housekeeping(Runnable task, long delayMillis) {
+        try {
+            housekeepingExecutor.schedule(task, delayMillis, MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Housekeeping task discarded, as the pool is closed", e);
+        }
+    }
+
+    private <X> Publisher<X> completedOnClose(Publisher<X> publisher) {
+        return Flowable.fromPublisher(publisher).takeUntil(closing);
+    }
+
+    /**
+     * Blocks the current thread until the given creation (running in another thread) is finished. Before waiting, it is
+     * checked that the creating thread is not (directly or indirectly) waiting for a creation of the current thread,
+     * which would mean that the two creations depend on each other.
+     */
+    private void awaitCompletion(StreamCreation creation) {
+        Thread currentThread = Thread.currentThread();
+        creationsAwaitedByThread.put(currentThread, creation);
+        try {
+            checkForCrossThreadCycles(creation, currentThread);
+            creation.await();
+        } finally {
+            creationsAwaitedByThread.remove(currentThread);
+        }
+    }
+
+    private void checkForCrossThreadCycles(StreamCreation awaitedCreation, Thread currentThread) {
+        checkForCrossThreadCycles(awaitedCreation, awaitedCreation.workingThreads, currentThread);
+    }
+
+    /**
+     * Follows the creations awaited by the given threads, the threads working on those creations, the creations they
+     * await and so on. If this leads back to the current thread, waiting for the given creation would never end.
+     */
+    private void checkForCrossThreadCycles(StreamCreation awaitedCreation, Collection<Thread> threadsToFollow,
+            Thread currentThread) {
+        Set<Thread> visitedThreads = new HashSet<>();
+        Deque<Thread> threads = new ArrayDeque<>(threadsToFollow);
+        while (!threads.isEmpty()) {
+            Thread thread = threads.pop();
+            if (thread.equals(currentThread)) {
+                throw new CycleInStreamDiscoveryDetectedException(format(
+                        "Cycle detected when looking up streams. The stream with id %s is (indirectly) needed for "
+                                + "its own creation or for the creation of a stream it depends on.",
+                        awaitedCreation.id));
+            }
+            StreamCreation creation = creationsAwaitedByThread.get(thread);
+            if (visitedThreads.add(thread) && creation != null) {
+                threads.addAll(creation.workingThreads);
+            }
+        }
+    }
+
+    /**
+     * Executes the given work in the current thread on behalf of the creation of the stream with the given id, which
+     * is ongoing in another thread (e.g. the asynchronous discovery of an upstream stream requested by an
+     * {@link AsyncStreamFactory}). While the work is executed, the current thread is considered as working on that
+     * creation when looking for cycles between creations.
+     */
+    public <R> R workOnCreationOf(StreamId<?> id, Supplier<R> work) {
+        StreamCreation creation = streamsUnderCreation.get(id);
+        if (creation == null) {
+            return work.get();
+        }
+        Thread currentThread = Thread.currentThread();
+        creation.workingThreads.add(currentThread);
+        try {
+            return work.get();
+        } finally {
+            creation.workingThreads.remove(currentThread);
+        }
+    }
+
+    /**
+     * Blocks the current thread, which is creating the stream with the given id, until the given stage (completing the
+     * creation in other threads) is completed. Before waiting, it is checked that none of the threads working on the
+     * creation is (directly or indirectly) waiting for a creation of the current thread.
+     *
+     * @return the result of the stage
+     */
+    public <R> R awaitCreationOf(StreamId<?> id, CompletionStage<R> stage) {
+        StreamCreation creation = streamsUnderCreation.get(id);
+        if (creation == null) {
+            return join(stage.toCompletableFuture());
+        }
+        Thread currentThread = Thread.currentThread();
+        creationsAwaitedByThread.put(currentThread, creation);
+        try {
+            Set<Thread> otherWorkingThreads = new HashSet<>(creation.workingThreads);
+            otherWorkingThreads.remove(currentThread);
+            checkForCrossThreadCycles(creation, otherWorkingThreads, currentThread);
+            return join(stage.toCompletableFuture());
+        } finally {
+            creationsAwaitedByThread.remove(currentThread);
+        }
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
         }
-        return false;
     }
 
     @SuppressWarnings("unchecked")
@@ -79,9 +434,199 @@ public class PoolContent {
     }
 
     /**
-     * Directly add the {@link StreamingPoolHook}s as active streams (without triggering any hook)
+     * @return the metrics of the stream with the given id or {@code null} if the metrics are disabled or the stream is
+     *         not in the pool
+     */
+    StreamMetrics metricsOf(StreamId<?> id) {
+        return metrics == null ? null : metrics.get(id);
+    }
+
+    /**
+     * @return the account of the items dropped by the backpressure strategy of the stream with the given id or
+     *         {@code null} if the stream is not {@link BackpressureAware} or not in the pool
+     */
+    @SuppressWarnings("unchecked")
+    <T> DropAccount<T> dropAccountOf(StreamId<T> id) {
+        /* This cast is safe, because the accounts are registered together with the streams of the same type */
+        return (DropAccount<T>) dropAccounts.get(id);
+    }
+
+    /**
+     * @return the current metrics of all the streams in the pool, which are empty if the metrics are disabled
+     */
+    public List<StreamMetricsSnapshot> streamMetrics() {
+        return metrics == null ? Collections.emptyList() : metrics.snapshot();
+    }
+
+    /**
+     * Returns the decorated version of the stream with the given id, as previously cached by
+     * {@link #decorateIfPresent(StreamId, Function)}.
+     *
+     * @return the decorated stream or {@code null} if none is cached for the given id
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Publisher<T> getDecorated(StreamId<T> id) {
+        /* This cast is safe, because the decorations keep the type of the stream */
+        return (Publisher<T>) decoratedStreams.get(id);
+    }
+
+    /**
+     * Returns the stream with the given id decorated by the given function (e.g. scheduling or backpressure handling
+     * which is applied to every discovered stream). The decorated stream is cached, so that the decoration is applied
+     * only once per stream. Since the decoration is determined by the id and by the (fixed) configuration of the pool,
+     * the id is sufficient as the key of the cache. The cached value is dropped together with the stream, when it is
+     * evicted.
+     *
+     * @return the decorated stream or {@code null} if no stream is registered for the given id
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Publisher<T> decorateIfPresent(StreamId<T> id, Function<Publisher<T>, Publisher<T>> decoration) {
+        Publisher<T> cached = getDecorated(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        Publisher<T> stream = get(id);
+        if (stream == null) {
+            return null;
+        }
+
+        Publisher<T> decorated = decoration.apply(stream);
+        Publisher<T> concurrentlyDecorated = (Publisher<T>) decoratedStreams.putIfAbsent(id, decorated);
+        if (concurrentlyDecorated != null) {
+            return concurrentlyDecorated;
+        }
+        /* The stream might have been evicted in the meantime, in this case the cache must not refer to it */
+        if (activeStreams.get(id) != stream) {
+            decoratedStreams.remove(id, decorated);
+        }
+        return decorated;
+    }
+
+    /**
+     * Directly add the {@link StreamingPoolHook} and the {@link StreamChangeHook} as active streams (without triggering
+     * any hook)
      */
     private void addStreamHooks() {
-        activeStreams.put(NEW_STREAM_HOOK, newStreamHook);
+        activeStreams.put(NEW_STREAM_HOOK, completedOnClose(changes.addedIds()));
+        activeStreams.put(STREAM_CHANGE_HOOK, completedOnClose(changes.changes()));
+    }
+
+    /**
+     * A creation of a stream which is ongoing in a specific thread (and possibly in other threads working on its
+     * behalf). Other threads which want to create the same stream wait for its completion.
+     */
+    private static final class StreamCreation {
+
+        private final StreamId<?> id;
+        private final Set<Thread> workingThreads = ConcurrentHashMap.newKeySet();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        private StreamCreation(StreamId<?> id) {
+            this.id = id;
+            this.workingThreads.add(Thread.currentThread());
+        }
+
+        private void complete() {
+            completion.complete(null);
+        }
+
+        private void completeExceptionally(RuntimeException exception) {
+            completion.completeExceptionally(exception);
+        }
+
+        private void await() {
+            join(completion);
+        }
+    }
+
+    /**
+     * Counts the subscribers of a data stream and its error stream and removes both from the pool once there were no
+     * subscribers during the whole eviction grace period. The counting starts as soon as the entry is registered, so
+     * that streams which are discovered but never subscribed are evicted as well. The metrics and the drop reporting of
+     * the stream are removed together with it.
+     */
+    private final class ReferenceCountedEntry<T> {
+
+        private final StreamId<T> id;
+        private final ErrorStreamId<StreamId<T>> errorStreamId;
+        private final Publisher<T> data;
+        private final Publisher<Throwable> error;
+        /* null if the metrics are disabled */
+        private final StreamMetrics streamMetrics;
+        /* null if the stream is not BackpressureAware */
+        private final DropAccount<T> dropAccount;
+        private final Publisher<DropSummary<T>> dropSummaries;
+        private final AtomicInteger subscribers = new AtomicInteger(0);
+        /* Incremented on every new subscriber, so that a pending eviction can detect that the entry was used */
+        private final AtomicLong generation = new AtomicLong(0);
+
+        private ReferenceCountedEntry(StreamId<T> id, ErrorStreamId<StreamId<T>> errorStreamId,
+                ErrorStreamPair<T> stream, StreamMetrics streamMetrics, DropAccount<T> dropAccount,
+                Publisher<DropSummary<T>> dropSummaries) {
+            this.id = id;
+            this.errorStreamId = errorStreamId;
+            this.streamMetrics = streamMetrics;
+            this.dropAccount = dropAccount;
+            this.dropSummaries = dropSummaries;
+            this.data = counted(stream.data());
+            this.error = counted(stream.error());
+        }
+
+        private void register() {
+            activeStreams.put(id, data);
+            activeStreams.put(errorStreamId, error);
+            scheduleEviction(generation.get());
+        }
+
+        private <X> Publisher<X> counted(Publisher<X> publisher) {
+            return Flowable.fromPublisher(publisher).doOnSubscribe(s -> acquire()).doFinally(this::release);
+        }
+
+        private void acquire() {
+            generation.incrementAndGet();
+            subscribers.incrementAndGet();
+        }
+
+        private void release() {
+            long currentGeneration = generation.get();
+            if (subscribers.decrementAndGet() == 0) {
+                scheduleEviction(currentGeneration);
+            }
+        }
+
+        private void scheduleEviction(long expectedGeneration) {
+            housekeeping(() -> evictIfUnused(expectedGeneration), evictionGracePeriod.toMillis());
+        }
+
+        private void evictIfUnused(long expectedGeneration) {
+            if (subscribers.get() == 0 && generation.get() == expectedGeneration) {
+                if (activeStreams.remove(id, data)) {
+                    changes.removed(id);
+                    if (streamMetrics != null) {
+                        metrics.remove(streamMetrics);
+                    }
+                    removeDropReporting();
+                }
+                if (activeStreams.remove(errorStreamId, error)) {
+                    changes.removed(errorStreamId);
+                }
+                decoratedStreams.remove(id);
+                decoratedStreams.remove(errorStreamId);
+                LOGGER.debug("Stream for id '{}' evicted from the pool, as it had no subscribers for {}", id,
+                        evictionGracePeriod);
+            }
+        }
+
+        private void removeDropReporting() {
+            if (dropAccount == null) {
+                return;
+            }
+            DroppedStreamId<T> droppedStreamId = DroppedStreamId.of(id);
+            dropAccounts.remove(id, dropAccount);
+            if (activeStreams.remove(droppedStreamId, dropSummaries)) {
+                changes.removed(droppedStreamId);
+            }
+        }
     }
-}
\ No newline at end of file
+}
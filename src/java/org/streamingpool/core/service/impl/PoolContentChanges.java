@@ -0,0 +1,175 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.streamingpool.core.domain.StreamIdChange;
+import org.streamingpool.core.service.StreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Keeps track of the ids of the streams in a {@link PoolContent} and publishes their changes. Only the ids currently in
+ * the pool are kept (not the history of the pool): a new subscriber first receives a snapshot of these ids as
+ * {@link StreamIdChange.Kind#ADDED} changes, followed by the changes which happen after its subscription. No change is
+ * lost or duplicated between the snapshot and the following changes.
+ * <p>
+ * The changes not yet requested by a subscriber are merged per id: an addition followed by the removal of the same id
+ * cancel out before being delivered. The changes pending for a slow subscriber are therefore bounded by the ids in the
+ * pool and the ids it was told about, however many ids come and go in the meantime.
+ */
+final class PoolContentChanges {
+
+    private final Set<StreamId<?>> liveIds = new LinkedHashSet<>();
+    /* Modified while holding the liveIds lock, so that each subscription receives every change once */
+    private final Set<ChangeSubscription> subscriptions = new CopyOnWriteArraySet<>();
+    private final Flowable<StreamIdChange> changesWithSnapshot = Flowable
+            .<StreamIdChange> fromPublisher(this::subscribe);
+
+    void added(StreamId<?> id) {
+        synchronized (liveIds) {
+            if (!liveIds.add(id)) {
+                return;
+            }
+            subscriptions.forEach(subscription -> subscription.merge(StreamIdChange.added(id)));
+        }
+        subscriptions.forEach(ChangeSubscription::drain);
+    }
+
+    void removed(StreamId<?> id) {
+        synchronized (liveIds) {
+            if (!liveIds.remove(id)) {
+                return;
+            }
+            subscriptions.forEach(subscription -> subscription.merge(StreamIdChange.removed(id)));
+        }
+        subscriptions.forEach(ChangeSubscription::drain);
+    }
+
+    /**
+     * @return the changes of the ids in the pool, starting with the ids currently in the pool for each subscriber
+     */
+    Flowable<StreamIdChange> changes() {
+        return changesWithSnapshot;
+    }
+
+    /**
+     * @return the ids currently in the pool, followed by the ids added afterwards
+     */
+    Flowable<StreamId<?>> addedIds() {
+        return changesWithSnapshot.filter(change -> change.kind() == StreamIdChange.Kind.ADDED)
+                .map(StreamIdChange::id);
+    }
+
+    private void subscribe(Subscriber<? super StreamIdChange> subscriber) {
+        ChangeSubscription subscription = new ChangeSubscription(subscriber);
+        synchronized (liveIds) {
+            /* Registering while holding the lock guarantees that the snapshot is consistent with the changes */
+            liveIds.forEach(id -> subscription.merge(StreamIdChange.added(id)));
+            subscriptions.add(subscription);
+        }
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * The changes pending for one subscriber, delivered as it requests them. The pending changes are accessed while
+     * holding the liveIds lock, the subscriber is called without holding it.
+     */
+    private final class ChangeSubscription implements Subscription {
+
+        private final Subscriber<? super StreamIdChange> subscriber;
+        /* At most one removal followed by one addition per id */
+        private final Set<StreamIdChange> pending = new LinkedHashSet<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger drainRequests = new AtomicInteger();
+        private volatile boolean cancelled;
+
+        ChangeSubscription(Subscriber<? super StreamIdChange> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /* Called while holding the liveIds lock */
+        void merge(StreamIdChange change) {
+            if (change.kind() == StreamIdChange.Kind.REMOVED && pending.remove(StreamIdChange.added(change.id()))) {
+                /* The subscriber was not told about the addition yet */
+                return;
+            }
+            pending.add(change);
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested " + n + " changes, which is not positive"));
+                return;
+            }
+            requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            synchronized (liveIds) {
+                subscriptions.remove(this);
+                pending.clear();
+            }
+        }
+
+        void drain() {
+            if (drainRequests.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                StreamIdChange next;
+                while (!cancelled && requested.get() > 0 && (next = poll()) != null) {
+                    requested.getAndUpdate(current -> current == Long.MAX_VALUE ? current : current - 1);
+                    subscriber.onNext(next);
+                }
+                missed = drainRequests.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private StreamIdChange poll() {
+            synchronized (liveIds) {
+                Iterator<StreamIdChange> iterator = pending.iterator();
+                if (!iterator.hasNext()) {
+                    return null;
+                }
+                StreamIdChange next = iterator.next();
+                iterator.remove();
+                return next;
+            }
+        }
+    }
+
+}
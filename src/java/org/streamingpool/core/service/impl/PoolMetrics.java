@@ -0,0 +1,158 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.streamingpool.core.domain.StreamMetricsSnapshot;
+import org.streamingpool.core.service.StreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.BehaviorProcessor;
+import io.reactivex.processors.FlowableProcessor;
+
+/**
+ * The {@link StreamMetrics} of the streams in a {@link PoolContent}. The metrics of a stream are available as soon as
+ * the stream is in the pool. Their sampling, as well as their (un)registration as JMX MBeans, is done by the
+ * housekeeping thread of the pool.
+ */
+final class PoolMetrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PoolMetrics.class);
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final String poolName = "pool-" + POOL_COUNT.incrementAndGet();
+    private final ConcurrentMap<StreamId<?>, StreamMetrics> streams = new ConcurrentHashMap<>();
+    /*
+     * Guarded by itself: the pool closes its metrics without knowing if the housekeeping thread terminated, which may
+     * still register or unregister MBeans meanwhile
+     */
+    private final Map<StreamMetrics, ObjectName> registeredMBeans = new HashMap<>();
+    private boolean closed;
+    private final FlowableProcessor<List<StreamMetricsSnapshot>> snapshots = BehaviorProcessor
+            .<List<StreamMetricsSnapshot>> create().toSerialized();
+    private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    /**
+     * Starts to keep the metrics of the stream with the given id, replacing the ones of a previous stream with the same
+     * id.
+     *
+     * @param dropAccount the account of the items dropped by the stream or {@code null} if it cannot drop any
+     */
+    StreamMetrics add(StreamId<?> id, DropAccount<?> dropAccount) {
+        StreamMetrics metrics = new StreamMetrics(id, dropAccount);
+        streams.put(id, metrics);
+        return metrics;
+    }
+
+    StreamMetrics get(StreamId<?> id) {
+        return streams.get(id);
+    }
+
+    /**
+     * Registers the given metrics as MBean, unless they were replaced or removed in the meantime, or the metrics are
+     * closed.
+     */
+    void registerMBean(StreamMetrics metrics) {
+        synchronized (registeredMBeans) {
+            if (closed || streams.get(metrics.id()) != metrics) {
+                return;
+            }
+            try {
+                ObjectName name = new ObjectName("org.streamingpool:type=StreamMetrics,pool=" + poolName + ",id="
+                        + ObjectName.quote(metrics.getStreamId()));
+                mbeanServer.registerMBean(new StandardMBean(metrics, StreamMetricsMXBean.class, true), name);
+                registeredMBeans.put(metrics, name);
+            } catch (JMException e) {
+                LOGGER.warn("The metrics of the stream with id '{}' could not be registered as MBean", metrics.id(),
+                        e);
+            }
+        }
+    }
+
+    void remove(StreamMetrics metrics) {
+        streams.remove(metrics.id(), metrics);
+        synchronized (registeredMBeans) {
+            unregisterMBean(metrics);
+        }
+    }
+
+    /* Called while holding the registeredMBeans lock */
+    private void unregisterMBean(StreamMetrics metrics) {
+        ObjectName name = registeredMBeans.remove(metrics);
+        if (name == null) {
+            return;
+        }
+        try {
+            mbeanServer.unregisterMBean(name);
+        } catch (JMException e) {
+            LOGGER.warn("The MBean {} could not be unregistered", name, e);
+        }
+    }
+
+    /**
+     * Samples the metrics of all the streams and publishes them as a snapshot.
+     */
+    void sample() {
+        streams.values().forEach(StreamMetrics::sample);
+        snapshots.onNext(snapshot());
+    }
+
+    List<StreamMetricsSnapshot> snapshot() {
+        List<StreamMetricsSnapshot> snapshot = new ArrayList<>(streams.size());
+        streams.values().forEach(metrics -> snapshot.add(metrics.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * @return the sampled snapshots, starting with the latest one for each subscriber
+     */
+    Flowable<List<StreamMetricsSnapshot>> snapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Unregisters all the MBeans. No MBean is registered afterwards, even if the housekeeping thread is still running.
+     */
+    void close() {
+        synchronized (registeredMBeans) {
+            closed = true;
+            new ArrayList<>(registeredMBeans.keySet()).forEach(this::unregisterMBean);
+        }
+        streams.clear();
+    }
+
+}
@@ -0,0 +1,181 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.streamingpool.core.service.StreamId;
+
+/**
+ * The warm-up of a pool: the streams of the given ids are discovered (and therefore created) in the background, so that
+ * their first discovery by the application does not pay the cost of their creation. The streams are created in parallel
+ * by a {@link BulkDiscovery}, once the warm-up is {@link #start() started}. The progress of the warm-up can be queried
+ * at any time and its completion can be awaited, e.g. by a readiness probe.
+ * <p>
+ * A stream which fails to be created does not stop the warm-up: the failure is logged and available through
+ * {@link #failures()}, and the stream will be created again on its next discovery.
+ *
+ * @see LocalPool#warmUp(Collection)
+ * @see LocalPool#prepareWarmUp(Collection)
+ */
+public final class PoolWarmUp {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PoolWarmUp.class);
+
+    private final BulkDiscovery bulkDiscovery;
+    private final Set<StreamId<?>> ids;
+    private final int total;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicInteger warmedUp = new AtomicInteger();
+    private final AtomicInteger finished = new AtomicInteger();
+    private final Map<StreamId<?>, Throwable> failures = new ConcurrentHashMap<>();
+    private final CompletableFuture<PoolWarmUp> completion = new CompletableFuture<>();
+
+    PoolWarmUp(BulkDiscovery bulkDiscovery, Collection<? extends StreamId<?>> ids) {
+        this.bulkDiscovery = bulkDiscovery;
+        this.ids = new LinkedHashSet<>(ids);
+        this.total = this.ids.size();
+    }
+
+    /**
+     * Starts to create the streams in the background. Starting a warm-up which is already started has no effect.
+     *
+     * @return this warm-up
+     */
+    public PoolWarmUp start() {
+        if (!started.compareAndSet(false, true)) {
+            return this;
+        }
+        if (ids.isEmpty()) {
+            completion.complete(this);
+            return this;
+        }
+
+        LOGGER.info("Warming up {} streams", total);
+        bulkDiscovery.discoverAllInBackground(ids, this::warmedUp);
+        return this;
+    }
+
+    private void warmedUp(StreamId<?> id, RuntimeException failure) {
+        if (failure == null) {
+            warmedUp.incrementAndGet();
+        } else {
+            LOGGER.warn("Stream for id '{}' could not be created during the warm-up", id, failure);
+            failures.put(id, failure);
+        }
+        if (finished.incrementAndGet() == total) {
+            LOGGER.info("Warm-up finished: {} of {} streams created", warmedUp.get(), total);
+            completion.complete(this);
+        }
+    }
+
+    /**
+     * @return the number of streams to warm up
+     */
+    public int total() {
+        return total;
+    }
+
+    /**
+     * @return the number of streams which were successfully created so far
+     */
+    public int warmedUp() {
+        return warmedUp.get();
+    }
+
+    /**
+     * @return the number of streams which failed to be created so far
+     */
+    public int failed() {
+        return failures.size();
+    }
+
+    /**
+     * @return the fraction of the streams for which the warm-up is finished (successfully or not), between 0 and 1
+     */
+    public double progress() {
+        return total == 0 ? 1.0 : (double) finished.get() / total;
+    }
+
+    public boolean isStarted() {
+        return started.get();
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * @return the ids of the streams which failed to be created so far, with the reason of the failure
+     */
+    public Map<StreamId<?>, Throwable> failures() {
+        return unmodifiableMap(failures);
+    }
+
+    /**
+     * @return a stage which completes with this warm-up once it is finished for all the streams (also if some of them
+     *         failed to be created)
+     */
+    public CompletionStage<PoolWarmUp> completion() {
+        return completion;
+    }
+
+    /**
+     * Waits for the warm-up to finish for all the streams.
+     *
+     * @param timeout the maximum time to wait
+     * @return {@code true} if the warm-up finished within the given time
+     */
+    public boolean awaitCompletion(Duration timeout) {
+        try {
+            completion.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PoolWarmUp [total=" + total + ", warmedUp=" + warmedUp() + ", failed=" + failed() + "]";
+    }
+
+}
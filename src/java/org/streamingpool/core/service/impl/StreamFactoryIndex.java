@@ -0,0 +1,98 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+
+/**
+ * An immutable, ordered list of {@link StreamFactory}s, which knows for each class of {@link StreamId} the factories
+ * that can create streams for it (see {@link StreamFactory#streamIdClasses()}). These candidates keep the order of the
+ * factories in the list, so intercepts and fallbacks are still asked first and last. Factories that do not declare any
+ * id class are candidates for all the ids.
+ * <p>
+ * The candidates are computed when a class of id is looked up for the first time and are cached afterwards.
+ */
+final class StreamFactoryIndex {
+
+    private final List<IndexedFactory> factories;
+    private final ConcurrentMap<Class<?>, List<StreamFactory>> candidatesByIdClass = new ConcurrentHashMap<>();
+
+    StreamFactoryIndex(List<StreamFactory> factories) {
+        this.factories = unmodifiableList(factories.stream().map(IndexedFactory::new).collect(toList()));
+    }
+
+    /**
+     * @return the factories which might create the stream for the given id, in the order in which they have to be asked
+     */
+    List<StreamFactory> candidatesFor(StreamId<?> id) {
+        return candidatesByIdClass.computeIfAbsent(id.getClass(), this::findCandidates);
+    }
+
+    /**
+     * @return {@code true} if the first factory which can create the given id (see
+     *         {@link StreamFactory#canCreate(StreamId)}) is of exactly the given class
+     */
+    boolean isFirstCreator(Class<? extends StreamFactory> factoryClass, StreamId<?> id) {
+        for (StreamFactory candidate : candidatesFor(id)) {
+            if (candidate.canCreate(id)) {
+                return candidate.getClass() == factoryClass;
+            }
+        }
+        return false;
+    }
+
+    private List<StreamFactory> findCandidates(Class<?> idClass) {
+        List<StreamFactory> candidates = new ArrayList<>();
+        for (IndexedFactory factory : factories) {
+            if (factory.handles(idClass)) {
+                candidates.add(factory.factory);
+            }
+        }
+        return unmodifiableList(candidates);
+    }
+
+    private static final class IndexedFactory {
+
+        private final StreamFactory factory;
+        private final Set<Class<?>> idClasses;
+
+        private IndexedFactory(StreamFactory factory) {
+            this.factory = factory;
+            this.idClasses = factory.streamIdClasses();
+        }
+
+        private boolean handles(Class<?> idClass) {
+            return idClasses.isEmpty() || idClasses.stream().anyMatch(handled -> handled.isAssignableFrom(idClass));
+        }
+    }
+
+}
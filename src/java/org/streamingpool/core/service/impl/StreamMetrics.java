@@ -0,0 +1,176 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.domain.StreamMetricsSnapshot;
+import org.streamingpool.core.service.StreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * The counters of a stream of a pool. They are updated by the streams instrumented through {@link #metered(Publisher)}
+ * and {@link #gaugingQueueOf(Flowable, Function, ToIntFunction)}, from any thread. The dropped items are counted by the
+ * {@link DropAccount} of the stream. The emissions per second are computed when the pool samples the counters.
+ */
+final class StreamMetrics implements StreamMetricsMXBean {
+
+    private final StreamId<?> id;
+    private final Instant creationTime = Instant.now();
+    private final LongAdder emissions = new LongAdder();
+    private final LongAdder subscribers = new LongAdder();
+    /* null if the stream is not BackpressureAware */
+    private final DropAccount<?> dropAccount;
+    /* One per subscription to a stream observed on the pool scheduler */
+    private final Set<QueueGauge> queues = ConcurrentHashMap.newKeySet();
+    /* Only accessed by the sampling thread */
+    private long emissionsAtLastSample;
+    private long lastSampleNanos = System.nanoTime();
+    private volatile double emissionsPerSecond;
+
+    StreamMetrics(StreamId<?> id, DropAccount<?> dropAccount) {
+        this.id = id;
+        this.dropAccount = dropAccount;
+    }
+
+    StreamId<?> id() {
+        return id;
+    }
+
+    /**
+     * @return the given stream, counting its subscribers and the items emitted to them
+     */
+    <T> Publisher<T> metered(Publisher<T> publisher) {
+        return Flowable.fromPublisher(publisher).doOnSubscribe(s -> subscribers.increment())
+                .doOnNext(item -> emissions.increment()).doFinally(subscribers::decrement);
+    }
+
+    /**
+     * Applies the given queueing (e.g. the observation on another scheduler) to the given stream and counts the items
+     * which entered but did not leave it yet, for every subscription.
+     *
+     * @param weight the number of items an element of the stream stands for (e.g. the size of a batch)
+     */
+    <X> Flowable<X> gaugingQueueOf(Flowable<X> source, Function<Flowable<X>, Flowable<X>> queueing,
+            ToIntFunction<X> weight) {
+        return Flowable.defer(() -> {
+            QueueGauge gauge = new QueueGauge();
+            queues.add(gauge);
+            return queueing.apply(source.doOnNext(element -> gauge.entered(weight.applyAsInt(element))))
+                    .doOnNext(element -> gauge.left(weight.applyAsInt(element))).doFinally(() -> queues.remove(gauge));
+        });
+    }
+
+    /**
+     * Computes the emissions per second since the previous sample. Must always be called by the same thread.
+     */
+    void sample() {
+        long now = System.nanoTime();
+        long currentEmissions = emissions.sum();
+        long elapsedNanos = now - lastSampleNanos;
+        if (elapsedNanos > 0) {
+            emissionsPerSecond = (currentEmissions - emissionsAtLastSample) * (double) SECONDS.toNanos(1)
+                    / elapsedNanos;
+        }
+        emissionsAtLastSample = currentEmissions;
+        lastSampleNanos = now;
+    }
+
+    StreamMetricsSnapshot snapshot() {
+        return new StreamMetricsSnapshot(id, creationTime, getEmissions(), emissionsPerSecond, getSubscribers(),
+                getQueueDepth(), getDrops());
+    }
+
+    @Override
+    public String getStreamId() {
+        return id.toString();
+    }
+
+    @Override
+    public String getCreationTime() {
+        return creationTime.toString();
+    }
+
+    @Override
+    public long getEmissions() {
+        return emissions.sum();
+    }
+
+    @Override
+    public double getEmissionsPerSecond() {
+        return emissionsPerSecond;
+    }
+
+    @Override
+    public long getSubscribers() {
+        return subscribers.sum();
+    }
+
+    @Override
+    public long getQueueDepth() {
+        long depth = 0;
+        for (QueueGauge queue : queues) {
+            depth += queue.depth();
+        }
+        return depth;
+    }
+
+    @Override
+    public long getDrops() {
+        return dropAccount == null ? 0 : dropAccount.drops();
+    }
+
+    /**
+     * The items in the queue of a single subscription. Each counter is written by a single thread (the one emitting
+     * into, respectively out of the queue), so no atomic increment is needed.
+     */
+    private static final class QueueGauge {
+
+        private final AtomicLong entered = new AtomicLong();
+        private final AtomicLong left = new AtomicLong();
+
+        private void entered(int count) {
+            entered.lazySet(entered.get() + count);
+        }
+
+        private void left(int count) {
+            left.lazySet(left.get() + count);
+        }
+
+        private long depth() {
+            /* Reading the items which left first guarantees a non-negative depth */
+            long leftCount = left.get();
+            return Math.max(0, entered.get() - leftCount);
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+/**
+ * The runtime metrics of a stream of a pool as exposed over JMX, under the name
+ * {@code org.streamingpool:type=StreamMetrics,pool=<pool>,id=<id>}. They are the same as the ones published by
+ * {@link org.streamingpool.core.service.streamid.StreamMetricsHook#STREAM_METRICS}.
+ *
+ * @see org.streamingpool.core.domain.StreamMetricsSnapshot
+ */
+public interface StreamMetricsMXBean {
+
+    String getStreamId();
+
+    /**
+     * @return the time at which the stream was added to the pool, in ISO-8601 format
+     */
+    String getCreationTime();
+
+    long getEmissions();
+
+    /**
+     * @return the emissions per second during the last sampling period of the pool
+     */
+    double getEmissionsPerSecond();
+
+    long getSubscribers();
+
+    long getQueueDepth();
+
+    long getDrops();
+
+}
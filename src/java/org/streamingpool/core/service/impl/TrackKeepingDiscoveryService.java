@@ -25,16 +25,19 @@ package org.streamingpool.core.service.impl;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.reactivex.BackpressureOverflowStrategy;
 import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
 import io.reactivex.functions.Action;
 import org.reactivestreams.Publisher;
 import org.streamingpool.core.conf.PoolConfiguration;
@@ -45,35 +48,50 @@ import org.streamingpool.core.domain.backpressure.BackpressureDropStrategy;
 import org.streamingpool.core.domain.backpressure.BackpressureLatestStrategy;
 import org.streamingpool.core.domain.backpressure.BackpressureNoneStrategy;
 import org.streamingpool.core.domain.backpressure.BackpressureStrategy;
+import org.streamingpool.core.domain.batching.BatchingStrategy;
+import org.streamingpool.core.service.AsyncStreamFactory;
 import org.streamingpool.core.service.CycleInStreamDiscoveryDetectedException;
 import org.streamingpool.core.service.DiscoveryService;
 import org.streamingpool.core.service.StreamFactory;
 import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.UnresolvableStreamIdException;
+import org.streamingpool.core.service.streamfactory.FusionSupport;
 
 /**
  * Special implementation of a {@link DiscoveryService}. It is able to discover streams recursively while preventing
- * cycles. Also, it is able to detect recursive discoveries from multiple threads, which is not allowed.
+ * cycles. Also, it is able to detect recursive discoveries from multiple threads, which is not allowed. The only way to
+ * discover recursively from other threads is {@link #discoverAsync(StreamId)}, which runs the discovery in a thread of
+ * the discovery executor while still keeping track of the ids under creation.
+ * <p>
+ * Only the streams discovered from outside the pool are observed on the pool scheduler. The streams discovered by the
+ * factories (through the nested instances of this service) are returned as in {@link #discoverDirect(StreamId)}, unless
+ * {@link PoolConfiguration#isObserveOnPerStage()} is set.
  */
-public class TrackKeepingDiscoveryService implements DiscoveryService {
+public class TrackKeepingDiscoveryService implements DiscoveryService, FusionSupport {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TrackKeepingDiscoveryService.class);
     private final Action NOOP = () -> {};
-    private final Set<StreamId<?>> idsOfStreamsUnderCreation;
-    private final List<StreamFactory> factories;
+    private final DiscoveryPath idsOfStreamsUnderCreation;
+    private final StreamFactoryIndex factories;
     private final PoolContent content;
     private final Thread contextOfExecution;
     private final PoolConfiguration poolConfiguration;
 
     public TrackKeepingDiscoveryService(List<StreamFactory> factories, PoolContent content, PoolConfiguration poolConfiguration) {
-        this(factories, content, new HashSet<>(), Thread.currentThread(), poolConfiguration);
+        this(new StreamFactoryIndex(factories), content, poolConfiguration);
+    }
 
+    TrackKeepingDiscoveryService(StreamFactoryIndex factories, PoolContent content,
+            PoolConfiguration poolConfiguration) {
+        this(factories, content, DiscoveryPath.empty(), Thread.currentThread(), poolConfiguration);
     }
 
-    private TrackKeepingDiscoveryService(List<StreamFactory> factories, PoolContent content,
-            Set<StreamId<?>> idsOfStreamsUnderCreation, Thread contextOfExecution, PoolConfiguration poolConfiguration) {
+    private TrackKeepingDiscoveryService(StreamFactoryIndex factories, PoolContent content,
+            DiscoveryPath idsOfStreamsUnderCreation, Thread contextOfExecution, PoolConfiguration poolConfiguration) {
         this.factories = requireNonNull(factories, "factories must not be null");
         this.content = requireNonNull(content, "activeStreams must not be null");
-        this.idsOfStreamsUnderCreation = Collections.unmodifiableSet(idsOfStreamsUnderCreation);
+        this.idsOfStreamsUnderCreation = requireNonNull(idsOfStreamsUnderCreation,
+                "idsOfStreamsUnderCreation must not be null");
         this.contextOfExecution = requireNonNull(contextOfExecution, "contextOfExecution must not be null");
         this.poolConfiguration = poolConfiguration;
     }
@@ -83,34 +101,147 @@ public class TrackKeepingDiscoveryService implements DiscoveryService {
         checkSameContexOfExecution();
         checkForRecursiveCycles(id);
 
-        content.synchronousPutIfAbsent(id, () -> createFromFactories(id));
+        if (isDiscoveringForFactory() && !poolConfiguration.isObserveOnPerStage()) {
+            /* The stream becomes part of another stream of the pool, which is observed on the pool scheduler (once)
+             * when it is discovered from outside. Observing every stage of a chain would hand over each item once per
+             * stage. */
+            return discoverDirect(id);
+        }
+        return createIfAbsentAndGet(id, this::getDecoratedStream);
+    }
+
+    /**
+     * Creates the stream if it is not in the pool yet and looks it up afterwards. An evictable stream might be evicted
+     * between its creation (by this or another thread) and the lookup, if nobody subscribed to it during the eviction
+     * grace period. In that case it is created again. The lookup is only considered as failed if the factories were
+     * asked by this thread and none of them could create the stream.
+     */
+    private <T> Publisher<T> createIfAbsentAndGet(StreamId<T> id, Function<StreamId<T>, Publisher<T>> lookup) {
+        while (true) {
+            AtomicBoolean noFactoryCouldCreate = new AtomicBoolean();
+            content.synchronousPutEvictableIfAbsent(id, () -> {
+                ErrorStreamPair<T> stream = createFromFactories(id);
+                noFactoryCouldCreate.set(!stream.isPresent());
+                return stream;
+            });
+            Publisher<T> stream = lookup.apply(id);
+            if (stream != null) {
+                return stream;
+            }
+            if (noFactoryCouldCreate.get()) {
+                throw new UnresolvableStreamIdException(
+                        "The stream for id '" + id + "' is neither present nor can it be created by any factory.");
+            }
+        }
+    }
+
+    @Override
+    public <T> Publisher<T> discoverDirect(StreamId<T> id) {
+        checkSameContexOfExecution();
+        checkForRecursiveCycles(id);
+
+        return withBackpressureStrategyOf(id, Flowable.fromPublisher(createIfAbsentAndGet(id, content::get)));
+    }
+
+    @Override
+    public <T> CompletionStage<Publisher<T>> discoverAsync(StreamId<T> id) {
+        try {
+            checkForRecursiveCycles(id);
+        } catch (CycleInStreamDiscoveryDetectedException e) {
+            CompletableFuture<Publisher<T>> failedDiscovery = new CompletableFuture<>();
+            failedDiscovery.completeExceptionally(e);
+            return failedDiscovery;
+        }
+
+        StreamId<?> creationToWorkOn = idsOfStreamsUnderCreation.innermostId();
+        return CompletableFuture.supplyAsync(() -> {
+            TrackKeepingDiscoveryService discoveryService = new TrackKeepingDiscoveryService(factories, content,
+                    idsOfStreamsUnderCreation, Thread.currentThread(), poolConfiguration);
+            if (creationToWorkOn == null) {
+                return discoveryService.discover(id);
+            }
+            return content.workOnCreationOf(creationToWorkOn, () -> discoveryService.discover(id));
+        }, poolConfiguration.getDiscoveryExecutor());
+    }
+
+    @Override
+    public boolean wouldBeCreatedBy(StreamId<?> id, Class<? extends StreamFactory> factoryClass) {
+        return content.get(id) == null && factories.isFirstCreator(factoryClass, id);
+    }
+
+    private <T> Publisher<T> decorate(StreamId<T> id, Publisher<T> publisher) {
+        StreamMetrics metrics = content.metricsOf(id);
+        BatchingStrategy batchingStrategy = poolConfiguration.getBatchingStrategy(id);
+        if (batchingStrategy.isEnabled()) {
+            return observeOnThreadPoolInBatches(id, publisher, batchingStrategy, metrics);
+        }
+        return withBackpressureStrategyOf(id, observerOnThreadPool(id, publisher, metrics));
+    }
 
-        Publisher<T> publisher = getStreamWithIdOrElseThrow(id);
-        Flowable<T> flowable =  observerOnThreadPool(publisher);
+    /**
+     * Hands over the items to the pool scheduler in batches and unpacks them again for the subscriber. The latest and
+     * drop backpressure strategies apply to the batches, the buffer strategies to the unpacked items.
+     */
+    private <T> Flowable<T> observeOnThreadPoolInBatches(StreamId<T> id, Publisher<T> publisher,
+            BatchingStrategy batchingStrategy, StreamMetrics metrics) {
+        Scheduler scheduler = poolConfiguration.getScheduler(id);
+        Flowable<List<T>> collected = BatchCollector.batched(publisher, batchingStrategy, scheduler);
+        Flowable<List<T>> batches;
+        if (metrics == null) {
+            batches = collected.observeOn(scheduler, false, poolConfiguration.getObserveOnCapacity());
+        } else {
+            batches = metrics.gaugingQueueOf(collected,
+                    source -> source.observeOn(scheduler, false, poolConfiguration.getObserveOnCapacity()), List::size);
+        }
+        if (id instanceof BackpressureAware) {
+            BackpressureStrategy backpressureStrategy = ((BackpressureAware) id).backpressureStrategy();
+            if (backpressureStrategy instanceof BackpressureBufferStrategy) {
+                /* The buffer strategies do not tell which batch they drop, so they are applied to the items */
+                return withBackpressureStrategyOf(id, batches.concatMapIterable(batch -> batch));
+            }
+            DropAccount<T> dropAccount = content.dropAccountOf(id);
+            batches = applyBackpressureStrategy(batches, backpressureStrategy,
+                    dropAccount == null ? batch -> {} : dropAccount::droppedAll,
+                    dropAccount == null ? NOOP : dropAccount::droppedUnknown);
+        }
+        return batches.concatMapIterable(batch -> batch);
+    }
+
+    private <T> Flowable<T> withBackpressureStrategyOf(StreamId<T> id, Flowable<T> flowable) {
         if(id instanceof BackpressureAware){
-            flowable = applyBackpressureStrategy(flowable,((BackpressureAware)id).backpressureStrategy());
+            DropAccount<T> dropAccount = content.dropAccountOf(id);
+            return applyBackpressureStrategy(flowable, ((BackpressureAware) id).backpressureStrategy(),
+                    dropAccount == null ? item -> {} : dropAccount::dropped,
+                    dropAccount == null ? NOOP : dropAccount::droppedUnknown);
         }
         return flowable;
     }
 
-    private <T> Flowable<T> applyBackpressureStrategy(Flowable<T> source, BackpressureStrategy backpressureStrategy) {
+    /**
+     * Applies the given strategy to the given stream, passing the dropped elements to the given consumer. The buffer
+     * strategies do not tell which elements they drop, they only call the given overflow action.
+     */
+    private <X> Flowable<X> applyBackpressureStrategy(Flowable<X> source, BackpressureStrategy backpressureStrategy,
+            Consumer<X> onDrop, Action onOverflow) {
         if(backpressureStrategy == null){
             return source;
         }
         if (backpressureStrategy instanceof BackpressureLatestStrategy) {
-            return source.onBackpressureLatest();
+            return source.lift(new LatestReportingDrops<>(onDrop));
         }
         if (backpressureStrategy instanceof BackpressureDropStrategy) {
-            return source.onBackpressureDrop(i -> {});
+            return source.onBackpressureDrop(onDrop::accept);
         }
         if (backpressureStrategy instanceof BackpressureBufferStrategy) {
             BackpressureBufferStrategy bufferStrategy = (BackpressureBufferStrategy) backpressureStrategy;
 
             if (bufferStrategy.overflowStrategy() == BackpressureBufferStrategy.BackpressureBufferOverflowStrategy.DROP_LATEST) {
-                return source.onBackpressureBuffer(bufferStrategy.bufferSize(), NOOP, BackpressureOverflowStrategy.DROP_LATEST);
+                return source.onBackpressureBuffer(bufferStrategy.bufferSize(), onOverflow,
+                        BackpressureOverflowStrategy.DROP_LATEST);
             }
             if (bufferStrategy.overflowStrategy() == BackpressureBufferStrategy.BackpressureBufferOverflowStrategy.DROP_OLDEST) {
-                return source.onBackpressureBuffer(bufferStrategy.bufferSize(), NOOP, BackpressureOverflowStrategy.DROP_OLDEST);
+                return source.onBackpressureBuffer(bufferStrategy.bufferSize(), onOverflow,
+                        BackpressureOverflowStrategy.DROP_OLDEST);
             }
             throw new IllegalArgumentException("Cannot determine the specified buffer overflow strategy: " + bufferStrategy);
         }
@@ -120,29 +251,32 @@ public class TrackKeepingDiscoveryService implements DiscoveryService {
         throw new IllegalArgumentException("Cannot determine the specified backpressure strategy: " + backpressureStrategy);
     }
 
-    private <T> Flowable<T> observerOnThreadPool(Publisher<T> publisher) {
-        return Flowable.fromPublisher(publisher)
-                .observeOn(poolConfiguration.getScheduler(), false, poolConfiguration.getObserveOnCapacity());
+    private <T> Flowable<T> observerOnThreadPool(StreamId<T> id, Publisher<T> publisher, StreamMetrics metrics) {
+        Scheduler scheduler = poolConfiguration.getScheduler(id);
+        if (metrics == null) {
+            return Flowable.fromPublisher(publisher).observeOn(scheduler, false,
+                    poolConfiguration.getObserveOnCapacity());
+        }
+        return metrics.gaugingQueueOf(Flowable.fromPublisher(publisher),
+                source -> source.observeOn(scheduler, false, poolConfiguration.getObserveOnCapacity()), item -> 1);
     }
 
-    private <T> Publisher<T> getStreamWithIdOrElseThrow(StreamId<T> id) {
-        Publisher<T> activeStream = content.get(id);
-
-        if (activeStream == null) {
-            throw new IllegalArgumentException(
-                    "The stream for id '" + id + "' is neither present nor can it be created by any factory.");
-        }
-        return activeStream;
+    private <T> Publisher<T> getDecoratedStream(StreamId<T> id) {
+        return content.decorateIfPresent(id, publisher -> decorate(id, publisher));
     }
 
     private <T> void checkForRecursiveCycles(StreamId<T> id) {
         if (idsOfStreamsUnderCreation.contains(id)) {
             throw new CycleInStreamDiscoveryDetectedException(
                     format("Cycle detected when looking up streams. (At least) the following id was queried twice: %s."
-                            + " Number of queried ids without revolving: %s", id, idsOfStreamsUnderCreation.size()));
+                            + " Number of queried ids without revolving: %s", id, idsOfStreamsUnderCreation.length()));
         }
     }
 
+    private boolean isDiscoveringForFactory() {
+        return idsOfStreamsUnderCreation.length() > 0;
+    }
+
     private void checkSameContexOfExecution() {
         if (!Thread.currentThread().equals(contextOfExecution)) {
             throw new IllegalStateException(format(
@@ -153,14 +287,14 @@ public class TrackKeepingDiscoveryService implements DiscoveryService {
     }
 
     private <T> TrackKeepingDiscoveryService cloneDiscoveryServiceIncluding(StreamId<T> newId) {
-        Set<StreamId<?>> newSet = new HashSet<>(idsOfStreamsUnderCreation);
-        newSet.add(newId);
-        return new TrackKeepingDiscoveryService(factories, content, newSet, contextOfExecution, poolConfiguration);
+        return new TrackKeepingDiscoveryService(factories, content, idsOfStreamsUnderCreation.including(newId),
+                contextOfExecution, poolConfiguration);
     }
 
     private <T> ErrorStreamPair<T> createFromFactories(StreamId<T> newId) {
-        for (StreamFactory factory : factories) {
-            ErrorStreamPair<T> factoryResult = factory.create(newId, cloneDiscoveryServiceIncluding(newId));
+        TrackKeepingDiscoveryService nestedDiscoveryService = cloneDiscoveryServiceIncluding(newId);
+        for (StreamFactory factory : factories.candidatesFor(newId)) {
+            ErrorStreamPair<T> factoryResult = createFromFactory(factory, newId, nestedDiscoveryService);
 
             if (factoryResult == null) {
                 throw new IllegalStateException(format(
@@ -169,10 +303,28 @@ public class TrackKeepingDiscoveryService implements DiscoveryService {
 
             if (factoryResult.isPresent()) {
                 LOGGER.info("Stream from id '{}' was successfully created by factory '{}'", newId, factory);
-                return ErrorStreamPair.ofDataError(factoryResult.data(), factoryResult.error());
+                return ErrorStreamPair.ofDataError(multicastIfConfigured(newId, factory, factoryResult.data()),
+                        factoryResult.error());
             }
         }
         return ErrorStreamPair.empty();
     }
 
+    private <T> ErrorStreamPair<T> createFromFactory(StreamFactory factory, StreamId<T> newId,
+            TrackKeepingDiscoveryService nestedDiscoveryService) {
+        if (factory instanceof AsyncStreamFactory) {
+            CompletionStage<ErrorStreamPair<T>> creation = ((AsyncStreamFactory) factory).createAsync(newId,
+                    nestedDiscoveryService);
+            return creation == null ? null : content.awaitCreationOf(newId, creation);
+        }
+        return factory.create(newId, nestedDiscoveryService);
+    }
+
+    private <T> Publisher<T> multicastIfConfigured(StreamId<T> id, StreamFactory factory, Publisher<T> stream) {
+        if (poolConfiguration.getMulticastPolicy().isMulticast(id, factory)) {
+            return Flowable.fromPublisher(stream).publish().refCount();
+        }
+        return stream;
+    }
+
 }
@@ -22,6 +22,9 @@
 
 package org.streamingpool.core.service.streamfactory;
 
+import java.util.Collections;
+import java.util.Set;
+
 import io.reactivex.Flowable;
 import org.reactivestreams.Publisher;
 import org.streamingpool.core.domain.ErrorStreamPair;
@@ -49,6 +52,11 @@ public class CombineWithLatestStreamFactory implements StreamFactory {
         return ErrorStreamPair.ofData(combineWithLatestStream((CombineWithLatestStreamId<?, ?, Y>) id, discoveryService));
     }
 
+    @Override
+    public Set<Class<?>> streamIdClasses() {
+        return Collections.singleton(CombineWithLatestStreamId.class);
+    }
+
     private <T, D, Y> Publisher<Y> combineWithLatestStream(CombineWithLatestStreamId<T, D, Y> streamId,
             DiscoveryService discoveryService) {
         Flowable<D> data = Flowable.fromPublisher(discoveryService.discover(streamId.dataStream()));
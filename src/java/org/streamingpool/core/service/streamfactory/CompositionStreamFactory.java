@@ -23,8 +23,10 @@ package org.streamingpool.core.service.streamfactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.reactivestreams.Publisher;
 import org.streamingpool.core.domain.ErrorStreamPair;
@@ -52,6 +54,11 @@ public final class CompositionStreamFactory implements StreamFactory {
         return ErrorStreamPair.ofData(createStream(compositionStreamId, discoveryService));
     }
 
+    @Override
+    public Set<Class<?>> streamIdClasses() {
+        return Collections.singleton(CompositionStreamId.class);
+    }
+
     private <X, T> Publisher<T> createStream(CompositionStreamId<X, T> id, DiscoveryService discoveryService) {
         List<Publisher<X>> extractedStreams = extractStreams(id.sourceStreamIds(), discoveryService);
         return id.transformation().apply(extractedStreams);
@@ -24,14 +24,16 @@ package org.streamingpool.core.service.streamfactory;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.streamingpool.core.domain.ErrorStreamPair;
 import org.streamingpool.core.service.CreatorProvidingService;
 import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.DynamicStreamFactory;
 import org.streamingpool.core.service.StreamCreator;
-import org.streamingpool.core.service.StreamFactory;
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.TypedStreamFactory;
 import org.streamingpool.core.service.impl.IdentifiedStreamCreator;
@@ -48,9 +50,10 @@ import io.reactivex.Flowable;
  * @see StreamCreator
  * @see ImmutableIdentifiedStreamCreator
  */
-public class CreatorStreamFactory implements CreatorProvidingService, StreamFactory {
+public class CreatorStreamFactory implements CreatorProvidingService, DynamicStreamFactory {
 
     private final ConcurrentMap<StreamId<?>, StreamCreator<?>> suppliers = new ConcurrentHashMap<>();
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
 
     public CreatorStreamFactory(Iterable<IdentifiedStreamCreator<?>> identifiedCreators) {
         requireNonNull(identifiedCreators, "identifiedStreamCreators must not be null.");
@@ -68,6 +71,11 @@ public class CreatorStreamFactory implements CreatorProvidingService, StreamFact
         return ErrorStreamPair.ofData((Flowable<T>) streamCreator.createWith(discoveryService));
     }
 
+    @Override
+    public boolean canCreate(StreamId<?> id) {
+        return suppliers.containsKey(id);
+    }
+
     @Override
     public <T> void provide(StreamId<T> id, StreamCreator<T> streamSupplier) {
         requireNonNull(id, "id must not be null!");
@@ -77,6 +85,12 @@ public class CreatorStreamFactory implements CreatorProvidingService, StreamFact
         if (existingCreator != null) {
             throw new IllegalArgumentException("Id " + id + " already registered! Cannot register twice.");
         }
+        changeListeners.forEach(Runnable::run);
+    }
+
+    @Override
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(requireNonNull(listener, "listener must not be null"));
     }
 
     private <T> void register(IdentifiedStreamCreator<T> identifiedCreator) {
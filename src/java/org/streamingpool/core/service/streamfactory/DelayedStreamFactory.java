@@ -26,6 +26,8 @@ import static io.reactivex.Flowable.fromPublisher;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
 
 import org.streamingpool.core.domain.ErrorStreamPair;
 import org.streamingpool.core.service.DiscoveryService;
@@ -52,4 +54,9 @@ public class DelayedStreamFactory implements StreamFactory {
         return ErrorStreamPair.ofData(fromPublisher(discoveryService.discover(target)).delay(delay.toMillis(), MILLISECONDS));
     }
 
+    @Override
+    public Set<Class<?>> streamIdClasses() {
+        return Collections.singleton(DelayedStreamId.class);
+    }
+
 }
@@ -22,17 +22,21 @@
 
 package org.streamingpool.core.service.streamfactory;
 
-import java.util.function.Function;
+import java.util.Collections;
+import java.util.Set;
 
-import org.streamingpool.core.domain.ErrorDeflector;
 import org.streamingpool.core.domain.ErrorStreamPair;
 import org.streamingpool.core.service.DiscoveryService;
 import org.streamingpool.core.service.StreamFactory;
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.streamid.DerivedStreamId;
 
-import io.reactivex.Flowable;
-
+/**
+ * {@link StreamFactory} for the {@link DerivedStreamId}. Chains of derived and filtered ids are created as one fused
+ * stage, as long as their intermediate ids are not present in the pool.
+ *
+ * @see DerivedStreamId
+ */
 public class DerivedStreamFactory implements StreamFactory {
 
     @Override
@@ -40,17 +44,12 @@ public class DerivedStreamFactory implements StreamFactory {
         if (!(id instanceof DerivedStreamId)) {
             return ErrorStreamPair.empty();
         }
-        @SuppressWarnings("unchecked")
-        DerivedStreamId<?, T> derivedStreamId = (DerivedStreamId<?, T>) id;
-        return createDerivedStream(derivedStreamId, discoveryService);
+        return MapFilterChain.create(id, discoveryService);
     }
 
-    private <S, T> ErrorStreamPair<T> createDerivedStream(DerivedStreamId<S, T> id, DiscoveryService discoveryService) {
-        Flowable<S> sourceStream = Flowable.fromPublisher(discoveryService.discover(id.sourceStreamId()));
-        Function<S, T> conversion = id.conversion();
-
-        ErrorDeflector ed = ErrorDeflector.create();
-        return ed.streamNonEmpty(sourceStream.map(ed.emptyOnException(conversion)));
+    @Override
+    public Set<Class<?>> streamIdClasses() {
+        return Collections.singleton(DerivedStreamId.class);
     }
 
 }
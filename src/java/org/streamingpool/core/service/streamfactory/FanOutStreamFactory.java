@@ -1,5 +1,8 @@
 package org.streamingpool.core.service.streamfactory;
 
+import java.util.Collections;
+import java.util.Set;
+
 import io.reactivex.Flowable;
 import org.streamingpool.core.domain.ErrorDeflector;
 import org.streamingpool.core.domain.ErrorStreamPair;
@@ -23,4 +26,9 @@ public class FanOutStreamFactory implements StreamFactory {
         Flowable<T> targetStream = Flowable.fromPublisher(discoveryService.discover(fanOutId.target())).share();
         return ed.stream(targetStream);
     }
+
+    @Override
+    public Set<Class<?>> streamIdClasses() {
+        return Collections.singleton(FanOutStreamId.class);
+    }
 }
@@ -22,19 +22,18 @@
 
 package org.streamingpool.core.service.streamfactory;
 
-import java.util.function.Predicate;
+import java.util.Collections;
+import java.util.Set;
 
-import org.streamingpool.core.domain.ErrorDeflector;
 import org.streamingpool.core.domain.ErrorStreamPair;
 import org.streamingpool.core.service.DiscoveryService;
 import org.streamingpool.core.service.StreamFactory;
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.streamid.FilteredStreamId;
 
-import io.reactivex.Flowable;
-
 /**
- * {@link StreamFactory} for the {@link FilteredStreamId}
+ * {@link StreamFactory} for the {@link FilteredStreamId}. Chains of derived and filtered ids are created as one fused
+ * stage, as long as their intermediate ids are not present in the pool.
  *
  * @see FilteredStreamId
  * @author acalia
@@ -46,13 +45,12 @@ public class FilteredStreamFactory implements StreamFactory {
         if (!(id instanceof FilteredStreamId)) {
             return ErrorStreamPair.empty();
         }
-        FilteredStreamId<T> filteredId = (FilteredStreamId<T>) id;
-
-        StreamId<T> source = filteredId.sourceStreamId();
-        Predicate<T> predicate = filteredId.predicate();
+        return MapFilterChain.create(id, discoveryService);
+    }
 
-        ErrorDeflector ed = ErrorDeflector.create();
-        return ed.stream(Flowable.fromPublisher(discoveryService.discover(source)).filter(ed.falseOnException(predicate)));
+    @Override
+    public Set<Class<?>> streamIdClasses() {
+        return Collections.singleton(FilteredStreamId.class);
     }
 
 }
@@ -20,7 +20,9 @@
 
 package org.streamingpool.core.service.streamfactory;
 
+import java.util.Collections;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -50,6 +52,11 @@ public class FlattenedStreamFactory implements StreamFactory {
         return createFlattenedStream(flattenedStreamId, discoveryService);
     }
 
+    @Override
+    public Set<Class<?>> streamIdClasses() {
+        return Collections.singleton(FlattenedStreamId.class);
+    }
+
     private <T> ErrorStreamPair<T> createFlattenedStream(FlattenedStreamId<T> id, DiscoveryService discoveryService) {
         Flowable<Iterable<? extends T>> sourceStream = Flowable.fromPublisher(discoveryService.discover(id.sourceStreamId()));
 
@@ -0,0 +1,47 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.streamfactory;
+
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+
+/**
+ * Implemented by the {@link DiscoveryService}s which a pool passes to its factories, so that the factories of this
+ * package can fuse chains of ids into one stage (see {@link DerivedStreamFactory}, {@link FilteredStreamFactory} and
+ * {@link PrimitiveStreamFactory}). This is a contract between the pool and these factories, not part of the client
+ * API: a discovery service not implementing it makes them discover every upstream id.
+ */
+public interface FusionSupport {
+
+    /**
+     * Tells whether the stream with the given id would be created by a factory of exactly the given class if it was
+     * discovered now: it is not present in the pool yet and the first factory which can create it (see
+     * {@link StreamFactory#canCreate(StreamId)}) is of this class.
+     *
+     * @param id the identifier of the stream
+     * @param factoryClass the class of the factory
+     * @return {@code true} if the stream would be created by a factory of the given class, {@code false} otherwise
+     */
+    boolean wouldBeCreatedBy(StreamId<?> id, Class<? extends StreamFactory> factoryClass);
+
+}
@@ -4,6 +4,9 @@
 
 package org.streamingpool.core.service.streamfactory;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.reactivestreams.Publisher;
 import org.streamingpool.core.domain.ErrorDeflector;
 import org.streamingpool.core.domain.ErrorStreamPair;
@@ -32,4 +35,9 @@ public class IntervalStreamFactory implements StreamFactory {
         return ed.stream((Publisher<T>) dataPublisher);
     }
 
+    @Override
+    public Set<Class<?>> streamIdClasses() {
+        return Collections.singleton(IntervalStreamId.class);
+    }
+
 }
@@ -0,0 +1,168 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.streamingpool.core.domain.ErrorDeflector;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.FilteredStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Creates the streams of chains of {@link DerivedStreamId}s and {@link FilteredStreamId}s as one fused stage: the
+ * chain is followed down (from the created id towards its sources) as long as the upstream ids are derived or filtered
+ * ids which would be created by the {@link DerivedStreamFactory} or {@link FilteredStreamFactory} (see
+ * {@link FusionSupport}): they are not yet present in the pool and no other factory which can create them, e.g. an
+ * intercept, is asked first for them. Only the first other upstream id is discovered, and all the
+ * conversions and predicates in between are applied by one single function with one error stream. The skipped
+ * intermediate ids are created on their own only if they are discovered directly.
+ * <p>
+ * The conversions and predicates are expected to be free of side effects, as the items of an intermediate id may be
+ * computed by several fused chains.
+ */
+final class MapFilterChain {
+
+    /** Marks an item which was filtered out or for which a conversion failed */
+    private static final Object DROPPED = new Object();
+
+    private MapFilterChain() {
+        /* only static methods */
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+        List<Function<Object, Object>> stages = new ArrayList<>();
+        StreamId<?> upstreamId = id;
+        do {
+            stages.add(stageOf(upstreamId));
+            upstreamId = sourceOf(upstreamId);
+        } while (isFusable(upstreamId, discoveryService));
+        Collections.reverse(stages);
+
+        Flowable<Object> upstream = Flowable.fromPublisher(discoveryService.discover((StreamId<Object>) upstreamId));
+        ErrorDeflector ed = ErrorDeflector.create();
+        Flowable<Object> fused = upstream.map(item -> applyAll(stages, item, ed)).filter(MapFilterChain::isKept);
+        return ed.stream((Flowable<T>) fused);
+    }
+
+    private static boolean isFusable(StreamId<?> id, DiscoveryService discoveryService) {
+        return (id instanceof DerivedStreamId || id instanceof FilteredStreamId)
+                && wouldBeCreatedBy(id, factoryClassOf(id), discoveryService);
+    }
+
+    /**
+     * @return {@code true} if the given discovery service supports the fusion and tells that the given id would be
+     *         created by a factory of the given class
+     */
+    static boolean wouldBeCreatedBy(StreamId<?> id, Class<? extends StreamFactory> factoryClass,
+            DiscoveryService discoveryService) {
+        return discoveryService instanceof FusionSupport
+                && ((FusionSupport) discoveryService).wouldBeCreatedBy(id, factoryClass);
+    }
+
+    private static Class<? extends StreamFactory> factoryClassOf(StreamId<?> id) {
+        if (id instanceof DerivedStreamId) {
+            return DerivedStreamFactory.class;
+        }
+        return FilteredStreamFactory.class;
+    }
+
+    private static Object applyAll(List<Function<Object, Object>> stages, Object item, ErrorDeflector ed) {
+        Object result = item;
+        for (Function<Object, Object> stage : stages) {
+            result = ed.deflectExceptions(stage, result, DROPPED);
+            if (result == DROPPED) {
+                return DROPPED;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isKept(Object item) {
+        return item != DROPPED;
+    }
+
+    private static StreamId<?> sourceOf(StreamId<?> id) {
+        if (id instanceof DerivedStreamId) {
+            return ((DerivedStreamId<?, ?>) id).sourceStreamId();
+        }
+        return ((FilteredStreamId<?>) id).sourceStreamId();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> stageOf(StreamId<?> id) {
+        if (id instanceof DerivedStreamId) {
+            return new Conversion(((DerivedStreamId<Object, Object>) id).conversion());
+        }
+        return new Filter(((FilteredStreamId<Object>) id).predicate());
+    }
+
+    private static final class Conversion implements Function<Object, Object> {
+        private final Function<Object, Object> conversion;
+
+        Conversion(Function<Object, Object> conversion) {
+            this.conversion = conversion;
+        }
+
+        @Override
+        public Object apply(Object item) {
+            return requireNonNull(conversion.apply(item), "conversion returned null");
+        }
+
+        @Override
+        public String toString() {
+            return conversion.toString();
+        }
+    }
+
+    private static final class Filter implements Function<Object, Object> {
+        private final Predicate<Object> predicate;
+
+        Filter(Predicate<Object> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public Object apply(Object item) {
+            return predicate.test(item) ? item : DROPPED;
+        }
+
+        @Override
+        public String toString() {
+            return predicate.toString();
+        }
+    }
+
+}
@@ -22,6 +22,7 @@
 
 package org.streamingpool.core.service.streamfactory;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -83,6 +84,11 @@ public class OverlapBufferStreamFactory implements StreamFactory {
         return ErrorStreamPair.ofData((Publisher<T>) bufferStream);
     }
 
+    @Override
+    public Set<Class<?>> streamIdClasses() {
+        return Collections.singleton(OverlapBufferStreamId.class);
+    }
+
     private Flowable<?> closingStreamFor(Object opening,
             Map<EndStreamMatcher<Object, Object>, ConnectableFlowable<?>> endStreams, Flowable<?> timeout,
             StreamConnector sourceStreamConnector) {
@@ -0,0 +1,245 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+import org.streamingpool.core.domain.ErrorDeflector;
+import org.streamingpool.core.domain.ErrorStreamException;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.DoubleDerivedStreamId;
+import org.streamingpool.core.service.streamid.DoubleFilteredStreamId;
+import org.streamingpool.core.service.streamid.LongDerivedStreamId;
+import org.streamingpool.core.service.streamid.LongFilteredStreamId;
+
+import com.google.common.collect.ImmutableSet;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+
+/**
+ * {@link StreamFactory} for the primitive specializations of the derived and filtered ids
+ * ({@link DoubleDerivedStreamId}, {@link DoubleFilteredStreamId}, {@link LongDerivedStreamId} and
+ * {@link LongFilteredStreamId}).
+ * <p>
+ * As for the boxed ids (see {@link DerivedStreamFactory}), a chain of such ids is created as one fused stage, as long
+ * as its intermediate ids would be created by this factory (see {@link FusionSupport}): they are not yet present in the
+ * pool and no other factory which can create them, e.g. an intercept, is asked first for them. Within the stage, the
+ * values are passed from one operator to the next as primitives: they are unboxed once when entering the chain and
+ * boxed once when leaving it. (The streams themselves are {@link org.reactivestreams.Publisher}s, which can only carry
+ * objects.)
+ */
+public class PrimitiveStreamFactory implements StreamFactory {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+        if (isDoubleStage(id)) {
+            return (ErrorStreamPair<T>) createDoubleChain((StreamId<Double>) id, discoveryService);
+        }
+        if (isLongStage(id)) {
+            return (ErrorStreamPair<T>) createLongChain((StreamId<Long>) id, discoveryService);
+        }
+        return ErrorStreamPair.empty();
+    }
+
+    @Override
+    public Set<Class<?>> streamIdClasses() {
+        return ImmutableSet.of(DoubleDerivedStreamId.class, DoubleFilteredStreamId.class, LongDerivedStreamId.class,
+                LongFilteredStreamId.class);
+    }
+
+    private static ErrorStreamPair<Double> createDoubleChain(StreamId<Double> id, DiscoveryService discoveryService) {
+        Deque<StreamId<Double>> stages = new ArrayDeque<>();
+        StreamId<Double> upstreamId = id;
+        do {
+            stages.addFirst(upstreamId);
+            upstreamId = doubleSourceOf(upstreamId);
+        } while (isDoubleStage(upstreamId) && isFusable(upstreamId, discoveryService));
+
+        ErrorDeflector ed = ErrorDeflector.create();
+        DoubleChain chain = new DoubleChain(stages, ed);
+        return ed.stream(Flowable.fromPublisher(discoveryService.discover(upstreamId)).map(chain)
+                .filter(DoubleChain::isKept));
+    }
+
+    private static ErrorStreamPair<Long> createLongChain(StreamId<Long> id, DiscoveryService discoveryService) {
+        Deque<StreamId<Long>> stages = new ArrayDeque<>();
+        StreamId<Long> upstreamId = id;
+        do {
+            stages.addFirst(upstreamId);
+            upstreamId = longSourceOf(upstreamId);
+        } while (isLongStage(upstreamId) && isFusable(upstreamId, discoveryService));
+
+        ErrorDeflector ed = ErrorDeflector.create();
+        LongChain chain = new LongChain(stages, ed);
+        return ed.stream(Flowable.fromPublisher(discoveryService.discover(upstreamId)).map(chain)
+                .filter(LongChain::isKept));
+    }
+
+    private static boolean isFusable(StreamId<?> id, DiscoveryService discoveryService) {
+        return MapFilterChain.wouldBeCreatedBy(id, PrimitiveStreamFactory.class, discoveryService);
+    }
+
+    private static boolean isDoubleStage(StreamId<?> id) {
+        return id instanceof DoubleDerivedStreamId || id instanceof DoubleFilteredStreamId;
+    }
+
+    private static boolean isLongStage(StreamId<?> id) {
+        return id instanceof LongDerivedStreamId || id instanceof LongFilteredStreamId;
+    }
+
+    private static StreamId<Double> doubleSourceOf(StreamId<Double> id) {
+        if (id instanceof DoubleDerivedStreamId) {
+            return ((DoubleDerivedStreamId) id).sourceStreamId();
+        }
+        return ((DoubleFilteredStreamId) id).sourceStreamId();
+    }
+
+    private static StreamId<Long> longSourceOf(StreamId<Long> id) {
+        if (id instanceof LongDerivedStreamId) {
+            return ((LongDerivedStreamId) id).sourceStreamId();
+        }
+        return ((LongFilteredStreamId) id).sourceStreamId();
+    }
+
+    private static ErrorStreamException stageError(Object operation, Object incoming, Exception cause) {
+        return new ErrorStreamException("Error in operation " + operation + ". Incoming value: " + incoming, cause);
+    }
+
+    /**
+     * The fused operators of a chain of double ids. Each stage is either a conversion or a predicate (the other one
+     * being {@code null}).
+     */
+    private static final class DoubleChain implements Function<Double, Double> {
+
+        /** A distinct instance (never returned by {@link Double#valueOf(double)}) marking the dropped items */
+        @SuppressWarnings("deprecation")
+        private static final Double DROPPED = new Double(Double.NaN);
+
+        private final DoubleUnaryOperator[] conversions;
+        private final DoublePredicate[] predicates;
+        private final ErrorDeflector ed;
+
+        DoubleChain(Deque<StreamId<Double>> stages, ErrorDeflector ed) {
+            this.conversions = new DoubleUnaryOperator[stages.size()];
+            this.predicates = new DoublePredicate[stages.size()];
+            this.ed = ed;
+            int index = 0;
+            for (StreamId<Double> stage : stages) {
+                if (stage instanceof DoubleDerivedStreamId) {
+                    conversions[index] = ((DoubleDerivedStreamId) stage).conversion();
+                } else {
+                    predicates[index] = ((DoubleFilteredStreamId) stage).predicate();
+                }
+                index++;
+            }
+        }
+
+        @Override
+        public Double apply(Double item) {
+            double value = item;
+            for (int stage = 0; stage < conversions.length; stage++) {
+                try {
+                    if (conversions[stage] != null) {
+                        value = conversions[stage].applyAsDouble(value);
+                    } else if (!predicates[stage].test(value)) {
+                        return DROPPED;
+                    }
+                } catch (Exception e) {
+                    Object operation = conversions[stage] != null ? conversions[stage] : predicates[stage];
+                    ed.publishException(stageError(operation, value, e));
+                    return DROPPED;
+                }
+            }
+            return value;
+        }
+
+        static boolean isKept(Double item) {
+            return item != DROPPED;
+        }
+    }
+
+    /**
+     * The fused operators of a chain of long ids. Each stage is either a conversion or a predicate (the other one being
+     * {@code null}).
+     */
+    private static final class LongChain implements Function<Long, Long> {
+
+        /** A distinct instance (not one of the cached ones of {@link Long#valueOf(long)}) marking the dropped items */
+        @SuppressWarnings("deprecation")
+        private static final Long DROPPED = new Long(0);
+
+        private final LongUnaryOperator[] conversions;
+        private final LongPredicate[] predicates;
+        private final ErrorDeflector ed;
+
+        LongChain(Deque<StreamId<Long>> stages, ErrorDeflector ed) {
+            this.conversions = new LongUnaryOperator[stages.size()];
+            this.predicates = new LongPredicate[stages.size()];
+            this.ed = ed;
+            int index = 0;
+            for (StreamId<Long> stage : stages) {
+                if (stage instanceof LongDerivedStreamId) {
+                    conversions[index] = ((LongDerivedStreamId) stage).conversion();
+                } else {
+                    predicates[index] = ((LongFilteredStreamId) stage).predicate();
+                }
+                index++;
+            }
+        }
+
+        @Override
+        public Long apply(Long item) {
+            long value = item;
+            for (int stage = 0; stage < conversions.length; stage++) {
+                try {
+                    if (conversions[stage] != null) {
+                        value = conversions[stage].applyAsLong(value);
+                    } else if (!predicates[stage].test(value)) {
+                        return DROPPED;
+                    }
+                } catch (Exception e) {
+                    Object operation = conversions[stage] != null ? conversions[stage] : predicates[stage];
+                    ed.publishException(stageError(operation, value, e));
+                    return DROPPED;
+                }
+            }
+            return value;
+        }
+
+        static boolean isKept(Long item) {
+            return item != DROPPED;
+        }
+    }
+
+}
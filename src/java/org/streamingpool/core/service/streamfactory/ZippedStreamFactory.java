@@ -35,6 +35,11 @@ public class ZippedStreamFactory implements StreamFactory {
         return createStream(zippedId, discoveryService);
     }
 
+    @Override
+    public Set<Class<?>> streamIdClasses() {
+        return Collections.singleton(ZippedStreamId.class);
+    }
+
     private <S1, S2, T> ErrorStreamPair<T> createStream(ZippedStreamId<S1, S2,  T> id, DiscoveryService discoveryService) {
 
         Publisher<S1> publisher1 = discoveryService.discover(id.sourceStreamId1());
@@ -0,0 +1,82 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import org.streamingpool.core.service.StreamId;
+
+/**
+ * Base class for stream ids which are composed of other stream ids (and functions). The hash code of such ids is
+ * computed recursively over the whole id tree, which becomes expensive for deeply nested ids that are looked up in the
+ * pool over and over again. Therefore it is computed only once (lazily, on first use) and then cached.
+ * <p>
+ * Subclasses provide the actual hash code in {@link #computeHashCode()}, return {@link #cachedHashCode()} from
+ * {@link #hashCode()} and are expected to be immutable. Their {@code equals()} implementation should compare the
+ * (cheap) hash codes before going into the structural comparison.
+ *
+ * @see StreamIdInterner
+ * @param <T> the type of the data the stream will provide
+ */
+public abstract class AbstractCompositeStreamId<T> implements StreamId<T> {
+    private static final long serialVersionUID = 1L;
+
+    /* 0 means 'not yet computed', like for String. Not serialized, as the hash codes of the parts might differ in
+     * another VM */
+    private transient int hash;
+
+    /**
+     * Computes the hash code of this id from its parts. As the result is cached, this is called only once per instance
+     * (or very few times, in case of concurrent first use).
+     *
+     * @return the hash code of this id
+     */
+    protected abstract int computeHashCode();
+
+    /**
+     * Returns the hash code as computed by {@link #computeHashCode()}, computing it only on first use.
+     *
+     * @return the (cached) hash code of this id
+     */
+    protected final int cachedHashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = computeHashCode();
+            hash = result;
+        }
+        return result;
+    }
+
+    /* Redeclared, so that all the ids are forced to implement them (see TransportableEntitiesFulfillContractTest) */
+
+    /**
+     * Shall return {@link #cachedHashCode()}.
+     */
+    @Override
+    public abstract int hashCode();
+
+    @Override
+    public abstract boolean equals(Object obj);
+
+    @Override
+    public abstract String toString();
+
+}
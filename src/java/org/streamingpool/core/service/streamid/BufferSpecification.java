@@ -34,20 +34,27 @@ import java.util.function.BiPredicate;
 
 import org.streamingpool.core.service.StreamId;
 
+import com.google.common.collect.ImmutableSet;
+
 import io.reactivex.Flowable;
 
 public class BufferSpecification {
 
-    private StreamId<?> startId;
-    private Set<EndStreamMatcher<?, ?>> endStreamMatchers;
-    private Flowable<?> timeout;
+    private final StreamId<?> startId;
+    private final Set<EndStreamMatcher<?, ?>> endStreamMatchers;
+    private final Flowable<?> timeout;
+
+    /* lazily computed, as the hash of the start id can be expensive (see AbstractCompositeStreamId) */
+    private int hash;
 
     private static final Duration NO_TIMEOUT = Duration.ofSeconds(-1);
 
     private BufferSpecification(StreamId<?> startStreamId, Set<EndStreamMatcher<?, ?>> endStreamMatchers,
             Flowable<?> timeout) {
         this.startId = requireNonNull(startStreamId, "startStreamId must not be null.");
-        this.endStreamMatchers = requireNonNull(endStreamMatchers, "endStreamId must not be null.");
+        /* Copied, so that the cached hash code cannot be invalidated by changes of the given set */
+        this.endStreamMatchers = ImmutableSet
+                .copyOf(requireNonNull(endStreamMatchers, "endStreamId must not be null."));
         this.timeout = requireNonNull(timeout, "timeout must not be null");
     }
 
@@ -120,6 +127,15 @@ public class BufferSpecification {
 
     @Override
     public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = computeHashCode();
+            hash = result;
+        }
+        return result;
+    }
+
+    private int computeHashCode() {
         final int prime = 31;
         int result = 1;
         result = prime * result + ((endStreamMatchers == null) ? 0 : endStreamMatchers.hashCode());
@@ -139,6 +155,9 @@ public class BufferSpecification {
         if (getClass() != obj.getClass()) {
             return false;
         }
+        if (hashCode() != obj.hashCode()) {
+            return false;
+        }
         BufferSpecification other = (BufferSpecification) obj;
         if (endStreamMatchers == null) {
             if (other.endStreamMatchers != null) {
@@ -41,7 +41,7 @@ import org.streamingpool.core.service.streamfactory.CombineWithLatestStreamFacto
  * @param <D> Type of the original data stream
  * @param <R> Type of the returned value (= type of the resulting stream)
  */
-public class CombineWithLatestStreamId<T, D, R> implements StreamId<R>, Serializable {
+public class CombineWithLatestStreamId<T, D, R> extends AbstractCompositeStreamId<R> implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final StreamId<T> trigger;
@@ -76,7 +76,12 @@ public class CombineWithLatestStreamId<T, D, R> implements StreamId<R>, Serializ
     }
 
     @Override
-    public int hashCode() {
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
         final int prime = 31;
         int result = 1;
         result = prime * result + ((data == null) ? 0 : data.hashCode());
@@ -95,6 +100,9 @@ public class CombineWithLatestStreamId<T, D, R> implements StreamId<R>, Serializ
         if (getClass() != obj.getClass()) {
             return false;
         }
+        if (hashCode() != obj.hashCode()) {
+            return false;
+        }
         CombineWithLatestStreamId<?, ?, ?> other = (CombineWithLatestStreamId<?, ?, ?>) obj;
         if (data == null) {
             if (other.data != null) {
@@ -37,7 +37,7 @@ import org.streamingpool.core.service.streamfactory.DelayedStreamFactory;
  * @author acalia
  * @param <T> type of the original data stream
  */
-public class DelayedStreamId<T> implements StreamId<T>, Serializable {
+public class DelayedStreamId<T> extends AbstractCompositeStreamId<T> implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final StreamId<T> target;
@@ -61,7 +61,12 @@ public class DelayedStreamId<T> implements StreamId<T>, Serializable {
     }
 
     @Override
-    public int hashCode() {
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
         final int prime = 31;
         int result = 1;
         result = prime * result + ((delay == null) ? 0 : delay.hashCode());
@@ -80,6 +85,9 @@ public class DelayedStreamId<T> implements StreamId<T>, Serializable {
         if (getClass() != obj.getClass()) {
             return false;
         }
+        if (hashCode() != obj.hashCode()) {
+            return false;
+        }
         DelayedStreamId<?> other = (DelayedStreamId<?>) obj;
         if (delay == null) {
             if (other.delay != null) {
@@ -39,7 +39,7 @@ import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
  * @param <S> the type of the source stream
  * @param <T> the type of the final stream
  */
-public class DerivedStreamId<S, T> implements StreamId<T>, Serializable {
+public class DerivedStreamId<S, T> extends AbstractCompositeStreamId<T> implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final StreamId<S> sourceStreamId;
@@ -63,7 +63,12 @@ public class DerivedStreamId<S, T> implements StreamId<T>, Serializable {
     }
 
     @Override
-    public int hashCode() {
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
         final int prime = 31;
         int result = 1;
         result = prime * result + ((conversion == null) ? 0 : conversion.hashCode());
@@ -82,6 +87,9 @@ public class DerivedStreamId<S, T> implements StreamId<T>, Serializable {
         if (getClass() != obj.getClass()) {
             return false;
         }
+        if (hashCode() != obj.hashCode()) {
+            return false;
+        }
         DerivedStreamId<?, ?> other = (DerivedStreamId<?, ?>) obj;
         if (conversion == null) {
             if (other.conversion != null) {
@@ -0,0 +1,93 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.PrimitiveStreamFactory;
+
+/**
+ * Like {@link DerivedStreamId}, but for streams of {@code double} values converted by a {@link DoubleUnaryOperator}, so
+ * that the conversion does not box the values. Chains of such ids (and of {@link DoubleFilteredStreamId}s) unbox the
+ * values only once at their start and box them once at their end.
+ *
+ * @see PrimitiveStreamFactory
+ */
+public class DoubleDerivedStreamId extends AbstractCompositeStreamId<Double> {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<Double> sourceStreamId;
+    private final DoubleUnaryOperator conversion;
+
+    private DoubleDerivedStreamId(StreamId<Double> sourceStreamId, DoubleUnaryOperator conversion) {
+        this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
+        this.conversion = requireNonNull(conversion, "conversion must not be null");
+    }
+
+    public static DoubleDerivedStreamId deriveDouble(StreamId<Double> sourceStreamId, DoubleUnaryOperator conversion) {
+        return new DoubleDerivedStreamId(sourceStreamId, conversion);
+    }
+
+    public StreamId<Double> sourceStreamId() {
+        return sourceStreamId;
+    }
+
+    public DoubleUnaryOperator conversion() {
+        return conversion;
+    }
+
+    @Override
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
+        return Objects.hash(sourceStreamId, conversion);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        if (hashCode() != obj.hashCode()) {
+            return false;
+        }
+        DoubleDerivedStreamId other = (DoubleDerivedStreamId) obj;
+        return sourceStreamId.equals(other.sourceStreamId) && conversion.equals(other.conversion);
+    }
+
+    @Override
+    public String toString() {
+        return "DoubleDerivedStreamId [sourceStreamId=" + sourceStreamId + ", conversion=" + conversion + "]";
+    }
+
+}
@@ -0,0 +1,92 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+import java.util.function.DoublePredicate;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.PrimitiveStreamFactory;
+
+/**
+ * Like {@link FilteredStreamId}, but for streams of {@code double} values filtered by a {@link DoublePredicate}, so
+ * that the filtering does not box the values (see {@link DoubleDerivedStreamId}).
+ *
+ * @see PrimitiveStreamFactory
+ */
+public class DoubleFilteredStreamId extends AbstractCompositeStreamId<Double> {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<Double> sourceStreamId;
+    private final DoublePredicate predicate;
+
+    private DoubleFilteredStreamId(StreamId<Double> sourceStreamId, DoublePredicate predicate) {
+        this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
+        this.predicate = requireNonNull(predicate, "predicate must not be null");
+    }
+
+    public static DoubleFilteredStreamId filterDouble(StreamId<Double> sourceStreamId, DoublePredicate predicate) {
+        return new DoubleFilteredStreamId(sourceStreamId, predicate);
+    }
+
+    public StreamId<Double> sourceStreamId() {
+        return sourceStreamId;
+    }
+
+    public DoublePredicate predicate() {
+        return predicate;
+    }
+
+    @Override
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
+        return Objects.hash(sourceStreamId, predicate);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        if (hashCode() != obj.hashCode()) {
+            return false;
+        }
+        DoubleFilteredStreamId other = (DoubleFilteredStreamId) obj;
+        return sourceStreamId.equals(other.sourceStreamId) && predicate.equals(other.predicate);
+    }
+
+    @Override
+    public String toString() {
+        return "DoubleFilteredStreamId [sourceStreamId=" + sourceStreamId + ", predicate=" + predicate + "]";
+    }
+
+}
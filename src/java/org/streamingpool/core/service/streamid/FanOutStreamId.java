@@ -9,7 +9,7 @@ import org.streamingpool.core.domain.backpressure.BackpressureAware;
 import org.streamingpool.core.domain.backpressure.BackpressureStrategy;
 import org.streamingpool.core.service.StreamId;
 
-public class FanOutStreamId<T> implements StreamId<T>, BackpressureAware {
+public class FanOutStreamId<T> extends AbstractCompositeStreamId<T> implements BackpressureAware {
     private static final long serialVersionUID = 1L;
 
     private final StreamId<T> target;
@@ -42,13 +42,20 @@ public class FanOutStreamId<T> implements StreamId<T>, BackpressureAware {
             return true;
         if (o == null || getClass() != o.getClass())
             return false;
+        if (hashCode() != o.hashCode())
+            return false;
         FanOutStreamId<?> that = (FanOutStreamId<?>) o;
         return Objects.equals(target, that.target) &&
                 Objects.equals(backpressureStrategy, that.backpressureStrategy);
     }
 
     @Override
-    public int hashCode() {
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
         return Objects.hash(target, backpressureStrategy);
     }
 
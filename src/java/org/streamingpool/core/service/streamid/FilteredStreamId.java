@@ -37,7 +37,7 @@ import org.streamingpool.core.service.streamfactory.FilteredStreamFactory;
  * @see FilteredStreamFactory
  * @param <T> the type of the data items
  */
-public class FilteredStreamId<T> implements StreamId<T>, Serializable {
+public class FilteredStreamId<T> extends AbstractCompositeStreamId<T> implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final StreamId<T> sourceStreamId;
@@ -66,7 +66,12 @@ public class FilteredStreamId<T> implements StreamId<T>, Serializable {
     }
 
     @Override
-    public int hashCode() {
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
         final int prime = 31;
         int result = 1;
         result = prime * result + ((predicate == null) ? 0 : predicate.hashCode());
@@ -82,6 +87,8 @@ public class FilteredStreamId<T> implements StreamId<T>, Serializable {
             return false;
         if (getClass() != obj.getClass())
             return false;
+        if (hashCode() != obj.hashCode())
+            return false;
         FilteredStreamId<?> other = (FilteredStreamId<?>) obj;
         if (predicate == null) {
             if (other.predicate != null)
@@ -33,7 +33,7 @@ import static java.util.Objects.requireNonNull;
  * @author timartin
  * @see FlattenedStreamFactory
  */
-public class FlattenedStreamId<T> implements StreamId<T> {
+public class FlattenedStreamId<T> extends AbstractCompositeStreamId<T> {
     private static final long serialVersionUID = 1L;
 
     private final StreamId<Iterable<? extends T>> sourceStreamId;
@@ -51,7 +51,12 @@ public class FlattenedStreamId<T> implements StreamId<T> {
     }
 
     @Override
-    public int hashCode() {
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
         final int prime = 31;
         int result = 1;
         result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
@@ -69,6 +74,9 @@ public class FlattenedStreamId<T> implements StreamId<T> {
         if (getClass() != obj.getClass()) {
             return false;
         }
+        if (hashCode() != obj.hashCode()) {
+            return false;
+        }
         FlattenedStreamId<?> other = (FlattenedStreamId<?>) obj;
         if (sourceStreamId == null) {
             if (other.sourceStreamId != null) {
@@ -0,0 +1,93 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+import java.util.function.LongUnaryOperator;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.PrimitiveStreamFactory;
+
+/**
+ * Like {@link DerivedStreamId}, but for streams of {@code long} values converted by a {@link LongUnaryOperator}, so
+ * that the conversion does not box the values. Chains of such ids (and of {@link LongFilteredStreamId}s) unbox the
+ * values only once at their start and box them once at their end.
+ *
+ * @see PrimitiveStreamFactory
+ */
+public class LongDerivedStreamId extends AbstractCompositeStreamId<Long> {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<Long> sourceStreamId;
+    private final LongUnaryOperator conversion;
+
+    private LongDerivedStreamId(StreamId<Long> sourceStreamId, LongUnaryOperator conversion) {
+        this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
+        this.conversion = requireNonNull(conversion, "conversion must not be null");
+    }
+
+    public static LongDerivedStreamId deriveLong(StreamId<Long> sourceStreamId, LongUnaryOperator conversion) {
+        return new LongDerivedStreamId(sourceStreamId, conversion);
+    }
+
+    public StreamId<Long> sourceStreamId() {
+        return sourceStreamId;
+    }
+
+    public LongUnaryOperator conversion() {
+        return conversion;
+    }
+
+    @Override
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
+        return Objects.hash(sourceStreamId, conversion);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        if (hashCode() != obj.hashCode()) {
+            return false;
+        }
+        LongDerivedStreamId other = (LongDerivedStreamId) obj;
+        return sourceStreamId.equals(other.sourceStreamId) && conversion.equals(other.conversion);
+    }
+
+    @Override
+    public String toString() {
+        return "LongDerivedStreamId [sourceStreamId=" + sourceStreamId + ", conversion=" + conversion + "]";
+    }
+
+}
@@ -0,0 +1,92 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+import java.util.function.LongPredicate;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.PrimitiveStreamFactory;
+
+/**
+ * Like {@link FilteredStreamId}, but for streams of {@code long} values filtered by a {@link LongPredicate}, so that
+ * the filtering does not box the values (see {@link LongDerivedStreamId}).
+ *
+ * @see PrimitiveStreamFactory
+ */
+public class LongFilteredStreamId extends AbstractCompositeStreamId<Long> {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<Long> sourceStreamId;
+    private final LongPredicate predicate;
+
+    private LongFilteredStreamId(StreamId<Long> sourceStreamId, LongPredicate predicate) {
+        this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
+        this.predicate = requireNonNull(predicate, "predicate must not be null");
+    }
+
+    public static LongFilteredStreamId filterLong(StreamId<Long> sourceStreamId, LongPredicate predicate) {
+        return new LongFilteredStreamId(sourceStreamId, predicate);
+    }
+
+    public StreamId<Long> sourceStreamId() {
+        return sourceStreamId;
+    }
+
+    public LongPredicate predicate() {
+        return predicate;
+    }
+
+    @Override
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
+        return Objects.hash(sourceStreamId, predicate);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        if (hashCode() != obj.hashCode()) {
+            return false;
+        }
+        LongFilteredStreamId other = (LongFilteredStreamId) obj;
+        return sourceStreamId.equals(other.sourceStreamId) && predicate.equals(other.predicate);
+    }
+
+    @Override
+    public String toString() {
+        return "LongFilteredStreamId [sourceStreamId=" + sourceStreamId + ", predicate=" + predicate + "]";
+    }
+
+}
@@ -42,7 +42,7 @@ import org.streamingpool.core.service.streamfactory.OverlapBufferStreamFactory;
  * @author acalia
  * @param <T> the type of the data stream
  */
-public class OverlapBufferStreamId<T> implements StreamId<List<T>>, Serializable {
+public class OverlapBufferStreamId<T> extends AbstractCompositeStreamId<List<T>> implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final BufferSpecification bufferSpecification;
@@ -66,7 +66,12 @@ public class OverlapBufferStreamId<T> implements StreamId<List<T>>, Serializable
     }
 
     @Override
-    public int hashCode() {
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
         final int prime = 31;
         int result = 1;
         result = prime * result + ((bufferSpecification == null) ? 0 : bufferSpecification.hashCode());
@@ -85,6 +90,9 @@ public class OverlapBufferStreamId<T> implements StreamId<List<T>>, Serializable
         if (getClass() != obj.getClass()) {
             return false;
         }
+        if (hashCode() != obj.hashCode()) {
+            return false;
+        }
         OverlapBufferStreamId<?> other = (OverlapBufferStreamId<?>) obj;
         if (bufferSpecification == null) {
             if (other.bufferSpecification != null) {
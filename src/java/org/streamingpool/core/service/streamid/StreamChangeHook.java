@@ -0,0 +1,37 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import org.streamingpool.core.domain.StreamIdChange;
+import org.streamingpool.core.service.StreamId;
+
+/**
+ * Hook streams of a pool which publish the changes of its content. A subscriber first receives one
+ * {@link StreamIdChange.Kind#ADDED} change for every stream currently in the pool and then the additions and removals
+ * as they happen.
+ *
+ * @see StreamingPoolHook#NEW_STREAM_HOOK
+ */
+public enum StreamChangeHook implements StreamId<StreamIdChange> {
+    STREAM_CHANGE_HOOK
+}
@@ -0,0 +1,63 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import org.streamingpool.core.service.StreamId;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Optional registry which makes structurally equal stream ids the same instance. Interned ids compare equal by
+ * reference, so that lookups of (deeply nested) composite ids do not have to walk the whole id tree. The registry only
+ * holds weak references, so ids which are not used anymore can still be garbage collected.
+ * <p>
+ * Interning is never required for correctness: interned and non-interned ids are still equal to each other.
+ *
+ * @see AbstractCompositeStreamId
+ */
+public final class StreamIdInterner {
+
+    private static final Interner<StreamId<?>> INTERNER = Interners.newWeakInterner();
+
+    private StreamIdInterner() {
+        /* only static methods */
+    }
+
+    /**
+     * Returns the canonical instance for the given id. If an equal id was interned before (and is still in use), then
+     * this one is returned, otherwise the given id becomes the canonical one.
+     *
+     * @param id the id to intern
+     * @return the canonical instance equal to the given id
+     */
+    @SuppressWarnings("unchecked")
+    public static <I extends StreamId<?>> I intern(I id) {
+        requireNonNull(id, "id to intern must not be null");
+        /* stream ids are only ever equal to ids of their own class */
+        return (I) INTERNER.intern(id);
+    }
+
+}
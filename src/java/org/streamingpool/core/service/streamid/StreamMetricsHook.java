@@ -0,0 +1,37 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import java.util.List;
+
+import org.streamingpool.core.domain.StreamMetricsSnapshot;
+import org.streamingpool.core.service.StreamId;
+
+/**
+ * Hook stream of a pool which publishes the runtime metrics of all the streams in the pool, once per sampling period
+ * (see {@link org.streamingpool.core.conf.PoolConfiguration#withMetrics(java.time.Duration)}). A subscriber first
+ * receives the latest snapshot. The stream is only available if the metrics are enabled.
+ */
+public enum StreamMetricsHook implements StreamId<List<StreamMetricsSnapshot>> {
+    STREAM_METRICS
+}
@@ -24,6 +24,13 @@ package org.streamingpool.core.service.streamid;
 
 import org.streamingpool.core.service.StreamId;
 
+/**
+ * Hook streams of a pool. The {@link #NEW_STREAM_HOOK} publishes the ids of the streams added to the pool. A subscriber
+ * first receives the ids of the streams currently in the pool (not the ones which were removed meanwhile) and then the
+ * ids of the streams added after its subscription.
+ *
+ * @see StreamChangeHook#STREAM_CHANGE_HOOK
+ */
 public enum StreamingPoolHook implements StreamId<StreamId<?>> {
     NEW_STREAM_HOOK
 }
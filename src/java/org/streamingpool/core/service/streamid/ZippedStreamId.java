@@ -16,7 +16,7 @@ import static java.util.Objects.requireNonNull;
  * @param <S2> type of the second source stream
  * @param <T> type that function holds
  */
-public class ZippedStreamId<S1, S2, T> implements StreamId<T> {
+public class ZippedStreamId<S1, S2, T> extends AbstractCompositeStreamId<T> {
     private static final long serialVersionUID = 1L;
     private final StreamId<S1> sourceStreamId1;
     private final StreamId<S2> sourceStreamId2;
@@ -52,6 +52,7 @@ public class ZippedStreamId<S1, S2, T> implements StreamId<T> {
     public boolean equals(final Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
+        if (hashCode() != o.hashCode()) return false;
 
         ZippedStreamId<?, ?, ?> that = (ZippedStreamId<?, ?, ?>) o;
 
@@ -63,7 +64,12 @@ public class ZippedStreamId<S1, S2, T> implements StreamId<T> {
     }
 
     @Override
-    public int hashCode() {
+    public final int hashCode() {
+        return cachedHashCode();
+    }
+
+    @Override
+    protected int computeHashCode() {
         int result = sourceStreamId1 != null ? sourceStreamId1.hashCode() : 0;
         result = 31 * result + (sourceStreamId2 != null ? sourceStreamId2.hashCode() : 0);
         result = 31 * result + (function != null ? function.hashCode() : 0);
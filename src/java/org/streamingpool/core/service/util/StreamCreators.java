@@ -47,12 +47,28 @@ public final class StreamCreators {
 
     public static class OngoingCreatorCreation<T> {
         private final StreamCreator<T> streamCreator;
+        private final boolean eager;
 
         public OngoingCreatorCreation(StreamCreator<T> streamCreator) {
+            this(streamCreator, false);
+        }
+
+        private OngoingCreatorCreation(StreamCreator<T> streamCreator, boolean eager) {
             this.streamCreator = Objects.requireNonNull(streamCreator, "streamCreator must not be null.");
+            this.eager = eager;
+        }
+
+        /**
+         * Flags the stream to be created when the pool starts, instead of on its first discovery.
+         */
+        public OngoingCreatorCreation<T> eagerly() {
+            return new OngoingCreatorCreation<>(streamCreator, true);
         }
 
         public IdentifiedStreamCreator<T> as(StreamId<T> streamId) {
+            if (eager) {
+                return ImmutableIdentifiedStreamCreator.eager(streamId, streamCreator);
+            }
             return ImmutableIdentifiedStreamCreator.of(streamId, streamCreator);
         }
     }
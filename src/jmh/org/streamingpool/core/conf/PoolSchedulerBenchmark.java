@@ -0,0 +1,99 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.conf;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+
+/**
+ * Compares the {@link PoolSchedulerType}s when many subscribers block while consuming their items (e.g. slow GUI
+ * updates or synchronous remote calls). Each invocation delivers {@link #itemsPerSubscriber} items to each of the
+ * {@link #subscribers} subscribers, observed on the scheduler under test, and waits until all of them are consumed.
+ * <p>
+ * Virtual threads are only available when running on Java 21 or newer; on older runtimes both types use a fixed thread
+ * pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PoolSchedulerBenchmark {
+
+    private static final int THREAD_POOL_SIZE = 100;
+
+    @Param({ "FIXED_THREAD_POOL", "VIRTUAL_THREADS" })
+    private PoolSchedulerType schedulerType;
+
+    @Param({ "1000", "10000" })
+    private int subscribers;
+
+    @Param({ "10" })
+    private int itemsPerSubscriber;
+
+    @Param({ "1000000" })
+    private long blockingNanosPerItem;
+
+    private Scheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = PoolSchedulers.schedulerOfType(schedulerType, THREAD_POOL_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public void blockingSubscribers() throws InterruptedException {
+        CountDownLatch allConsumed = new CountDownLatch(subscribers);
+        Flowable<Integer> source = Flowable.range(0, itemsPerSubscriber);
+        for (int i = 0; i < subscribers; i++) {
+            source.observeOn(scheduler)
+                    .doOnComplete(allConsumed::countDown)
+                    .subscribe(item -> LockSupport.parkNanos(blockingNanosPerItem));
+        }
+        allConsumed.await();
+    }
+
+}
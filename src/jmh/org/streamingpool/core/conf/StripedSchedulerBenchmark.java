@@ -0,0 +1,106 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.conf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Compares the default fixed thread pool with the {@link StripedScheduler} when many streams with several
+ * subscribers each are observed on the scheduler of the pool. Each invocation pushes {@link #itemsPerStream} items
+ * through every subscription and waits until all of them are consumed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StripedSchedulerBenchmark {
+
+    private static final int DEFAULT_THREAD_POOL_SIZE = 100;
+
+    @Param({ "FIXED_THREAD_POOL", "STRIPED_BY_STREAM_ID" })
+    private PoolSchedulerType schedulerType;
+
+    @Param({ "64" })
+    private int streams;
+
+    @Param({ "4" })
+    private int subscribersPerStream;
+
+    @Param({ "10000" })
+    private int itemsPerStream;
+
+    private PoolConfiguration poolConfiguration;
+    private List<StreamId<Integer>> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        poolConfiguration = new PoolConfiguration(
+                PoolSchedulers.schedulerOfType(schedulerType, DEFAULT_THREAD_POOL_SIZE));
+        ids = new ArrayList<>();
+        for (int i = 0; i < streams; i++) {
+            ids.add(new NamedStreamId<>("stream-" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        poolConfiguration.getScheduler().shutdown();
+    }
+
+    @Benchmark
+    public void observeHotStreams(Blackhole blackhole) throws InterruptedException {
+        CountDownLatch allConsumed = new CountDownLatch(streams * subscribersPerStream);
+        for (StreamId<Integer> id : ids) {
+            Flowable<Integer> stream = Flowable.range(0, itemsPerStream)
+                    .observeOn(poolConfiguration.getScheduler(id), false, poolConfiguration.getObserveOnCapacity());
+            for (int i = 0; i < subscribersPerStream; i++) {
+                stream.doOnComplete(allConsumed::countDown).subscribe(blackhole::consume);
+            }
+        }
+        allConsumed.await();
+    }
+
+}
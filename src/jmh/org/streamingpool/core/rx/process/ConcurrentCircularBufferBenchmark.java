@@ -0,0 +1,94 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.rx.process;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ConcurrentCircularBuffer#add(Object)} and {@link ConcurrentCircularBuffer#toList()} of a full buffer,
+ * on their own and with writers and a reader using the same buffer concurrently.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrentCircularBufferBenchmark {
+
+    private static final Object ITEM = new Object();
+
+    @Param({ "16", "1024" })
+    private int length;
+
+    private ConcurrentCircularBuffer<Object> buffer;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        buffer = new ConcurrentCircularBuffer<>();
+        buffer.setLength(length);
+        for (int i = 0; i < length; i++) {
+            buffer.add(ITEM);
+        }
+    }
+
+    @Benchmark
+    public void add() {
+        buffer.add(ITEM);
+    }
+
+    @Benchmark
+    public List<Object> toList() {
+        return buffer.toList();
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(3)
+    public void concurrentAdd() {
+        buffer.add(ITEM);
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(1)
+    public List<Object> concurrentToList() {
+        return buffer.toList();
+    }
+
+}
@@ -0,0 +1,131 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Measures the cold start of an application discovering many ids, one after the other or all at once through
+ * {@link LocalPool#discoverAll(java.util.Collection)}. Every id depends on one of a few shared upstream streams. The
+ * creation of a stream takes {@link #CREATION_MICROS} (e.g. to subscribe to a remote system), which dominates the cost
+ * of the discovery.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BulkDiscoveryBenchmark {
+
+    private static final long CREATION_MICROS = 100;
+    private static final int SHARED_UPSTREAMS = 10;
+
+    @State(Scope.Thread)
+    public static class ColdPool {
+
+        @Param({ "1000" })
+        private int ids;
+
+        @Param({ "1", "8" })
+        private int parallelism;
+
+        private LocalPool pool;
+        private List<StreamId<Long>> idsToDiscover;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            Map<StreamId<?>, StreamId<Long>> upstreams = new HashMap<>();
+            idsToDiscover = new ArrayList<>();
+            for (int i = 0; i < ids; i++) {
+                StreamId<Long> id = new NamedStreamId<>("derived-" + i);
+                upstreams.put(id, new NamedStreamId<>("shared-" + i % SHARED_UPSTREAMS));
+                idsToDiscover.add(id);
+            }
+            pool = new LocalPool(Collections.singletonList(new SlowFactory(upstreams)),
+                    new PoolConfiguration(Schedulers.single()).withBulkDiscoveryParallelism(parallelism));
+        }
+    }
+
+    @Benchmark
+    public Publisher<Long> discoverOneByOne(ColdPool coldPool) {
+        Publisher<Long> last = null;
+        for (StreamId<Long> id : coldPool.idsToDiscover) {
+            last = coldPool.pool.discover(id);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Map<StreamId<?>, Publisher<?>> discoverAll(ColdPool coldPool) {
+        return coldPool.pool.discoverAll(coldPool.idsToDiscover);
+    }
+
+    private static class SlowFactory implements StreamFactory {
+
+        private final Map<StreamId<?>, StreamId<Long>> upstreams;
+
+        SlowFactory(Map<StreamId<?>, StreamId<Long>> upstreams) {
+            this.upstreams = upstreams;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(CREATION_MICROS));
+            StreamId<Long> upstream = upstreams.get(id);
+            if (upstream == null) {
+                return ErrorStreamPair.ofData((Publisher<T>) Flowable.never());
+            }
+            return ErrorStreamPair.ofData((Publisher<T>) discoveryService.discover(upstream));
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.Collections.singletonList;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Measures the creation of a chain of {@link #depth} nested {@link DerivedStreamId}s: every invocation discovers the
+ * outermost id of a new chain, so that all the streams of the chain are created through nested discoveries. The pool
+ * evicts the unused streams after a short grace period, so that its content does not grow during the run. (Without a
+ * grace period, the inner streams of a chain could be evicted before the outer ones are created.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DeepChainCreationBenchmark {
+
+    private static final StreamId<Long> SOURCE_ID = new NamedStreamId<>("source");
+
+    @Param({ "10", "50" })
+    private int depth;
+
+    private ExecutorService executor;
+    private LocalPool pool;
+    private long chains;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        pool = new LocalPool(singletonList(new DerivedStreamFactory()),
+                new PoolConfiguration(Schedulers.from(executor)).withEvictionGracePeriod(Duration.ofSeconds(1)));
+        pool.provide(SOURCE_ID, Flowable.never());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Publisher<Long> createChain() {
+        /* A capturing lambda, so that every chain is different from all the previous ones */
+        long chain = chains++;
+        StreamId<Long> id = DerivedStreamId.derive(SOURCE_ID, value -> value + chain);
+        for (int i = 1; i < depth; i++) {
+            id = DerivedStreamId.derive(id, value -> value + 1);
+        }
+        return pool.discover(id);
+    }
+
+}
@@ -0,0 +1,110 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Measures the time for one item to travel from the source to the subscriber of a chain of {@link #depth}
+ * {@link DerivedStreamId}s discovered through {@link LocalPool#discover(StreamId)}, with the stages of the chain
+ * observed on the pool scheduler ({@link PoolConfiguration#withObserveOnPerStage(boolean)}) or only the outermost one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DeepChainLatencyBenchmark {
+
+    @Param({ "false", "true" })
+    private boolean observeOnPerStage;
+
+    @Param({ "1", "5", "10" })
+    private int depth;
+
+    private final PublishProcessor<Long> source = PublishProcessor.create();
+    private final AtomicLong lastReceived = new AtomicLong(-1);
+    private ExecutorService executor;
+    private Disposable subscription;
+    private long nextValue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        LocalPool pool = new LocalPool(Collections.singletonList(new DerivedStreamFactory()),
+                new PoolConfiguration(Schedulers.from(executor)).withObserveOnPerStage(observeOnPerStage));
+        StreamId<Long> sourceId = new NamedStreamId<>("source");
+        pool.provide(sourceId, source);
+        StreamId<Long> chainEnd = sourceId;
+        for (int i = 0; i < depth; i++) {
+            chainEnd = DerivedStreamId.derive(chainEnd, value -> value + 1);
+        }
+        subscription = Flowable.fromPublisher(pool.discover(chainEnd)).subscribe(lastReceived::set);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        subscription.dispose();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public long latency() {
+        long value = nextValue++;
+        long expected = value + depth;
+        source.onNext(value);
+        while (lastReceived.get() != expected) {
+            /* busy spin to measure the latency without the wake-up cost of blocking */
+        }
+        return expected;
+    }
+
+}
@@ -0,0 +1,159 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares {@link LocalPool#discover(StreamId)} with {@link LocalPool#discoverDirect(StreamId)} at the end of a chain
+ * of {@link DerivedStreamId}s. The latency benchmark measures the time for one item to travel from the source to the
+ * subscriber; the throughput benchmark pushes {@link #items} items through the chain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DirectDiscoveryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Pool {
+
+        @Param({ "true", "false" })
+        private boolean direct;
+
+        @Param({ "5" })
+        private int chainLength;
+
+        @Param({ "10000" })
+        private int items;
+
+        private ExecutorService executor;
+        private LocalPool pool;
+        private StreamId<Long> sourceId;
+        private StreamId<Long> chainEnd;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            executor = Executors.newFixedThreadPool(4);
+            pool = new LocalPool(Collections.singletonList(new DerivedStreamFactory()),
+                    new PoolConfiguration(Schedulers.from(executor)));
+            sourceId = new NamedStreamId<>("source");
+            chainEnd = sourceId;
+            for (int i = 0; i < chainLength; i++) {
+                chainEnd = DerivedStreamId.derive(chainEnd, value -> value + 1);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            executor.shutdownNow();
+        }
+
+        Publisher<Long> discoverChainEnd() {
+            return direct ? pool.discoverDirect(chainEnd) : pool.discover(chainEnd);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LatencyPipeline {
+
+        private final PublishProcessor<Long> source = PublishProcessor.create();
+        private final AtomicLong lastReceived = new AtomicLong(-1);
+        private Disposable subscription;
+        private long nextValue;
+        private int chainLength;
+
+        @Setup(Level.Trial)
+        public void setUp(Pool pool) {
+            pool.pool.provide(pool.sourceId, source);
+            chainLength = pool.chainLength;
+            subscription = Flowable.fromPublisher(pool.discoverChainEnd()).subscribe(lastReceived::set);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            subscription.dispose();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ThroughputPipeline {
+
+        @Setup(Level.Trial)
+        public void setUp(Pool pool) {
+            pool.pool.provide(pool.sourceId, Flowable.rangeLong(0, pool.items));
+        }
+    }
+
+    @Benchmark
+    public long latency(LatencyPipeline pipeline) {
+        long value = pipeline.nextValue++;
+        long expected = value + pipeline.chainLength;
+        pipeline.source.onNext(value);
+        while (pipeline.lastReceived.get() != expected) {
+            /* busy spin to measure the latency without the wake-up cost of blocking */
+        }
+        return expected;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void throughput(Pool pool, ThroughputPipeline pipeline) throws InterruptedException {
+        CountDownLatch completed = new CountDownLatch(1);
+        Flowable.fromPublisher(pool.discoverChainEnd()).subscribe(value -> {
+            /* consume */
+        }, error -> completed.countDown(), completed::countDown);
+        completed.await();
+    }
+
+}
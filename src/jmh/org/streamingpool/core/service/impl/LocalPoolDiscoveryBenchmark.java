@@ -0,0 +1,128 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
+import org.streamingpool.core.service.streamfactory.IntervalStreamFactory;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Measures {@link LocalPool#discover(StreamId)} of a {@link DerivedStreamId}. A warm discovery finds the stream (and
+ * its decorated publisher) already in the pool, while a cold discovery has to create it through the factories every
+ * time. The cold pool evicts the unused streams immediately, so that its content does not grow during the run.
+ * <p>
+ * The pools contain {@link #otherFactories} factories for other kinds of ids, registered before the one for derived
+ * ids, as is typical when applications add their own factories to the default ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LocalPoolDiscoveryBenchmark {
+
+    private static final StreamId<Long> SOURCE_ID = new NamedStreamId<>("source");
+
+    @State(Scope.Benchmark)
+    public static class Pool {
+
+        @Param({ "0", "50" })
+        private int otherFactories;
+
+        private final ExecutorService executor = Executors.newFixedThreadPool(4);
+        private LocalPool warmPool;
+        private LocalPool coldPool;
+        private StreamId<Long> warmId;
+        private long nextOffset;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            PoolConfiguration configuration = new PoolConfiguration(Schedulers.from(executor));
+            warmPool = new LocalPool(factories(), configuration);
+            coldPool = new LocalPool(factories(), configuration.withEvictionGracePeriod(Duration.ZERO));
+            warmPool.provide(SOURCE_ID, Flowable.never());
+            coldPool.provide(SOURCE_ID, Flowable.never());
+
+            warmId = DerivedStreamId.derive(SOURCE_ID, value -> value + 1);
+            warmPool.discover(warmId);
+        }
+
+        private List<StreamFactory> factories() {
+            List<StreamFactory> factories = new ArrayList<>();
+            for (int i = 0; i < otherFactories; i++) {
+                factories.add(new IntervalStreamFactory());
+            }
+            factories.add(new DerivedStreamFactory());
+            return factories;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            executor.shutdownNow();
+        }
+
+        StreamId<Long> nextColdId() {
+            /* A capturing lambda, so that every id is different from all the previous ones */
+            long offset = nextOffset++;
+            return DerivedStreamId.derive(SOURCE_ID, value -> value + offset);
+        }
+    }
+
+    @Benchmark
+    public Publisher<Long> warmDiscover(Pool pool) {
+        return pool.warmPool.discover(pool.warmId);
+    }
+
+    @Benchmark
+    public Publisher<Long> coldDiscover(Pool pool) {
+        return pool.coldPool.discover(pool.nextColdId());
+    }
+
+}
@@ -0,0 +1,103 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Throughput of a discovered stream of {@link #items} items, with and without the runtime metrics of the pool (see
+ * {@link PoolConfiguration#withMetrics(Duration)}). The subscriber is counted in the metrics of the stream, each item
+ * is counted as emission and as entering and leaving the queue of the observation on the pool scheduler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({ "false", "true" })
+    private boolean metrics;
+
+    @Param({ "100000" })
+    private int items;
+
+    private ExecutorService executor;
+    private LocalPool pool;
+    private Publisher<Long> discovered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        PoolConfiguration configuration = new PoolConfiguration(Schedulers.from(executor));
+        if (metrics) {
+            configuration = configuration.withMetrics(Duration.ofSeconds(1));
+        }
+        pool = new LocalPool(Collections.emptyList(), configuration);
+        StreamId<Long> id = new NamedStreamId<>("source");
+        pool.provide(id, Flowable.rangeLong(0, items).hide());
+        discovered = pool.discover(id);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void throughput() throws InterruptedException {
+        CountDownLatch completed = new CountDownLatch(1);
+        Flowable.fromPublisher(discovered).subscribe(value -> {
+            /* consume */
+        }, error -> completed.countDown(), completed::countDown);
+        completed.await();
+    }
+
+}
@@ -0,0 +1,109 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Measures {@link PoolContent#synchronousPutIfAbsent(StreamId, Supplier)} with several threads using the same content
+ * at the same time. In {@link #putPresent(Content)} all the ids are already in the pool, so that only the lookup is
+ * contended, while in {@link #putNew(Content)} the threads race for creating new ids (each id is requested about once
+ * by every thread).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Threads(PoolContentContentionBenchmark.THREADS)
+@Fork(1)
+public class PoolContentContentionBenchmark {
+
+    static final int THREADS = 4;
+
+    private static final Supplier<ErrorStreamPair<Object>> SUPPLIER = () -> ErrorStreamPair.ofData(Flowable.never());
+
+    @State(Scope.Benchmark)
+    public static class Content {
+
+        @Param({ "1", "64" })
+        private int presentIds;
+
+        private List<StreamId<Object>> ids;
+        private final AtomicLong newIdRequests = new AtomicLong();
+        private PoolContent poolContent;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            /* A new content for every iteration, as the new ids of the previous iteration stay in the pool */
+            poolContent = new PoolContent();
+            ids = new ArrayList<>(presentIds);
+            for (int i = 0; i < presentIds; i++) {
+                StreamId<Object> id = new NamedStreamId<>("present-" + i);
+                ids.add(id);
+                poolContent.synchronousPutIfAbsent(id, SUPPLIER);
+            }
+        }
+
+        StreamId<Object> randomPresentId() {
+            return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        StreamId<Object> nextNewId() {
+            return new NamedStreamId<>("new-" + newIdRequests.getAndIncrement() / THREADS);
+        }
+    }
+
+    @Benchmark
+    public boolean putPresent(Content content) {
+        return content.poolContent.synchronousPutIfAbsent(content.randomPresentId(), SUPPLIER);
+    }
+
+    @Benchmark
+    public boolean putNew(Content content) {
+        return content.poolContent.synchronousPutIfAbsent(content.nextNewId(), SUPPLIER);
+    }
+
+}
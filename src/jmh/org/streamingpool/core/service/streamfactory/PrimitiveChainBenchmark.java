@@ -0,0 +1,124 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.streamfactory;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.DoubleDerivedStreamId;
+import org.streamingpool.core.service.streamid.DoubleFilteredStreamId;
+import org.streamingpool.core.service.streamid.FilteredStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Compares a chain of {@link #depth} boxed derived/filtered ids ({@link DerivedStreamId}, {@link FilteredStreamId})
+ * with the same chain of primitive ones ({@link DoubleDerivedStreamId}, {@link DoubleFilteredStreamId}). The streams
+ * are created directly by the factories on top of an already boxed source, so that only the cost of the chain itself
+ * is measured (run with {@code -prof gc} to see the allocations per item).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@OperationsPerInvocation(PrimitiveChainBenchmark.ITEMS)
+public class PrimitiveChainBenchmark {
+
+    static final int ITEMS = 10_000;
+    private static final StreamId<Double> SOURCE_ID = new NamedStreamId<>("source");
+
+    @Param({ "false", "true" })
+    private boolean primitive;
+
+    @Param({ "1", "6" })
+    private int depth;
+
+    private Publisher<Double> created;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Double[] values = new Double[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            values[i] = (double) i;
+        }
+        Flowable<Double> source = Flowable.fromArray(values);
+        DiscoveryService discoveryService = new DiscoveryService() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> Publisher<T> discover(StreamId<T> id) {
+                return (Publisher<T>) source;
+            }
+        };
+
+        StreamId<Double> chainEnd = SOURCE_ID;
+        for (int i = 0; i < depth; i++) {
+            chainEnd = i % 2 == 0 ? conversionOf(chainEnd) : filterOf(chainEnd);
+        }
+        StreamFactory factory = primitive ? new PrimitiveStreamFactory() : factoryOf(chainEnd);
+        created = factory.create(chainEnd, discoveryService).data();
+    }
+
+    private StreamId<Double> conversionOf(StreamId<Double> source) {
+        if (primitive) {
+            return DoubleDerivedStreamId.deriveDouble(source, value -> value * 1.5 + 1);
+        }
+        return DerivedStreamId.derive(source, value -> value * 1.5 + 1);
+    }
+
+    private StreamId<Double> filterOf(StreamId<Double> source) {
+        if (primitive) {
+            return DoubleFilteredStreamId.filterDouble(source, value -> value >= 0);
+        }
+        return FilteredStreamId.filterBy(source, value -> value >= 0);
+    }
+
+    private static StreamFactory factoryOf(StreamId<Double> id) {
+        return id instanceof DerivedStreamId ? new DerivedStreamFactory() : new FilteredStreamFactory();
+    }
+
+    @Benchmark
+    public void chain(Blackhole blackhole) {
+        Flowable.fromPublisher(created).subscribe(blackhole::consume);
+    }
+
+}
@@ -0,0 +1,152 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.streamingpool.core.service.streamid.BufferSpecification.EndStreamMatcher.endingOnMatch;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.streamid.BufferSpecification;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.FilteredStreamId;
+import org.streamingpool.core.service.streamid.FlattenedStreamId;
+import org.streamingpool.core.service.streamid.OverlapBufferStreamId;
+import org.streamingpool.core.service.streamid.ZippedStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * End-to-end throughput of the built-in stream factories: every invocation subscribes to a stream created by the
+ * factory under test, whose source emits {@link #items} items, and waits until it completes. The time therefore
+ * includes the thread hops of the pool between the source and the created stream.
+ * <p>
+ * An overlap buffer stream connects to its sources only once, so it cannot be consumed again after it completed. For
+ * this factory every invocation therefore discovers a new stream (outside of the measured time).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StreamFactoryThroughputBenchmark {
+
+    public enum Factory {
+        DERIVED,
+        FILTERED,
+        ZIPPED,
+        OVERLAP_BUFFER,
+        FLATTENED
+    }
+
+    private static final StreamId<Long> SOURCE_ID = new NamedStreamId<>("source");
+
+    @Param
+    private Factory factory;
+
+    @Param({ "10000" })
+    private int items;
+
+    private ExecutorService executor;
+    private LocalPool pool;
+    private long invocations;
+    private Publisher<?> created;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        pool = new LocalPool(asList(new DerivedStreamFactory(), new FilteredStreamFactory(), new ZippedStreamFactory(),
+                new OverlapBufferStreamFactory(), new FlattenedStreamFactory()),
+                new PoolConfiguration(Schedulers.from(executor)));
+        pool.provide(SOURCE_ID, Flowable.rangeLong(0, items));
+        created = pool.discover(createdId());
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        invocations++;
+        if (factory == Factory.OVERLAP_BUFFER) {
+            created = pool.discover(createdId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private StreamId<?> createdId() {
+        switch (factory) {
+        case DERIVED:
+            return DerivedStreamId.derive(SOURCE_ID, value -> value + 1);
+        case FILTERED:
+            return FilteredStreamId.filterBy(SOURCE_ID, value -> value % 2 == 0);
+        case ZIPPED:
+            return ZippedStreamId.zip(SOURCE_ID, SOURCE_ID, (value1, value2) -> Optional.of(value1 + value2));
+        case OVERLAP_BUFFER:
+            long startOffset = invocations % 100;
+            StreamId<Long> startId = FilteredStreamId.filterBy(SOURCE_ID, value -> value % 100 == startOffset);
+            return OverlapBufferStreamId.of(SOURCE_ID, BufferSpecification.ofStartEnd(startId,
+                    singleton(endingOnMatch(startId, (Long opening, Long end) -> end > opening))));
+        case FLATTENED:
+            return FlattenedStreamId.flatten(
+                    DerivedStreamId.<Long, Iterable<? extends Long>> derive(SOURCE_ID, value -> asList(value, value)));
+        default:
+            throw new IllegalArgumentException("Unknown factory " + factory);
+        }
+    }
+
+    @Benchmark
+    public void throughput() throws InterruptedException {
+        CountDownLatch completed = new CountDownLatch(1);
+        Flowable.fromPublisher(created).subscribe(value -> {
+            /* consume */
+        }, error -> completed.countDown(), completed::countDown);
+        completed.await();
+    }
+
+}
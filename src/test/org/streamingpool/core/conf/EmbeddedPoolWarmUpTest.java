@@ -0,0 +1,97 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.conf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.impl.PoolWarmUp;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Checks that the {@link EmbeddedPoolConfiguration} warms up the pool once the application context is refreshed.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = { EmbeddedPoolConfiguration.class, EmbeddedPoolWarmUpTest.WarmUpConfiguration.class })
+public class EmbeddedPoolWarmUpTest {
+
+    private static final StreamId<Long> ID = NamedStreamId.ofName("warm");
+    private static final AtomicInteger CREATIONS = new AtomicInteger();
+
+    @Autowired
+    private PoolWarmUp warmUp;
+
+    @Autowired
+    private LocalPool pool;
+
+    @Test
+    public void warmUpIsStartedWithTheContext() {
+        assertThat(warmUp.isStarted()).isTrue();
+        assertThat(warmUp.awaitCompletion(Duration.ofSeconds(5))).isTrue();
+        assertThat(warmUp.warmedUp()).isEqualTo(1);
+
+        pool.discover(ID);
+        assertThat(CREATIONS.get()).isEqualTo(1);
+    }
+
+    @Configuration
+    public static class WarmUpConfiguration {
+
+        @Bean
+        public WarmUpStreamIds warmUpStreamIds() {
+            return WarmUpStreamIds.of(ID);
+        }
+
+        @Bean
+        public StreamFactory warmStreamFactory() {
+            return new StreamFactory() {
+                @SuppressWarnings("unchecked")
+                @Override
+                public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+                    if (!ID.equals(id)) {
+                        return ErrorStreamPair.empty();
+                    }
+                    CREATIONS.incrementAndGet();
+                    return ErrorStreamPair.ofData((Publisher<T>) Flowable.just(1L));
+                }
+            };
+        }
+    }
+
+}
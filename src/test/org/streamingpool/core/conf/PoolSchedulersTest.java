@@ -0,0 +1,91 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.conf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+
+/**
+ * Unit tests for {@link PoolSchedulers}
+ */
+public class PoolSchedulersTest {
+
+    private static final int THREAD_POOL_SIZE = 2;
+
+    @Test
+    public void fixedThreadPoolObservesItems() {
+        assertObservesItems(PoolSchedulers.schedulerOfType(PoolSchedulerType.FIXED_THREAD_POOL, THREAD_POOL_SIZE));
+    }
+
+    @Test
+    public void virtualThreadsObserveItemsOnAnyRuntime() {
+        assertObservesItems(PoolSchedulers.schedulerOfType(PoolSchedulerType.VIRTUAL_THREADS, THREAD_POOL_SIZE));
+    }
+
+    @Test
+    public void virtualThreadExecutorOnlyPresentIfSupported() {
+        String specificationVersion = System.getProperty("java.specification.version");
+        boolean supported = !specificationVersion.startsWith("1.") && Integer.parseInt(specificationVersion) >= 21;
+        assertThat(PoolSchedulers.newVirtualThreadPerTaskExecutor().isPresent()).isEqualTo(supported);
+    }
+
+    @Test
+    public void shutdownStopsTheThreadsOfAFixedThreadPool() {
+        Scheduler scheduler = PoolSchedulers.schedulerOfType(PoolSchedulerType.FIXED_THREAD_POOL, THREAD_POOL_SIZE);
+        assertObservesItems(scheduler);
+
+        assertThat(PoolSchedulers.shutdown(scheduler, Duration.ofSeconds(1))).isTrue();
+        assertThat(((ExecutorServiceScheduler) scheduler).isShutdown()).isTrue();
+    }
+
+    @Test
+    public void shutdownInterruptsTasksRunningLongerThanTheTimeout() throws InterruptedException {
+        Scheduler scheduler = PoolSchedulers.schedulerOfType(PoolSchedulerType.STRIPED_BY_STREAM_ID, THREAD_POOL_SIZE);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        scheduler.scheduleDirect(() -> {
+            started.countDown();
+            try {
+                TimeUnit.SECONDS.sleep(10);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        started.await(1, TimeUnit.SECONDS);
+
+        assertThat(PoolSchedulers.shutdown(scheduler, Duration.ofMillis(10))).isFalse();
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static void assertObservesItems(Scheduler scheduler) {
+        assertThat(Flowable.range(0, 10).observeOn(scheduler).toList().blockingGet()).hasSize(10);
+    }
+
+}
@@ -0,0 +1,71 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.conf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Unit tests for {@link StripedScheduler}
+ */
+public class StripedSchedulerTest {
+
+    private static final int NUMBER_OF_LANES = 4;
+
+    private final StripedScheduler scheduler = new StripedScheduler(NUMBER_OF_LANES);
+
+    @Test
+    public void equalKeysAreAssignedToTheSameLane() {
+        assertThat(scheduler.laneFor(new NamedStreamId<>("a"))).isSameAs(scheduler.laneFor(new NamedStreamId<>("a")));
+    }
+
+    @Test
+    public void poolConfigurationProvidesLanePerId() {
+        StreamId<Object> id = new NamedStreamId<>("a");
+        PoolConfiguration configuration = new PoolConfiguration(scheduler);
+
+        assertThat(configuration.getScheduler(id)).isSameAs(scheduler.laneFor(id));
+    }
+
+    @Test
+    public void itemsOfALaneAreObservedOnASingleThread() {
+        Set<Thread> observingThreads = ConcurrentHashMap.newKeySet();
+        Flowable.range(0, 1000).observeOn(scheduler.laneFor("a")).rebatchRequests(1)
+                .doOnNext(item -> observingThreads.add(Thread.currentThread())).blockingLast();
+
+        assertThat(observingThreads).hasSize(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroLanesAreNotAllowed() {
+        new StripedScheduler(0);
+    }
+
+}
@@ -0,0 +1,172 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.rx.process;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.streamingpool.core.rx.process.BufferDelta.appended;
+import static org.streamingpool.core.rx.process.BufferDelta.cleared;
+import static org.streamingpool.core.rx.process.BufferDelta.evicted;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class ClearableBufferProcessorTest {
+
+    private ClearableBufferProcessor<Integer> processor;
+    private PublishProcessor<Integer> input;
+    private PublishProcessor<Object> clearTrigger;
+
+    @Before
+    public void setUp() {
+        processor = new ClearableBufferProcessor<>();
+        input = PublishProcessor.create();
+        clearTrigger = PublishProcessor.create();
+        processor.setInput(input);
+        processor.setClearTrigger(clearTrigger);
+        processor.setBufferSize(3);
+    }
+
+    @Test
+    public void snapshotsContainSameElementsAsContent() {
+        TestSubscriber<List<Integer>> content = processor.bufferedContent().test();
+        TestSubscriber<List<Integer>> snapshots = processor.bufferedSnapshots().test();
+
+        emit(1, 2, 3, 4);
+        clearTrigger.onNext(new Object());
+        emit(5);
+
+        assertThat(snapshots.values()).isEqualTo(content.values());
+        assertThat(snapshots.values()).last().isEqualTo(asList(5));
+    }
+
+    @Test
+    public void snapshotsAreNotChangedByLaterElements() {
+        processor.setBufferSize(100);
+        TestSubscriber<List<Integer>> snapshots = processor.bufferedSnapshots().test();
+
+        for (int i = 0; i < 1000; i++) {
+            input.onNext(i);
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(i);
+            if (expected.size() > 100) {
+                expected.remove(0);
+            }
+            assertThat(snapshots.values().get(i)).isEqualTo(expected);
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotsAreImmutable() {
+        TestSubscriber<List<Integer>> snapshots = processor.bufferedSnapshots().test();
+        emit(1);
+        snapshots.values().get(0).add(2);
+    }
+
+    @Test
+    public void contentListsAreImmutableCopiesSharedBySubscribers() {
+        TestSubscriber<List<Integer>> first = processor.bufferedContent().test();
+        TestSubscriber<List<Integer>> second = processor.bufferedContent().test();
+
+        emit(1, 2);
+
+        assertThat(first.values().get(1)).isSameAs(second.values().get(1)).containsExactly(1, 2);
+        assertThat(first.values().get(0)).containsExactly(1);
+        assertThatThrownBy(() -> first.values().get(1).add(3)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void subscribersAreCalledWithoutHoldingUpOtherChanges() {
+        TestSubscriber<BufferDelta<Integer>> deltas = processor.bufferedDeltas().test();
+        AtomicBoolean resizedMeanwhile = new AtomicBoolean();
+        processor.bufferedSnapshots().filter(snapshot -> snapshot.size() == 3).subscribe(snapshot -> {
+            Thread resizing = new Thread(() -> processor.setBufferSize(1));
+            resizing.start();
+            resizing.join(1000);
+            resizedMeanwhile.set(!resizing.isAlive());
+        });
+
+        emit(1, 2, 3);
+
+        assertThat(resizedMeanwhile.get()).isTrue();
+        assertThat(deltas.values()).containsExactly(appended(1), appended(2), appended(3), evicted(2));
+    }
+
+    @Test
+    public void lateContentSubscriberGetsTheCurrentBuffer() {
+        emit(1, 2, 3, 4);
+
+        processor.bufferedContent().test().assertValue(asList(2, 3, 4));
+    }
+
+    @Test
+    public void deltasDescribeEveryChangeOfTheBuffer() {
+        TestSubscriber<BufferDelta<Integer>> deltas = processor.bufferedDeltas().test();
+
+        emit(1, 2, 3, 4);
+        processor.setBufferSize(1);
+        clearTrigger.onNext(new Object());
+        emit(5);
+
+        deltas.assertValueSequence(asList(appended(1), appended(2), appended(3), evicted(1), appended(4), evicted(2),
+                cleared(1), appended(5)));
+    }
+
+    @Test
+    public void minEmitSizeDoesNotApplyToDeltas() {
+        processor.setMinEmitSize(2);
+        TestSubscriber<List<Integer>> snapshots = processor.bufferedSnapshots().test();
+        TestSubscriber<BufferDelta<Integer>> deltas = processor.bufferedDeltas().test();
+
+        emit(1, 2);
+
+        snapshots.assertValue(asList(1, 2));
+        deltas.assertValueSequence(asList(appended(1), appended(2)));
+    }
+
+    @Test
+    public void nothingIsBufferedIfNotRunning() {
+        TestSubscriber<BufferDelta<Integer>> deltas = processor.bufferedDeltas().test();
+
+        processor.setRunState(RunState.PAUSED);
+        emit(1);
+
+        deltas.assertNoValues();
+    }
+
+    private void emit(Integer... elements) {
+        for (Integer element : elements) {
+            input.onNext(element);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.rx.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcurrentCircularBufferTest {
+
+    private ConcurrentCircularBuffer<Integer> buffer;
+
+    @Before
+    public void setUp() {
+        buffer = new ConcurrentCircularBuffer<>();
+    }
+
+    @Test
+    public void defaultLengthKeepsOnlyLastElement() {
+        addAll(1, 2, 3);
+        assertThat(buffer.toList()).containsExactly(3);
+    }
+
+    @Test
+    public void keepsLastElementsInOrder() {
+        buffer.setLength(3);
+        addAll(1, 2, 3, 4, 5);
+        assertThat(buffer.toList()).containsExactly(3, 4, 5);
+    }
+
+    @Test
+    public void lengthWhichIsNoPowerOfTwoIsRespected() {
+        buffer.setLength(5);
+        addAll(1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(buffer.toList()).containsExactly(5, 6, 7, 8, 9);
+    }
+
+    @Test
+    public void zeroLengthKeepsNothing() {
+        buffer.setLength(0);
+        addAll(1, 2);
+        assertThat(buffer.toList()).isEmpty();
+    }
+
+    @Test
+    public void clearRemovesAllElements() {
+        buffer.setLength(3);
+        addAll(1, 2, 3);
+        buffer.clear();
+        assertThat(buffer.toList()).isEmpty();
+
+        addAll(4);
+        assertThat(buffer.toList()).containsExactly(4);
+    }
+
+    @Test
+    public void growingKeepsElements() {
+        buffer.setLength(2);
+        addAll(1, 2, 3);
+        buffer.setLength(100);
+        addAll(4, 5);
+        assertThat(buffer.toList()).containsExactly(2, 3, 4, 5);
+    }
+
+    @Test
+    public void shrinkingKeepsLastElements() {
+        buffer.setLength(100);
+        addAll(1, 2, 3, 4, 5);
+        buffer.setLength(2);
+        assertThat(buffer.toList()).containsExactly(4, 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeLengthIsRejected() {
+        buffer.setLength(-1);
+    }
+
+    @Test
+    public void concurrentReadsReturnIncreasingElementsOfTheWindow() throws InterruptedException {
+        int length = 16;
+        buffer.setLength(length);
+        AtomicBoolean inconsistent = new AtomicBoolean();
+        CountDownLatch writerDone = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 1_000_000; i++) {
+                buffer.add(i);
+            }
+            writerDone.countDown();
+        });
+        writer.start();
+
+        while (writerDone.getCount() > 0) {
+            List<Integer> snapshot = buffer.toList();
+            if (snapshot.size() > length || !isStrictlyIncreasingWithin(snapshot, length)) {
+                inconsistent.set(true);
+            }
+        }
+        writer.join();
+
+        assertThat(inconsistent.get()).isFalse();
+        assertThat(buffer.toList())
+                .isEqualTo(IntStream.range(1_000_000 - length, 1_000_000).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void concurrentAddsAndClearsDoNotBreakReads() throws InterruptedException {
+        int length = 16;
+        buffer.setLength(length);
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; !stop.get(); i++) {
+                buffer.add(i);
+            }
+        });
+        Thread clearer = new Thread(() -> {
+            while (!stop.get()) {
+                buffer.clear();
+            }
+        });
+        writer.start();
+        clearer.start();
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean inconsistent = new AtomicBoolean();
+        try {
+            for (int i = 0; i < 5_000_000; i++) {
+                List<Integer> snapshot = buffer.toList();
+                if (snapshot.size() > length || !isStrictlyIncreasingWithin(snapshot, length)) {
+                    inconsistent.set(true);
+                }
+            }
+        } catch (RuntimeException e) {
+            failure.set(e);
+        } finally {
+            stop.set(true);
+            writer.join();
+            clearer.join();
+        }
+
+        assertThat(failure.get()).isNull();
+        assertThat(inconsistent.get()).isFalse();
+    }
+
+    private static boolean isStrictlyIncreasingWithin(List<Integer> elements, int length) {
+        for (int i = 1; i < elements.size(); i++) {
+            if (elements.get(i) <= elements.get(i - 1)) {
+                return false;
+            }
+        }
+        return elements.isEmpty() || elements.get(elements.size() - 1) - elements.get(0) < length;
+    }
+
+    private void addAll(Integer... elements) {
+        for (Integer element : elements) {
+            buffer.add(element);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+public class DiscoveryPathTest {
+
+    private static final StreamId<Object> ID_A = new NamedStreamId<>("a");
+    private static final StreamId<Object> ID_B = new NamedStreamId<>("b");
+
+    @Test
+    public void emptyPathContainsNothing() {
+        assertThat(DiscoveryPath.empty().contains(ID_A)).isFalse();
+        assertThat(DiscoveryPath.empty().length()).isZero();
+    }
+
+    @Test
+    public void pathContainsAllIncludedIds() {
+        DiscoveryPath path = DiscoveryPath.empty().including(ID_A).including(ID_B);
+
+        assertThat(path.contains(new NamedStreamId<>("a"))).isTrue();
+        assertThat(path.contains(new NamedStreamId<>("b"))).isTrue();
+        assertThat(path.contains(new NamedStreamId<>("c"))).isFalse();
+        assertThat(path.length()).isEqualTo(2);
+    }
+
+    @Test
+    public void includingDoesNotChangeTheOriginalPath() {
+        DiscoveryPath original = DiscoveryPath.empty().including(ID_A);
+        DiscoveryPath extended = original.including(ID_B);
+
+        assertThat(original.contains(ID_B)).isFalse();
+        assertThat(original.length()).isEqualTo(1);
+        assertThat(extended.contains(ID_A)).isTrue();
+    }
+}
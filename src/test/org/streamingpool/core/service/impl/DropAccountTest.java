@@ -0,0 +1,73 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.streamingpool.core.domain.DropSummary;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for {@link DropAccount}.
+ */
+public class DropAccountTest {
+
+    private static final Duration INTERVAL = Duration.ofMillis(10);
+
+    private final DropAccount<Integer> account = new DropAccount<>();
+    private final TestScheduler scheduler = new TestScheduler();
+    private final Flowable<DropSummary<Integer>> summaries = account.summaries(INTERVAL, scheduler);
+
+    @Test
+    public void lastDroppedItemIsReportedOnlyOnce() {
+        TestSubscriber<DropSummary<Integer>> subscriber = summaries.test();
+
+        account.droppedAll(Arrays.asList(1, 2, 3));
+        scheduler.advanceTimeBy(10, MILLISECONDS);
+        account.droppedUnknown();
+        scheduler.advanceTimeBy(10, MILLISECONDS);
+
+        subscriber.assertValueSequence(
+                Arrays.asList(new DropSummary<>(3, INTERVAL, 3), new DropSummary<>(1, INTERVAL, null)));
+    }
+
+    @Test
+    public void subscribersShareTheSummaries() {
+        TestSubscriber<DropSummary<Integer>> first = summaries.test();
+        TestSubscriber<DropSummary<Integer>> second = summaries.test();
+
+        account.dropped(1);
+        scheduler.advanceTimeBy(10, MILLISECONDS);
+
+        first.assertValue(new DropSummary<>(1, INTERVAL, 1));
+        second.assertValue(new DropSummary<>(1, INTERVAL, 1));
+    }
+
+}
@@ -0,0 +1,112 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for {@link LatestReportingDrops}.
+ */
+public class LatestReportingDropsTest {
+
+    private final List<Integer> dropped = new CopyOnWriteArrayList<>();
+    private final PublishProcessor<Integer> source = PublishProcessor.create();
+
+    @Test
+    public void pendingItemIsDeliveredOnRequestAfterCompletion() {
+        TestSubscriber<Integer> subscriber = latestOf(source).test(0);
+        source.onNext(1);
+        source.onNext(2);
+        source.onComplete();
+
+        subscriber.assertNoValues();
+        subscriber.assertNotComplete();
+        subscriber.request(1);
+
+        subscriber.assertResult(2);
+        assertThat(dropped).containsExactly(1);
+    }
+
+    @Test
+    public void errorIsNotDelayedAndThePendingItemIsReportedAsDropped() {
+        RuntimeException error = new RuntimeException("source failed");
+        TestSubscriber<Integer> subscriber = latestOf(source).test(0);
+        source.onNext(1);
+        source.onNext(2);
+        source.onError(error);
+
+        subscriber.assertFailure(RuntimeException.class);
+        subscriber.assertError(error);
+        assertThat(dropped).containsExactly(1, 2);
+    }
+
+    @Test
+    public void cancelCancelsTheSourceAndDiscardsThePendingItem() {
+        TestSubscriber<Integer> subscriber = latestOf(source).test(0);
+        source.onNext(1);
+
+        subscriber.cancel();
+        subscriber.request(1);
+
+        assertThat(source.hasSubscribers()).isFalse();
+        subscriber.assertNoValues();
+        assertThat(dropped).isEmpty();
+    }
+
+    @Test
+    public void concurrentRequestsAndItemsDeliverNoMoreThanRequested() {
+        int itemCount = 100_000;
+        TestSubscriber<Integer> subscriber = latestOf(Flowable.range(0, itemCount).subscribeOn(Schedulers.newThread()))
+                .test(0);
+        long requests = 0;
+        while (!subscriber.isTerminated() && requests < itemCount) {
+            subscriber.request(1);
+            requests++;
+            assertThat((long) subscriber.valueCount()).isLessThanOrEqualTo(requests);
+        }
+        subscriber.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        subscriber.assertComplete();
+        List<Integer> values = subscriber.values();
+        assertThat((long) values.size()).isLessThanOrEqualTo(requests);
+        assertThat(values).isSorted();
+        assertThat(values).doesNotHaveDuplicates();
+        assertThat(values.get(values.size() - 1)).isEqualTo(itemCount - 1);
+        assertThat(values.size() + dropped.size()).isEqualTo(itemCount);
+    }
+
+    private Flowable<Integer> latestOf(Flowable<Integer> upstream) {
+        return upstream.lift(new LatestReportingDrops<>(dropped::add));
+    }
+
+}
@@ -0,0 +1,191 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.AsyncStreamFactory;
+import org.streamingpool.core.service.CycleInStreamDiscoveryDetectedException;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Unit tests for the asynchronous discovery of streams from the {@link LocalPool}.
+ */
+public class LocalPoolAsyncDiscoveryTest {
+
+    private static final StreamId<Long> LEFT = new NamedStreamId<>("left");
+    private static final StreamId<Long> RIGHT = new NamedStreamId<>("right");
+    private static final StreamId<Long> SUM = new NamedStreamId<>("sum");
+    private static final StreamId<Long> SELF_DEPENDENT = new NamedStreamId<>("selfDependent");
+    private static final StreamId<Long> FIRST_OF_CYCLE = new NamedStreamId<>("firstOfCycle");
+    private static final StreamId<Long> SECOND_OF_CYCLE = new NamedStreamId<>("secondOfCycle");
+
+    private final Set<String> upstreamCreatingThreads = ConcurrentHashMap.newKeySet();
+    private LocalPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new LocalPool(Arrays.asList(new UpstreamFactory(), new SumFactory()),
+                new PoolConfiguration(Schedulers.single()));
+    }
+
+    @Test
+    public void asyncDiscoveryCompletesWithTheStream() {
+        Publisher<Long> stream = join(pool.discoverAsync(LEFT));
+
+        assertThat(Flowable.fromPublisher(stream).blockingLast()).isEqualTo(1L);
+        assertThat(pool.discover(LEFT)).isSameAs(stream);
+    }
+
+    @Test
+    public void asyncDiscoveryOfPresentStreamIsAlreadyCompleted() {
+        Publisher<Long> stream = pool.discover(LEFT);
+
+        CompletableFuture<Publisher<Long>> discovery = pool.discoverAsync(LEFT).toCompletableFuture();
+
+        assertThat(discovery.isDone()).isTrue();
+        assertThat(discovery.join()).isSameAs(stream);
+    }
+
+    @Test
+    public void asyncFactoryDiscoversUpstreamStreamsInOtherThreads() {
+        Publisher<Long> sum = pool.discover(SUM);
+
+        assertThat(Flowable.fromPublisher(sum).blockingLast()).isEqualTo(3L);
+        assertThat(upstreamCreatingThreads).isNotEmpty().doesNotContain(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void asyncDiscoveryOfUnknownIdFails() {
+        CompletableFuture<Publisher<Long>> discovery = pool.discoverAsync(new NamedStreamId<Long>("unknown"))
+                .toCompletableFuture();
+
+        assertThat(causeOfFailure(discovery)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test(expected = CycleInStreamDiscoveryDetectedException.class)
+    public void asyncFactoryDiscoveringItsOwnStreamFails() {
+        pool.discover(SELF_DEPENDENT);
+    }
+
+    @Test(expected = CycleInStreamDiscoveryDetectedException.class)
+    public void cycleThroughAsyncAndSyncDiscoveryFails() {
+        pool.discover(FIRST_OF_CYCLE);
+    }
+
+    @Test
+    public void asyncDiscoveryOfCycleFails() {
+        CompletableFuture<Publisher<Long>> discovery = pool.discoverAsync(FIRST_OF_CYCLE).toCompletableFuture();
+
+        assertThat(causeOfFailure(discovery)).isInstanceOf(CycleInStreamDiscoveryDetectedException.class);
+    }
+
+    @Test
+    public void defaultAsyncDiscoveryDiscoversSynchronously() {
+        DiscoveryService discoveryService = new DiscoveryService() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> Publisher<T> discover(StreamId<T> id) {
+                if (LEFT.equals(id)) {
+                    return (Publisher<T>) Flowable.just(1L);
+                }
+                throw new IllegalArgumentException("Unknown id " + id);
+            }
+        };
+
+        assertThat(discoveryService.discoverAsync(LEFT).toCompletableFuture().isDone()).isTrue();
+        assertThat(causeOfFailure(discoveryService.discoverAsync(RIGHT).toCompletableFuture()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static <T> T join(CompletionStage<T> stage) {
+        try {
+            return stage.toCompletableFuture().get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError("The stage did not complete successfully", e);
+        }
+    }
+
+    private static Throwable causeOfFailure(CompletableFuture<?> future) {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            return e.getCause();
+        }
+        throw new AssertionError("The stage did not fail");
+    }
+
+    private class UpstreamFactory implements StreamFactory {
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+            if (LEFT.equals(id) || RIGHT.equals(id)) {
+                upstreamCreatingThreads.add(Thread.currentThread().getName());
+                return ErrorStreamPair.ofData((Publisher<T>) Flowable.just(LEFT.equals(id) ? 1L : 2L));
+            }
+            if (SECOND_OF_CYCLE.equals(id)) {
+                return ErrorStreamPair.ofData(discoveryService.discover((StreamId<T>) FIRST_OF_CYCLE));
+            }
+            return ErrorStreamPair.empty();
+        }
+    }
+
+    private static class SumFactory implements AsyncStreamFactory {
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> CompletionStage<ErrorStreamPair<T>> createAsync(StreamId<T> id, DiscoveryService discoveryService) {
+            if (SUM.equals(id)) {
+                CompletionStage<Publisher<Long>> left = discoveryService.discoverAsync(LEFT);
+                CompletionStage<Publisher<Long>> right = discoveryService.discoverAsync(RIGHT);
+                return left.thenCombine(right, (l, r) -> ErrorStreamPair
+                        .ofData((Publisher<T>) Flowable.zip(l, r, (a, b) -> a + b)));
+            }
+            if (SELF_DEPENDENT.equals(id)) {
+                return discoveryService.discoverAsync(id).thenApply(ErrorStreamPair::ofData);
+            }
+            if (FIRST_OF_CYCLE.equals(id)) {
+                return discoveryService.discoverAsync((StreamId<T>) SECOND_OF_CYCLE).thenApply(ErrorStreamPair::ofData);
+            }
+            return CompletableFuture.completedFuture(ErrorStreamPair.empty());
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.batching.BatchingAware;
+import org.streamingpool.core.domain.batching.BatchingStrategy;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for the batched hand-over of the items to the pool scheduler (see {@link BatchingStrategy}).
+ */
+public class LocalPoolBatchingTest {
+
+    private static final BatchingStrategy BATCHES = BatchingStrategy.batchesOf(100, Duration.ofMillis(20));
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void batchedStreamDeliversAllItemsInOrder() {
+        LocalPool pool = newPool(new PoolConfiguration(Schedulers.from(executor)).withBatching(BATCHES));
+        StreamId<Integer> id = new NamedStreamId<>("range");
+        pool.provide(id, Flowable.range(0, 1000));
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(id)).test();
+
+        subscriber.awaitTerminalEvent(1, TimeUnit.SECONDS);
+        subscriber.assertComplete();
+        assertThat(subscriber.values()).isEqualTo(IntStream.range(0, 1000).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void incompleteBatchIsDeliveredAfterLinger() {
+        LocalPool pool = newPool(new PoolConfiguration(Schedulers.from(executor)));
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> id = new BatchedStreamId("hot");
+        pool.provide(id, source);
+
+        TestSubscriber<List<Object>> deliveries = Flowable.fromPublisher(pool.discover(id))
+                .map(item -> Arrays.<Object> asList(item, Thread.currentThread())).test();
+        source.onNext(1);
+        source.onNext(2);
+        source.onNext(3);
+
+        deliveries.awaitCount(3);
+        assertThat(deliveries.values()).extracting(delivery -> delivery.get(0)).containsExactly(1, 2, 3);
+        assertThat(deliveries.values()).extracting(delivery -> delivery.get(1)).doesNotContain(Thread.currentThread());
+        deliveries.cancel();
+    }
+
+    @Test
+    public void pendingBatchIsEmittedBeforeError() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        RuntimeException error = new RuntimeException("source failed");
+
+        TestSubscriber<List<Integer>> batches = BatchCollector.batched(source, BATCHES, new TestScheduler()).test();
+        source.onNext(1);
+        source.onNext(2);
+        source.onError(error);
+
+        batches.assertValue(Arrays.asList(1, 2));
+        batches.assertError(error);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchesOfOneAreNotAllowed() {
+        BatchingStrategy.batchesOf(1, Duration.ofMillis(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroLingerIsNotAllowed() {
+        BatchingStrategy.batchesOf(10, Duration.ZERO);
+    }
+
+    private static LocalPool newPool(PoolConfiguration poolConfiguration) {
+        return new LocalPool(Collections.emptyList(), poolConfiguration);
+    }
+
+    private static class BatchedStreamId extends NamedStreamId<Integer> implements BatchingAware {
+        private static final long serialVersionUID = 1L;
+
+        BatchedStreamId(String name) {
+            super(name);
+        }
+
+        @Override
+        public BatchingStrategy batchingStrategy() {
+            return BATCHES;
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Unit tests for the bulk discovery of streams from the {@link LocalPool}.
+ */
+public class LocalPoolBulkDiscoveryTest {
+
+    private static final StreamId<Long> SHARED = new NamedStreamId<>("shared");
+    private static final String DERIVED_PREFIX = "derived-";
+    private static final String PARALLEL_PREFIX = "parallel-";
+
+    private final Map<StreamId<?>, AtomicInteger> creations = new ConcurrentHashMap<>();
+    private final CountDownLatch parallelCreations = new CountDownLatch(2);
+
+    @Test
+    public void discoversAllIdsInTheirOrder() {
+        LocalPool pool = newPool(4);
+        List<StreamId<Long>> ids = asList(derived(3), derived(1), derived(2));
+
+        Map<StreamId<?>, Publisher<?>> discovered = pool.discoverAll(ids);
+
+        assertThat(discovered.keySet()).containsExactlyElementsOf(ids);
+        for (StreamId<Long> id : ids) {
+            assertThat(discovered.get(id)).isSameAs(pool.discover(id));
+        }
+    }
+
+    @Test
+    public void duplicateIdsAreDiscoveredOnce() {
+        Map<StreamId<?>, Publisher<?>> discovered = newPool(4).discoverAll(asList(derived(1), derived(1)));
+
+        assertThat(discovered).hasSize(1);
+        assertThat(creations.get(derived(1)).get()).isEqualTo(1);
+    }
+
+    @Test
+    public void sharedUpstreamIsCreatedOnce() {
+        List<StreamId<Long>> ids = asList(derived(1), derived(2), derived(3), derived(4), derived(5), derived(6));
+
+        newPool(4).discoverAll(ids);
+
+        assertThat(creations.get(SHARED).get()).isEqualTo(1);
+        for (StreamId<Long> id : ids) {
+            assertThat(creations.get(id).get()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void independentStreamsAreCreatedInParallel() {
+        List<StreamId<Long>> ids = asList(new NamedStreamId<>(PARALLEL_PREFIX + 1),
+                new NamedStreamId<>(PARALLEL_PREFIX + 2));
+
+        Map<StreamId<?>, Publisher<?>> discovered = newPool(2).discoverAll(ids);
+
+        assertThat(discovered).hasSize(2);
+    }
+
+    @Test
+    public void singleThreadedBulkDiscoveryDiscoversSequentially() {
+        Map<StreamId<?>, Publisher<?>> discovered = newPool(1).discoverAll(asList(derived(1), derived(2)));
+
+        assertThat(discovered).hasSize(2);
+        assertThat(creations.get(SHARED).get()).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failingDiscoveryFailsTheBulkDiscovery() {
+        newPool(4).discoverAll(asList(derived(1), new NamedStreamId<Long>("unknown"), derived(2)));
+    }
+
+    @Test
+    public void emptyBulkDiscoveryDiscoversNothing() {
+        assertThat(newPool(4).discoverAll(Collections.emptyList())).isEmpty();
+    }
+
+    private static StreamId<Long> derived(int index) {
+        return new NamedStreamId<>(DERIVED_PREFIX + index);
+    }
+
+    private LocalPool newPool(int parallelism) {
+        return new LocalPool(Collections.singletonList(new CountingFactory()),
+                new PoolConfiguration(Schedulers.single()).withBulkDiscoveryParallelism(parallelism));
+    }
+
+    private class CountingFactory implements StreamFactory {
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+            String name = id.toString();
+            if (SHARED.equals(id)) {
+                countCreationOf(id);
+                return ErrorStreamPair.ofData((Publisher<T>) Flowable.just(1L));
+            }
+            if (name.contains(DERIVED_PREFIX)) {
+                countCreationOf(id);
+                return ErrorStreamPair.ofData(
+                        (Publisher<T>) Flowable.fromPublisher(discoveryService.discover(SHARED)).map(v -> v + 1));
+            }
+            if (name.contains(PARALLEL_PREFIX)) {
+                parallelCreations.countDown();
+                if (awaitOtherCreation()) {
+                    return ErrorStreamPair.ofData((Publisher<T>) Flowable.just(1L));
+                }
+            }
+            return ErrorStreamPair.empty();
+        }
+
+        private void countCreationOf(StreamId<?> id) {
+            creations.computeIfAbsent(id, i -> new AtomicInteger()).incrementAndGet();
+        }
+
+        private boolean awaitOtherCreation() {
+            try {
+                return parallelCreations.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.streamingpool.core.service.streamid.StreamingPoolHook.NEW_STREAM_HOOK;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for closing a {@link LocalPool}.
+ */
+public class LocalPoolCloseTest {
+
+    private static final StreamId<Long> PROVIDED_ID = new NamedStreamId<>("provided");
+    private static final StreamId<Long> CREATED_ID = new NamedStreamId<>("created");
+
+    private final PublishProcessor<Long> providedSource = PublishProcessor.create();
+    private final PublishProcessor<Long> createdSource = PublishProcessor.create();
+    private LocalPool pool;
+
+    @Before
+    public void setUp() {
+        StreamFactory factory = new StreamFactory() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+                if (CREATED_ID.equals(id)) {
+                    return ErrorStreamPair.ofData((Publisher<T>) createdSource);
+                }
+                return ErrorStreamPair.empty();
+            }
+        };
+        pool = new LocalPool(Collections.singletonList(factory), new PoolConfiguration(Schedulers.trampoline()));
+        pool.provide(PROVIDED_ID, providedSource);
+    }
+
+    @Test
+    public void closingCompletesTheStreamsAndCancelsTheirUpstreamSubscriptions() {
+        TestSubscriber<Long> provided = Flowable.fromPublisher(pool.discover(PROVIDED_ID)).test();
+        TestSubscriber<Long> created = Flowable.fromPublisher(pool.discoverDirect(CREATED_ID)).test();
+        assertThat(providedSource.hasSubscribers()).isTrue();
+        assertThat(createdSource.hasSubscribers()).isTrue();
+
+        pool.close();
+
+        provided.assertComplete();
+        created.assertComplete();
+        assertThat(providedSource.hasSubscribers()).isFalse();
+        assertThat(createdSource.hasSubscribers()).isFalse();
+    }
+
+    @Test
+    public void closingCompletesTheHooks() {
+        TestSubscriber<StreamId<?>> newStreams = Flowable.fromPublisher(pool.discover(NEW_STREAM_HOOK)).test();
+
+        pool.close();
+
+        newStreams.assertComplete();
+    }
+
+    @Test
+    public void streamDiscoveredBeforeClosingCompletesWhenSubscribedAfterwards() {
+        Publisher<Long> stream = pool.discover(PROVIDED_ID);
+
+        pool.close();
+
+        Flowable.fromPublisher(stream).test().assertComplete().assertNoValues();
+        assertThat(providedSource.hasSubscribers()).isFalse();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void discoveryFailsAfterClosing() {
+        pool.close();
+        pool.discover(CREATED_ID);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void providingFailsAfterClosing() {
+        pool.close();
+        pool.provide(new NamedStreamId<Long>("late"), Flowable.never());
+    }
+
+    @Test
+    public void closingTwiceHasNoEffect() {
+        pool.close();
+        pool.close();
+    }
+
+}
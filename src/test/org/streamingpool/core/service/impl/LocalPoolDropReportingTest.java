@@ -0,0 +1,200 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.DropSummary;
+import org.streamingpool.core.domain.backpressure.BackpressureAware;
+import org.streamingpool.core.domain.backpressure.BackpressureBufferStrategy.BackpressureBufferOverflowStrategy;
+import org.streamingpool.core.domain.backpressure.BackpressureStrategies;
+import org.streamingpool.core.domain.backpressure.BackpressureStrategy;
+import org.streamingpool.core.domain.batching.BatchingStrategy;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.UnresolvableStreamIdException;
+import org.streamingpool.core.service.diagnostic.DroppedStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.observers.BaseTestConsumer.TestWaitStrategy;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for the reporting of the items dropped by the backpressure strategies (see {@link DroppedStreamId}).
+ */
+public class LocalPoolDropReportingTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final LocalPool pool = new LocalPool(Collections.emptyList(),
+            new PoolConfiguration(Schedulers.from(executor)).withDropReportingPeriod(Duration.ofMillis(20)));
+
+    @After
+    public void tearDown() {
+        pool.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void latestStrategyReportsTheReplacedItems() {
+        StreamId<Integer> id = new LatestStreamId("latest");
+        pool.provide(id, Flowable.range(0, 10));
+        TestSubscriber<DropSummary<Integer>> drops = subscribeToDropsOf(id);
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(id)).test(0);
+
+        assertDroppedCount(drops, 9);
+        assertThat(lastSummary(drops).lastDropped()).contains(8);
+        subscriber.request(1);
+        subscriber.awaitTerminalEvent(1, TimeUnit.SECONDS);
+        subscriber.assertResult(9);
+    }
+
+    @Test
+    public void dropStrategyReportsTheDroppedItems() {
+        StreamId<Integer> id = new DroppingStreamId("drop");
+        pool.provide(id, Flowable.range(0, 10));
+        TestSubscriber<DropSummary<Integer>> drops = subscribeToDropsOf(id);
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(id)).test(0);
+
+        assertDroppedCount(drops, 10);
+        assertThat(lastSummary(drops).lastDropped()).contains(9);
+        subscriber.cancel();
+    }
+
+    @Test
+    public void bufferStrategyReportsOnlyTheNumberOfDroppedItems() {
+        StreamId<Integer> id = new BufferedStreamId("buffer");
+        pool.provide(id, Flowable.range(0, 10));
+        TestSubscriber<DropSummary<Integer>> drops = subscribeToDropsOf(id);
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(id)).test(0);
+
+        assertDroppedCount(drops, 8);
+        assertThat(lastSummary(drops).lastDropped()).isEqualTo(Optional.empty());
+        subscriber.request(2);
+        subscriber.awaitTerminalEvent(1, TimeUnit.SECONDS);
+        subscriber.assertResult(8, 9);
+    }
+
+    @Test
+    public void batchedBufferStrategyReportsTheDroppedItems() {
+        LocalPool batchingPool = new LocalPool(Collections.emptyList(),
+                new PoolConfiguration(Schedulers.from(executor)).withDropReportingPeriod(Duration.ofMillis(20))
+                        .withBatching(BatchingStrategy.batchesOf(4, Duration.ofMillis(10))));
+        try {
+            StreamId<Integer> id = new BufferedStreamId("batchedBuffer");
+            batchingPool.provide(id, Flowable.range(0, 10));
+            TestSubscriber<DropSummary<Integer>> drops = Flowable
+                    .fromPublisher(batchingPool.discover(DroppedStreamId.of(id))).test();
+
+            TestSubscriber<Integer> subscriber = Flowable.fromPublisher(batchingPool.discover(id)).test(0);
+
+            assertDroppedCount(drops, 8);
+            subscriber.request(2);
+            subscriber.awaitTerminalEvent(1, TimeUnit.SECONDS);
+            subscriber.assertResult(8, 9);
+        } finally {
+            batchingPool.close();
+        }
+    }
+
+    @Test(expected = UnresolvableStreamIdException.class)
+    public void streamsWithoutBackpressureStrategyHaveNoDropStream() {
+        StreamId<Integer> id = new NamedStreamId<>("plain");
+        pool.provide(id, Flowable.range(0, 10));
+
+        pool.discover(DroppedStreamId.of(id));
+    }
+
+    private TestSubscriber<DropSummary<Integer>> subscribeToDropsOf(StreamId<Integer> id) {
+        return Flowable.fromPublisher(pool.discover(DroppedStreamId.of(id))).test();
+    }
+
+    private static void assertDroppedCount(TestSubscriber<DropSummary<Integer>> drops, long expectedCount) {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (droppedCount(drops.values()) < expectedCount && System.currentTimeMillis() < deadline) {
+            drops.awaitCount(drops.valueCount() + 1, TestWaitStrategy.SLEEP_1MS, 100);
+        }
+        assertThat(droppedCount(drops.values())).isEqualTo(expectedCount);
+    }
+
+    private static long droppedCount(List<DropSummary<Integer>> summaries) {
+        return summaries.stream().mapToLong(DropSummary::count).sum();
+    }
+
+    private static DropSummary<Integer> lastSummary(TestSubscriber<DropSummary<Integer>> drops) {
+        return drops.values().get(drops.valueCount() - 1);
+    }
+
+    private static class LatestStreamId extends NamedStreamId<Integer> implements BackpressureAware {
+        private static final long serialVersionUID = 1L;
+
+        LatestStreamId(String name) {
+            super(name);
+        }
+
+        @Override
+        public BackpressureStrategy backpressureStrategy() {
+            return BackpressureStrategies.onBackpressureLatest();
+        }
+    }
+
+    private static class DroppingStreamId extends NamedStreamId<Integer> implements BackpressureAware {
+        private static final long serialVersionUID = 1L;
+
+        DroppingStreamId(String name) {
+            super(name);
+        }
+
+        @Override
+        public BackpressureStrategy backpressureStrategy() {
+            return BackpressureStrategies.onBackpressureDrop();
+        }
+    }
+
+    private static class BufferedStreamId extends NamedStreamId<Integer> implements BackpressureAware {
+        private static final long serialVersionUID = 1L;
+
+        BufferedStreamId(String name) {
+            super(name);
+        }
+
+        @Override
+        public BackpressureStrategy backpressureStrategy() {
+            return BackpressureStrategies.onBackpressureBuffer(2, BackpressureBufferOverflowStrategy.DROP_OLDEST);
+        }
+    }
+
+}
@@ -0,0 +1,227 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.streamingpool.core.service.streamid.StreamMetricsHook.STREAM_METRICS;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.StreamMetricsSnapshot;
+import org.streamingpool.core.domain.backpressure.BackpressureAware;
+import org.streamingpool.core.domain.backpressure.BackpressureStrategies;
+import org.streamingpool.core.domain.backpressure.BackpressureStrategy;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.UnresolvableStreamIdException;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for the runtime metrics of the streams of a {@link LocalPool} (see
+ * {@link PoolConfiguration#withMetrics(Duration)}).
+ */
+public class LocalPoolMetricsTest {
+
+    private static final Duration SAMPLING_PERIOD = Duration.ofMillis(10);
+    private static final long TIMEOUT_MILLIS = 2000;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final PoolConfiguration configuration = new PoolConfiguration(Schedulers.from(executor));
+    private LocalPool pool;
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void withoutMetricsNoMetricsAreKept() {
+        pool = newPool(configuration);
+        pool.provide(new NamedStreamId<>("range"), Flowable.range(0, 3));
+
+        assertThat(pool.streamMetrics()).isEmpty();
+    }
+
+    @Test(expected = UnresolvableStreamIdException.class)
+    public void withoutMetricsTheMetricsStreamIsNotAvailable() {
+        pool = newPool(configuration);
+        pool.discover(STREAM_METRICS);
+    }
+
+    @Test
+    public void emissionsAndSubscribersAreCounted() {
+        pool = newPool(configuration.withMetrics(SAMPLING_PERIOD));
+        StreamId<Integer> id = new NamedStreamId<>("range");
+        pool.provide(id, Flowable.range(0, 3));
+
+        Flowable.fromPublisher(pool.discover(id)).blockingSubscribe();
+        Flowable.fromPublisher(pool.discoverDirect(id)).blockingSubscribe();
+
+        StreamMetricsSnapshot metrics = awaitMetricsOf(id, snapshot -> snapshot.emissions() == 6);
+        assertThat(metrics.subscribers()).isZero();
+        assertThat(metrics.queueDepth()).isZero();
+        assertThat(metrics.drops()).isZero();
+        assertThat(metrics.creationTime()).isNotNull();
+    }
+
+    @Test
+    public void itemsDroppedByTheLatestStrategyAreCounted() {
+        pool = newPool(configuration.withMetrics(SAMPLING_PERIOD));
+        StreamId<Integer> id = new LatestStreamId("latest");
+        pool.provide(id, Flowable.range(0, 10));
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(id)).test(0);
+
+        awaitMetricsOf(id, snapshot -> snapshot.drops() == 9);
+        subscriber.request(1);
+        subscriber.awaitCount(1);
+        assertThat(subscriber.values()).containsExactly(9);
+        subscriber.cancel();
+    }
+
+    @Test
+    public void itemsDroppedByTheDropStrategyAreCounted() {
+        pool = newPool(configuration.withMetrics(SAMPLING_PERIOD));
+        StreamId<Integer> id = new DroppingStreamId("drop");
+        pool.provide(id, Flowable.range(0, 10));
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(id)).test(0);
+
+        awaitMetricsOf(id, snapshot -> snapshot.drops() == 10);
+        subscriber.cancel();
+    }
+
+    @Test
+    public void metricsStreamPublishesSnapshotsOfAllStreams() {
+        pool = newPool(configuration.withMetrics(SAMPLING_PERIOD));
+        StreamId<Integer> id = new NamedStreamId<>("range");
+        pool.provide(id, Flowable.range(0, 3));
+
+        TestSubscriber<List<StreamMetricsSnapshot>> snapshots = Flowable.fromPublisher(pool.discover(STREAM_METRICS))
+                .filter(snapshot -> snapshot.stream().anyMatch(metrics -> metrics.id().equals(id))).test();
+
+        snapshots.awaitCount(1);
+        snapshots.assertNoErrors();
+        snapshots.cancel();
+    }
+
+    @Test
+    public void metricsAreRegisteredAsMBeansUntilThePoolIsClosed() throws MalformedObjectNameException {
+        pool = newPool(configuration.withMetrics(SAMPLING_PERIOD));
+        StreamId<Integer> id = new NamedStreamId<>("mbean-" + System.nanoTime());
+        pool.provide(id, Flowable.range(0, 3));
+        ObjectName names = new ObjectName(
+                "org.streamingpool:type=StreamMetrics,pool=*,id=" + ObjectName.quote(id.toString()));
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (mbeansMatching(names).isEmpty() && System.currentTimeMillis() < deadline) {
+            sleep();
+        }
+        assertThat(mbeansMatching(names)).hasSize(1);
+
+        pool.close();
+        assertThat(mbeansMatching(names)).isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroSamplingPeriodIsNotAllowed() {
+        configuration.withMetrics(Duration.ZERO);
+    }
+
+    private StreamMetricsSnapshot awaitMetricsOf(StreamId<?> id, Predicate<StreamMetricsSnapshot> condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            Optional<StreamMetricsSnapshot> metrics = pool.streamMetrics().stream()
+                    .filter(snapshot -> snapshot.id().equals(id)).findFirst();
+            if (metrics.isPresent() && condition.test(metrics.get())) {
+                return metrics.get();
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("The metrics of " + id + " did not reach the expected state: " + metrics);
+            }
+            sleep();
+        }
+    }
+
+    private static Set<ObjectName> mbeansMatching(ObjectName names) {
+        return ManagementFactory.getPlatformMBeanServer().queryNames(names, null);
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static LocalPool newPool(PoolConfiguration poolConfiguration) {
+        return new LocalPool(Collections.emptyList(), poolConfiguration);
+    }
+
+    private static class LatestStreamId extends NamedStreamId<Integer> implements BackpressureAware {
+        private static final long serialVersionUID = 1L;
+
+        LatestStreamId(String name) {
+            super(name);
+        }
+
+        @Override
+        public BackpressureStrategy backpressureStrategy() {
+            return BackpressureStrategies.onBackpressureLatest();
+        }
+    }
+
+    private static class DroppingStreamId extends NamedStreamId<Integer> implements BackpressureAware {
+        private static final long serialVersionUID = 1L;
+
+        DroppingStreamId(String name) {
+            super(name);
+        }
+
+        @Override
+        public BackpressureStrategy backpressureStrategy() {
+            return BackpressureStrategies.onBackpressureDrop();
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.streamingpool.core.conf.MulticastPolicy;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Tests the multicasting of streams created by the factories of a {@link LocalPool}.
+ */
+public class LocalPoolMulticastTest {
+
+    private static final StreamId<Integer> SOURCE_ID = new NamedStreamId<>("source");
+
+    private final AtomicInteger conversions = new AtomicInteger();
+    private final PublishProcessor<Integer> source = PublishProcessor.create();
+    private StreamId<Integer> derivedId;
+
+    @Before
+    public void setUp() {
+        derivedId = DerivedStreamId.derive(SOURCE_ID, value -> {
+            conversions.incrementAndGet();
+            return value * 2;
+        });
+    }
+
+    @Test
+    public void notMulticastStreamConvertsOncePerSubscriber() {
+        LocalPool pool = poolWith(MulticastPolicy.none());
+
+        subscribeTwiceAndEmit(pool);
+
+        assertThat(conversions.get()).isEqualTo(6);
+    }
+
+    @Test
+    public void multicastStreamConvertsOncePerItem() {
+        LocalPool pool = poolWith(
+                MulticastPolicy.forStreamsCreatedBy(Collections.singleton(DerivedStreamFactory.class)));
+
+        subscribeTwiceAndEmit(pool);
+
+        assertThat(conversions.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void multicastByIdType() {
+        LocalPool pool = poolWith(MulticastPolicy.forIdsOfType(Collections.singleton(DerivedStreamId.class)));
+
+        subscribeTwiceAndEmit(pool);
+
+        assertThat(conversions.get()).isEqualTo(3);
+    }
+
+    private void subscribeTwiceAndEmit(LocalPool pool) {
+        TestSubscriber<Integer> first = Flowable.fromPublisher(pool.discover(derivedId)).test();
+        TestSubscriber<Integer> second = Flowable.fromPublisher(pool.discover(derivedId)).test();
+
+        source.onNext(1);
+        source.onNext(2);
+        source.onNext(3);
+
+        first.awaitCount(3).assertValues(2, 4, 6);
+        second.awaitCount(3).assertValues(2, 4, 6);
+        first.cancel();
+        second.cancel();
+    }
+
+    private LocalPool poolWith(MulticastPolicy multicastPolicy) {
+        LocalPool pool = new LocalPool(Collections.singletonList(new DerivedStreamFactory()),
+                new PoolConfiguration(Schedulers.single()).withMulticastPolicy(multicastPolicy));
+        pool.provide(SOURCE_ID, source);
+        return pool;
+    }
+
+}
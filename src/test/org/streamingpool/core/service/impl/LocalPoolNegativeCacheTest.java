@@ -0,0 +1,182 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.UnresolvableStreamIdException;
+import org.streamingpool.core.service.diagnostic.ErrorStreamId;
+import org.streamingpool.core.service.streamfactory.CreatorStreamFactory;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Unit tests for the cache of unresolvable ids of the {@link LocalPool}.
+ */
+public class LocalPoolNegativeCacheTest {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMillis(100);
+    private static final StreamId<Long> UNKNOWN_ID = new NamedStreamId<>("unknown");
+
+    private final AtomicInteger factoryCalls = new AtomicInteger();
+    private final StreamFactory countingFactory = new StreamFactory() {
+        @Override
+        public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+            factoryCalls.incrementAndGet();
+            return ErrorStreamPair.empty();
+        }
+    };
+    private final CreatorStreamFactory creatorFactory = new CreatorStreamFactory(Collections.emptyList());
+    private LocalPool pool;
+
+    @Before
+    public void setUp() {
+        pool = newPool(new PoolConfiguration(Schedulers.trampoline()).withNegativeCache(TIME_TO_LIVE, 100));
+    }
+
+    @Test
+    public void repeatedDiscoveryOfUnresolvableIdFailsFast() {
+        assertUnresolvable(UNKNOWN_ID);
+        assertUnresolvable(UNKNOWN_ID);
+
+        assertThat(factoryCalls.get()).isEqualTo(1);
+        NegativeCacheStatistics statistics = pool.negativeCacheStatistics();
+        assertThat(statistics.hits()).isEqualTo(1);
+        assertThat(statistics.misses()).isEqualTo(1);
+        assertThat(statistics.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void unresolvableIdExpires() throws InterruptedException {
+        assertUnresolvable(UNKNOWN_ID);
+
+        MILLISECONDS.sleep(TIME_TO_LIVE.toMillis() * 3);
+
+        assertUnresolvable(UNKNOWN_ID);
+        assertThat(factoryCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void providingAStreamInvalidatesTheCache() {
+        assertUnresolvable(UNKNOWN_ID);
+
+        pool.provide(UNKNOWN_ID, Flowable.just(1L));
+
+        assertThat(pool.discover(UNKNOWN_ID)).isNotNull();
+    }
+
+    @Test
+    public void providingACreatorInvalidatesTheCache() {
+        assertUnresolvable(UNKNOWN_ID);
+
+        creatorFactory.provide(UNKNOWN_ID, discovery -> Flowable.just(1L));
+
+        assertThat(pool.discover(UNKNOWN_ID)).isNotNull();
+    }
+
+    @Test
+    public void addingAFactoryInvalidatesTheCache() {
+        assertUnresolvable(UNKNOWN_ID);
+
+        pool.addFallback(new StreamFactory() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+                return ErrorStreamPair.ofData((Publisher<T>) Flowable.just(1L));
+            }
+        });
+
+        assertThat(pool.discover(UNKNOWN_ID)).isNotNull();
+    }
+
+    @Test
+    public void idAddedWithAnotherStreamIsNotHiddenByTheCache() {
+        StreamId<Long> createdId = new NamedStreamId<>("created");
+        ErrorStreamId<StreamId<Long>> errorId = ErrorStreamId.of(createdId);
+        creatorFactory.provide(createdId, discovery -> Flowable.just(1L));
+        assertUnresolvable(errorId);
+
+        pool.discover(createdId);
+
+        assertThat(pool.discover(errorId)).isNotNull();
+        assertThat(pool.discoverDirect(errorId)).isNotNull();
+    }
+
+    @Test
+    public void cacheIsBounded() {
+        for (int i = 0; i < 10; i++) {
+            assertUnresolvable(new NamedStreamId<Long>("unknown-" + i));
+        }
+
+        pool = newPool(new PoolConfiguration(Schedulers.trampoline()).withNegativeCache(TIME_TO_LIVE, 2));
+        for (int i = 0; i < 10; i++) {
+            assertUnresolvable(new NamedStreamId<Long>("unknown-" + i));
+        }
+        assertThat(pool.negativeCacheStatistics().size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void cacheIsDisabledByDefault() {
+        pool = newPool(new PoolConfiguration(Schedulers.trampoline()));
+
+        assertUnresolvable(UNKNOWN_ID);
+        assertUnresolvable(UNKNOWN_ID);
+
+        assertThat(factoryCalls.get()).isEqualTo(2);
+        assertThat(pool.negativeCacheStatistics().misses()).isZero();
+    }
+
+    private LocalPool newPool(PoolConfiguration configuration) {
+        List<StreamFactory> factories = new ArrayList<>();
+        factories.add(creatorFactory);
+        factories.add(countingFactory);
+        return new LocalPool(factories, configuration);
+    }
+
+    private void assertUnresolvable(StreamId<?> id) {
+        try {
+            pool.discover(id);
+            fail("The discovery of " + id + " should fail");
+        } catch (UnresolvableStreamIdException e) {
+            assertThat(e).hasMessageContaining(id.toString());
+        }
+    }
+
+}
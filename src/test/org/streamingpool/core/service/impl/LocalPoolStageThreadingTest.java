@@ -0,0 +1,104 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for the threads on which the stages of a chain of streams in the {@link LocalPool} receive their items.
+ */
+public class LocalPoolStageThreadingTest {
+
+    private static final String POOL_THREAD_NAME = "pool-scheduler";
+    private static final int CHAIN_LENGTH = 3;
+
+    private final ExecutorService executor = Executors
+            .newSingleThreadExecutor(runnable -> new Thread(runnable, POOL_THREAD_NAME));
+    private final PublishProcessor<Long> source = PublishProcessor.create();
+    private final List<String> stageThreads = new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void stagesReceiveItemsOnProducingThreadAndSubscriberOnPoolThread() {
+        LocalPool pool = newPool(new PoolConfiguration(Schedulers.from(executor)));
+
+        TestSubscriber<String> subscriberThreads = subscribeToChainEnd(pool);
+        source.onNext(1L);
+        subscriberThreads.awaitCount(1);
+
+        assertThat(stageThreads).hasSize(CHAIN_LENGTH).containsOnly(Thread.currentThread().getName());
+        subscriberThreads.assertValue(POOL_THREAD_NAME);
+    }
+
+    @Test
+    public void stagesReceiveItemsOnPoolThreadIfObservedPerStage() {
+        LocalPool pool = newPool(new PoolConfiguration(Schedulers.from(executor)).withObserveOnPerStage(true));
+
+        TestSubscriber<String> subscriberThreads = subscribeToChainEnd(pool);
+        source.onNext(1L);
+        subscriberThreads.awaitCount(1);
+
+        assertThat(stageThreads).hasSize(CHAIN_LENGTH).containsOnly(POOL_THREAD_NAME);
+        subscriberThreads.assertValue(POOL_THREAD_NAME);
+    }
+
+    private TestSubscriber<String> subscribeToChainEnd(LocalPool pool) {
+        StreamId<Long> sourceId = new NamedStreamId<>("source");
+        pool.provide(sourceId, source);
+        StreamId<Long> chainEnd = sourceId;
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            chainEnd = DerivedStreamId.derive(chainEnd, value -> {
+                stageThreads.add(Thread.currentThread().getName());
+                return value + 1;
+            });
+        }
+        return Flowable.fromPublisher(pool.discover(chainEnd)).map(value -> Thread.currentThread().getName()).test();
+    }
+
+    private static LocalPool newPool(PoolConfiguration poolConfiguration) {
+        return new LocalPool(Collections.singletonList(new DerivedStreamFactory()), poolConfiguration);
+    }
+
+}
@@ -22,6 +22,7 @@
 
 package org.streamingpool.core.service.impl;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 import java.util.Collections;
@@ -72,6 +73,11 @@ public class LocalPoolTest {
     }
 
 
+    @Test
+    public void discoveringTwiceReturnsTheSameStream() {
+        assertThat(pool.discover(ID_A)).isSameAs(pool.discover(ID_A));
+    }
+
     @Test(expected = NullPointerException.class)
     public void discoverNullId() {
         pool.discover(null);
@@ -8,8 +8,11 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
 import io.reactivex.subscribers.TestSubscriber;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.streamingpool.core.service.DiscoveryService;
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.support.RxStreamSupport;
 import org.streamingpool.core.testing.AbstractStreamTest;
@@ -17,6 +20,9 @@ import org.streamingpool.core.testing.AbstractStreamTest;
 @RunWith(SpringJUnit4ClassRunner.class)
 public class LocalPoolThreadingTest extends AbstractStreamTest implements RxStreamSupport {
 
+    @Autowired
+    private DiscoveryService discoveryService;
+
     public LocalPoolThreadingTest(){
         System.setProperty(STREAMINGPOOL_THREAD_POOL_SIZE, "10");
     }
@@ -34,4 +40,16 @@ public class LocalPoolThreadingTest extends AbstractStreamTest implements RxStre
         test.awaitCount(4);
         assertThat(test.values()).containsOnly(1L, 2L, 3L, 4L);
     }
+
+    @Test(timeout = 500)
+    public void discoverDirectShouldDeliverOnProducingThread() {
+        PublishProcessor<Long> source = PublishProcessor.create();
+        StreamId<Long> streamId = provide(source).withUniqueStreamId();
+
+        TestSubscriber<Thread> deliveringThreads = Flowable.fromPublisher(discoveryService.discoverDirect(streamId))
+                .map(i -> Thread.currentThread()).test();
+        source.onNext(1L);
+
+        deliveringThreads.assertValue(Thread.currentThread());
+    }
 }
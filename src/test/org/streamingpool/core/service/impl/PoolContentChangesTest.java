@@ -0,0 +1,144 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.streamingpool.core.domain.StreamIdChange;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for {@link PoolContentChanges}.
+ */
+public class PoolContentChangesTest {
+
+    private static final StreamId<Long> ID_A = new NamedStreamId<>("a");
+    private static final StreamId<Long> ID_B = new NamedStreamId<>("b");
+    private static final StreamId<Long> ID_C = new NamedStreamId<>("c");
+
+    private final PoolContentChanges changes = new PoolContentChanges();
+
+    @Test
+    public void lateSubscriberReceivesOnlyTheLiveIds() {
+        changes.added(ID_A);
+        changes.added(ID_B);
+        changes.removed(ID_A);
+
+        TestSubscriber<StreamIdChange> subscriber = changes.changes().test();
+
+        subscriber.assertValues(StreamIdChange.added(ID_B));
+    }
+
+    @Test
+    public void snapshotIsFollowedByTheLiveChanges() {
+        changes.added(ID_A);
+        TestSubscriber<StreamIdChange> subscriber = changes.changes().test();
+
+        changes.added(ID_B);
+        changes.removed(ID_A);
+
+        subscriber.assertValues(StreamIdChange.added(ID_A), StreamIdChange.added(ID_B), StreamIdChange.removed(ID_A));
+    }
+
+    @Test
+    public void snapshotIsDeliveredOnDemand() {
+        changes.added(ID_A);
+        changes.added(ID_B);
+        TestSubscriber<StreamIdChange> subscriber = changes.changes().test(1);
+        changes.added(ID_C);
+
+        subscriber.assertValues(StreamIdChange.added(ID_A));
+        subscriber.request(2);
+        subscriber.assertValues(StreamIdChange.added(ID_A), StreamIdChange.added(ID_B), StreamIdChange.added(ID_C));
+    }
+
+    @Test
+    public void changesAreMergedWhileTheSubscriberRequestsNothing() {
+        changes.added(ID_A);
+        TestSubscriber<StreamIdChange> subscriber = changes.changes().test(0);
+
+        for (int i = 0; i < 10_000; i++) {
+            StreamId<Long> churningId = new NamedStreamId<>("churning-" + i);
+            changes.added(churningId);
+            changes.removed(churningId);
+        }
+        changes.added(ID_B);
+
+        subscriber.assertNoValues();
+        subscriber.request(Long.MAX_VALUE);
+        subscriber.assertValues(StreamIdChange.added(ID_A), StreamIdChange.added(ID_B));
+    }
+
+    @Test
+    public void pendingReAdditionOfADeliveredIdIsPrecededByItsRemoval() {
+        changes.added(ID_A);
+        TestSubscriber<StreamIdChange> subscriber = changes.changes().test(1);
+
+        changes.removed(ID_A);
+        changes.added(ID_A);
+        changes.removed(ID_A);
+        changes.added(ID_A);
+
+        subscriber.request(Long.MAX_VALUE);
+        subscriber.assertValues(StreamIdChange.added(ID_A), StreamIdChange.removed(ID_A), StreamIdChange.added(ID_A));
+    }
+
+    @Test
+    public void repeatedChangesAreNotPublished() {
+        TestSubscriber<StreamIdChange> subscriber = changes.changes().test();
+
+        changes.added(ID_A);
+        changes.added(ID_A);
+        changes.removed(ID_B);
+
+        subscriber.assertValues(StreamIdChange.added(ID_A));
+    }
+
+    @Test
+    public void addedIdsContainsTheLiveIdsAndTheAdditions() {
+        changes.added(ID_A);
+        changes.added(ID_B);
+        changes.removed(ID_B);
+        TestSubscriber<StreamId<?>> subscriber = changes.addedIds().test();
+
+        changes.added(ID_C);
+        changes.removed(ID_A);
+
+        subscriber.assertValues(ID_A, ID_C);
+    }
+
+    @Test
+    public void cancelledSubscriberIsNotFollowingTheChangesAnymore() {
+        TestSubscriber<StreamIdChange> subscriber = changes.changes().test();
+        subscriber.cancel();
+
+        changes.added(ID_A);
+
+        subscriber.assertNoValues();
+        assertThat(changes.changes().test().values()).containsExactly(StreamIdChange.added(ID_A));
+    }
+
+}
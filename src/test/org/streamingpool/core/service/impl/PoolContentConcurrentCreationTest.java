@@ -0,0 +1,153 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.CycleInStreamDiscoveryDetectedException;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Tests the behavior of {@link PoolContent} when streams are created concurrently from several threads.
+ */
+public class PoolContentConcurrentCreationTest {
+
+    private static final StreamId<Integer> ID_A = new NamedStreamId<>("A");
+    private static final StreamId<Integer> ID_B = new NamedStreamId<>("B");
+
+    private PoolContent content;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        content = new PoolContent();
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test(timeout = 5000)
+    public void unrelatedIdsAreCreatedInParallel() throws Exception {
+        CountDownLatch bothCreationsStarted = new CountDownLatch(2);
+
+        Future<Boolean> creationA = executor.submit(() -> content.synchronousPutIfAbsent(ID_A, () -> {
+            bothCreationsStarted.countDown();
+            await(bothCreationsStarted);
+            return ErrorStreamPair.ofData(Flowable.just(1));
+        }));
+        Future<Boolean> creationB = executor.submit(() -> content.synchronousPutIfAbsent(ID_B, () -> {
+            bothCreationsStarted.countDown();
+            await(bothCreationsStarted);
+            return ErrorStreamPair.ofData(Flowable.just(2));
+        }));
+
+        assertThat(creationA.get()).isTrue();
+        assertThat(creationB.get()).isTrue();
+    }
+
+    @Test(timeout = 5000)
+    public void sameIdIsCreatedExactlyOnce() throws Exception {
+        AtomicInteger creations = new AtomicInteger();
+        CountDownLatch creationStarted = new CountDownLatch(1);
+        CountDownLatch secondPutIssued = new CountDownLatch(1);
+
+        Future<Boolean> first = executor.submit(() -> content.synchronousPutIfAbsent(ID_A, () -> {
+            creations.incrementAndGet();
+            creationStarted.countDown();
+            await(secondPutIssued);
+            return ErrorStreamPair.ofData(Flowable.just(1));
+        }));
+        await(creationStarted);
+        Future<Boolean> second = executor.submit(() -> {
+            secondPutIssued.countDown();
+            return content.synchronousPutIfAbsent(ID_A, () -> {
+                creations.incrementAndGet();
+                return ErrorStreamPair.ofData(Flowable.just(2));
+            });
+        });
+
+        assertThat(first.get()).isTrue();
+        assertThat(second.get()).isFalse();
+        assertThat(creations.get()).isEqualTo(1);
+        assertThat(Flowable.fromPublisher(content.get(ID_A)).blockingFirst()).isEqualTo(1);
+    }
+
+    @Test(timeout = 5000)
+    public void crossThreadCycleIsDetected() throws Exception {
+        CountDownLatch bothCreationsStarted = new CountDownLatch(2);
+
+        Future<Boolean> creationA = executor.submit(() -> content.synchronousPutIfAbsent(ID_A, () -> {
+            bothCreationsStarted.countDown();
+            await(bothCreationsStarted);
+            content.synchronousPutIfAbsent(ID_B, () -> ErrorStreamPair.ofData(Flowable.just(2)));
+            return ErrorStreamPair.ofData(Flowable.just(1));
+        }));
+        Future<Boolean> creationB = executor.submit(() -> content.synchronousPutIfAbsent(ID_B, () -> {
+            bothCreationsStarted.countDown();
+            await(bothCreationsStarted);
+            content.synchronousPutIfAbsent(ID_A, () -> ErrorStreamPair.ofData(Flowable.just(1)));
+            return ErrorStreamPair.ofData(Flowable.just(2));
+        }));
+
+        assertThat(causeOf(creationA)).isInstanceOf(CycleInStreamDiscoveryDetectedException.class);
+        assertThat(causeOf(creationB)).isInstanceOf(CycleInStreamDiscoveryDetectedException.class);
+        assertThat(content.get(ID_A)).isNull();
+        assertThat(content.get(ID_B)).isNull();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Interrupted while waiting.", e);
+        }
+    }
+
+    private static Throwable causeOf(Future<?> future) throws InterruptedException {
+        try {
+            future.get(2, SECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (Exception e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.streamingpool.core.service.streamid.StreamChangeHook.STREAM_CHANGE_HOOK;
+import static org.streamingpool.core.service.streamid.StreamingPoolHook.NEW_STREAM_HOOK;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.domain.StreamIdChange;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.diagnostic.ErrorStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for the eviction of unused streams from the {@link PoolContent}.
+ */
+public class PoolContentEvictionTest {
+
+    private static final Duration GRACE_PERIOD = Duration.ofMillis(100);
+    private static final long WAIT_FOR_EVICTION_MS = 500;
+    private static final StreamId<Long> ID = new NamedStreamId<>("evictable");
+
+    private PoolContent content;
+
+    @Before
+    public void setUp() {
+        content = new PoolContent(GRACE_PERIOD);
+    }
+
+    @Test
+    public void neverSubscribedStreamIsEvicted() throws InterruptedException {
+        content.synchronousPutEvictableIfAbsent(ID, () -> ErrorStreamPair.ofData(Flowable.never()));
+        assertThat(content.get(ID)).isNotNull();
+
+        MILLISECONDS.sleep(WAIT_FOR_EVICTION_MS);
+
+        assertThat(content.get(ID)).isNull();
+        assertThat(content.get(ErrorStreamId.of(ID))).isNull();
+    }
+
+    @Test
+    public void subscribedStreamIsNotEvicted() throws InterruptedException {
+        content.synchronousPutEvictableIfAbsent(ID, () -> ErrorStreamPair.ofData(Flowable.never()));
+        Disposable subscription = Flowable.fromPublisher(content.get(ID)).subscribe();
+
+        MILLISECONDS.sleep(WAIT_FOR_EVICTION_MS);
+        assertThat(content.get(ID)).isNotNull();
+
+        subscription.dispose();
+        MILLISECONDS.sleep(WAIT_FOR_EVICTION_MS);
+        assertThat(content.get(ID)).isNull();
+    }
+
+    @Test
+    public void subscribedErrorStreamKeepsDataStream() throws InterruptedException {
+        content.synchronousPutEvictableIfAbsent(ID, () -> ErrorStreamPair.ofData(Flowable.never()));
+        Disposable subscription = Flowable.fromPublisher(content.get(ErrorStreamId.of(ID))).subscribe();
+
+        MILLISECONDS.sleep(WAIT_FOR_EVICTION_MS);
+        assertThat(content.get(ID)).isNotNull();
+        subscription.dispose();
+    }
+
+    @Test
+    public void decoratedStreamIsEvictedTogetherWithStream() throws InterruptedException {
+        content.synchronousPutEvictableIfAbsent(ID, () -> ErrorStreamPair.ofData(Flowable.never()));
+        Publisher<Long> decorated = content.decorateIfPresent(ID, stream -> Flowable.fromPublisher(stream).hide());
+        assertThat(content.getDecorated(ID)).isSameAs(decorated);
+
+        MILLISECONDS.sleep(WAIT_FOR_EVICTION_MS);
+
+        assertThat(content.getDecorated(ID)).isNull();
+    }
+
+    @Test
+    public void evictedStreamIsRemovedFromTheHooks() throws InterruptedException {
+        content.synchronousPutEvictableIfAbsent(ID, () -> ErrorStreamPair.ofData(Flowable.never()));
+        TestSubscriber<StreamIdChange> changes = Flowable.fromPublisher(content.get(STREAM_CHANGE_HOOK)).test();
+
+        MILLISECONDS.sleep(WAIT_FOR_EVICTION_MS);
+
+        changes.assertValues(StreamIdChange.added(ID), StreamIdChange.added(ErrorStreamId.of(ID)),
+                StreamIdChange.removed(ID), StreamIdChange.removed(ErrorStreamId.of(ID)));
+        Flowable.fromPublisher(content.get(NEW_STREAM_HOOK)).test().assertNoValues();
+    }
+
+    @Test
+    public void pinnedStreamIsNeverEvicted() throws InterruptedException {
+        content.synchronousPutIfAbsent(ID, () -> ErrorStreamPair.ofData(Flowable.never()));
+
+        MILLISECONDS.sleep(WAIT_FOR_EVICTION_MS);
+
+        assertThat(content.get(ID)).isNotNull();
+    }
+
+    @Test
+    public void noEvictionIfDisabled() throws InterruptedException {
+        content = new PoolContent();
+        content.synchronousPutEvictableIfAbsent(ID, () -> ErrorStreamPair.ofData(Flowable.never()));
+
+        MILLISECONDS.sleep(WAIT_FOR_EVICTION_MS);
+
+        assertThat(content.get(ID)).isNotNull();
+    }
+
+    @Test
+    public void evictedStreamIsCreatedAgainOnDiscovery() throws InterruptedException {
+        AtomicInteger creations = new AtomicInteger();
+        StreamFactory factory = new StreamFactory() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+                creations.incrementAndGet();
+                return ErrorStreamPair.ofData((Publisher<T>) Flowable.just(1L));
+            }
+        };
+        LocalPool pool = new LocalPool(Collections.singletonList(factory),
+                new PoolConfiguration(Schedulers.single()).withEvictionGracePeriod(GRACE_PERIOD));
+
+        Flowable.fromPublisher(pool.discover(ID)).blockingLast();
+        Flowable.fromPublisher(pool.discover(ID)).blockingLast();
+        assertThat(creations.get()).isEqualTo(1);
+
+        MILLISECONDS.sleep(WAIT_FOR_EVICTION_MS);
+
+        assertThat(Flowable.fromPublisher(pool.discover(ID)).blockingLast()).isEqualTo(1L);
+        assertThat(creations.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void discoveryWithoutGracePeriodAlwaysFindsTheCreatedStream() {
+        StreamFactory factory = new StreamFactory() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+                return ErrorStreamPair.ofData((Publisher<T>) Flowable.just(1L));
+            }
+        };
+        LocalPool pool = new LocalPool(Collections.singletonList(factory),
+                new PoolConfiguration(Schedulers.single()).withEvictionGracePeriod(Duration.ZERO));
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(pool.discover(new NamedStreamId<Long>("evictable-" + i))).isNotNull();
+        }
+    }
+
+    @Test
+    public void unresolvableIdIsLookedUpOnlyOnceInTheFactories() {
+        AtomicInteger creationAttempts = new AtomicInteger();
+        StreamFactory factory = new StreamFactory() {
+            @Override
+            public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+                creationAttempts.incrementAndGet();
+                return ErrorStreamPair.empty();
+            }
+        };
+        LocalPool pool = new LocalPool(Collections.singletonList(factory),
+                new PoolConfiguration(Schedulers.single()).withEvictionGracePeriod(Duration.ZERO));
+
+        assertThatThrownBy(() -> pool.discover(ID)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(creationAttempts.get()).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,71 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+/**
+ * Unit tests for {@link PoolMetrics}.
+ */
+public class PoolMetricsTest {
+
+    private final PoolMetrics metrics = new PoolMetrics();
+
+    @Test
+    public void metricsAreUnregisteredOnClose() throws MalformedObjectNameException {
+        StreamId<Integer> id = new NamedStreamId<>("registered-" + System.nanoTime());
+        metrics.registerMBean(metrics.add(id, null));
+        assertThat(mbeansOf(id)).hasSize(1);
+
+        metrics.close();
+
+        assertThat(mbeansOf(id)).isEmpty();
+    }
+
+    @Test
+    public void noMetricsAreRegisteredOnceClosed() throws MalformedObjectNameException {
+        StreamId<Integer> id = new NamedStreamId<>("late-" + System.nanoTime());
+        StreamMetrics streamMetrics = metrics.add(id, null);
+
+        metrics.close();
+        /* As done by a housekeeping thread which did not terminate in time */
+        metrics.registerMBean(streamMetrics);
+
+        assertThat(mbeansOf(id)).isEmpty();
+    }
+
+    private static Iterable<ObjectName> mbeansOf(StreamId<?> id) throws MalformedObjectNameException {
+        ObjectName names = new ObjectName(
+                "org.streamingpool:type=StreamMetrics,pool=*,id=" + ObjectName.quote(id.toString()));
+        return ManagementFactory.getPlatformMBeanServer().queryNames(names, null);
+    }
+
+}
@@ -0,0 +1,159 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.util.StreamCreators;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Unit tests for the warm-up of a {@link LocalPool}.
+ */
+public class PoolWarmUpTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final StreamId<Long> ID_A = new NamedStreamId<>("a");
+    private static final StreamId<Long> ID_B = new NamedStreamId<>("b");
+    private static final StreamId<Long> BLOCKED_ID = new NamedStreamId<>("blocked");
+
+    private final Map<StreamId<?>, AtomicInteger> creations = new ConcurrentHashMap<>();
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private LocalPool pool;
+
+    @Before
+    public void setUp() {
+        StreamFactory factory = new StreamFactory() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+                if (BLOCKED_ID.equals(id)) {
+                    awaitUnblock();
+                }
+                if (ID_A.equals(id) || ID_B.equals(id) || BLOCKED_ID.equals(id)) {
+                    creations.computeIfAbsent(id, i -> new AtomicInteger()).incrementAndGet();
+                    return ErrorStreamPair.ofData((Publisher<T>) Flowable.just(1L));
+                }
+                return ErrorStreamPair.empty();
+            }
+        };
+        pool = new LocalPool(Collections.singletonList(factory),
+                new PoolConfiguration(Schedulers.trampoline()).withBulkDiscoveryParallelism(2));
+    }
+
+    @Test
+    public void warmUpCreatesTheStreams() {
+        PoolWarmUp warmUp = pool.warmUp(asList(ID_A, ID_B));
+
+        assertThat(warmUp.awaitCompletion(TIMEOUT)).isTrue();
+        assertThat(warmUp.warmedUp()).isEqualTo(2);
+        assertThat(warmUp.progress()).isEqualTo(1.0);
+
+        pool.discover(ID_A);
+        pool.discover(ID_B);
+        assertThat(creations.get(ID_A).get()).isEqualTo(1);
+        assertThat(creations.get(ID_B).get()).isEqualTo(1);
+    }
+
+    @Test
+    public void progressIsAvailableWhileWarmingUp() {
+        PoolWarmUp warmUp = pool.warmUp(asList(BLOCKED_ID, ID_A));
+        assertThat(warmUp.total()).isEqualTo(2);
+        assertThat(warmUp.completion().toCompletableFuture().isDone()).isFalse();
+
+        unblock.countDown();
+
+        assertThat(warmUp.awaitCompletion(TIMEOUT)).isTrue();
+        assertThat(warmUp.isDone()).isTrue();
+        assertThat(warmUp.warmedUp()).isEqualTo(2);
+    }
+
+    @Test
+    public void failingStreamsDoNotStopTheWarmUp() {
+        StreamId<Long> unknownId = new NamedStreamId<>("unknown");
+        PoolWarmUp warmUp = pool.warmUp(asList(ID_A, unknownId, ID_B));
+
+        assertThat(warmUp.awaitCompletion(TIMEOUT)).isTrue();
+        assertThat(warmUp.warmedUp()).isEqualTo(2);
+        assertThat(warmUp.failed()).isEqualTo(1);
+        assertThat(warmUp.failures()).containsOnlyKeys(unknownId);
+    }
+
+    @Test
+    public void preparedWarmUpCreatesTheStreamsOnlyOnceStarted() throws InterruptedException {
+        PoolWarmUp warmUp = pool.prepareWarmUp(asList(ID_A, ID_B));
+        Thread.sleep(50);
+        assertThat(warmUp.isStarted()).isFalse();
+        assertThat(warmUp.isDone()).isFalse();
+        assertThat(creations).isEmpty();
+
+        warmUp.start();
+        warmUp.start();
+
+        assertThat(warmUp.awaitCompletion(TIMEOUT)).isTrue();
+        assertThat(warmUp.warmedUp()).isEqualTo(2);
+        assertThat(creations.get(ID_A).get()).isEqualTo(1);
+    }
+
+    @Test
+    public void emptyWarmUpIsDoneImmediately() {
+        PoolWarmUp warmUp = pool.warmUp(Collections.emptyList());
+
+        assertThat(warmUp.isDone()).isTrue();
+        assertThat(warmUp.progress()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void streamCreatorsCanBeFlaggedEager() {
+        assertThat(StreamCreators.create(() -> Flowable.just(1L)).as(ID_A).isEager()).isFalse();
+        assertThat(StreamCreators.create(() -> Flowable.just(1L)).eagerly().as(ID_A).isEager()).isTrue();
+    }
+
+    private void awaitUnblock() {
+        try {
+            unblock.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
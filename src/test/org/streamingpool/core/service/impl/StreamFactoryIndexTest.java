@@ -0,0 +1,175 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.impl;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.TypedStreamFactory;
+import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
+import org.streamingpool.core.service.streamfactory.FilteredStreamFactory;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.FilteredStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+public class StreamFactoryIndexTest {
+
+    private static final StreamId<Object> NAMED_ID = new NamedStreamId<>("named");
+    private static final DerivedStreamId<Object, Object> DERIVED_ID = DerivedStreamId.derive(NAMED_ID, x -> x);
+
+    private final StreamFactory catchAll = new StreamFactory() {
+        @Override
+        public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+            return ErrorStreamPair.empty();
+        }
+    };
+    private final StreamFactory derived = new DerivedStreamFactory();
+    private final StreamFactory filtered = new FilteredStreamFactory();
+    private final StreamFactory namedIds = new NamedIdFactory();
+
+    @Test
+    public void onlyFactoriesDeclaringTheIdClassAreCandidates() {
+        StreamFactoryIndex index = new StreamFactoryIndex(asList(derived, filtered, namedIds));
+
+        assertThat(index.candidatesFor(DERIVED_ID)).containsExactly(derived);
+        assertThat(index.candidatesFor(FilteredStreamId.filterBy(NAMED_ID, x -> true))).containsExactly(filtered);
+        assertThat(index.candidatesFor(NAMED_ID)).containsExactly(namedIds);
+    }
+
+    @Test
+    public void factoriesWithoutIdClassesAreCandidatesForAllIdsInRegistrationOrder() {
+        StreamFactoryIndex index = new StreamFactoryIndex(asList(catchAll, derived, filtered, catchAll));
+
+        assertThat(index.candidatesFor(DERIVED_ID)).containsExactly(catchAll, derived, catchAll);
+        assertThat(index.candidatesFor(NAMED_ID)).containsExactly(catchAll, catchAll);
+    }
+
+    @Test
+    public void factoriesAreCandidatesForSubclassesOfTheirIdClasses() {
+        StreamId<Object> specialId = new SpecialNamedStreamId("special");
+        StreamFactoryIndex index = new StreamFactoryIndex(asList(derived, namedIds));
+
+        assertThat(index.candidatesFor(specialId)).containsExactly(namedIds);
+    }
+
+    @Test
+    public void interceptIsAskedBeforeTheRegisteredFactories() {
+        LocalPool pool = new LocalPool(asList(derived), new PoolConfiguration(Schedulers.single()));
+        pool.provide(NAMED_ID, Flowable.just("source"));
+        pool.addIntercept(new ConstantFactory("intercepted", DerivedStreamId.class));
+
+        assertThat(Flowable.fromPublisher(pool.discover(DERIVED_ID)).blockingFirst()).isEqualTo("intercepted");
+    }
+
+    @Test
+    public void fallbackWithoutIdClassesIsAskedForAllIds() {
+        LocalPool pool = new LocalPool(asList(derived), new PoolConfiguration(Schedulers.single()));
+        pool.addFallback(new ConstantFactory("fallback"));
+
+        assertThat(Flowable.fromPublisher(pool.discover(NAMED_ID)).blockingFirst()).isEqualTo("fallback");
+    }
+
+    @Test
+    public void poolAsksOnlyTheCandidates() {
+        CountingFactory counting = new CountingFactory();
+        LocalPool pool = new LocalPool(asList(derived, counting), new PoolConfiguration(Schedulers.single()));
+        pool.provide(NAMED_ID, Flowable.just(1));
+
+        pool.discover(DERIVED_ID);
+
+        assertThat(counting.calls).isZero();
+    }
+
+    private static class NamedIdFactory implements TypedStreamFactory<Object, NamedStreamId<Object>> {
+
+        @Override
+        public Publisher<Object> createReactiveStream(NamedStreamId<Object> id, DiscoveryService discoveryService) {
+            return Flowable.empty();
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        @Override
+        public Class<NamedStreamId<Object>> streamIdClass() {
+            return (Class) NamedStreamId.class;
+        }
+    }
+
+    private static class CountingFactory implements StreamFactory {
+
+        private int calls;
+
+        @Override
+        public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+            calls++;
+            return ErrorStreamPair.empty();
+        }
+
+        @Override
+        public Set<Class<?>> streamIdClasses() {
+            return Collections.singleton(NamedStreamId.class);
+        }
+    }
+
+    private static class ConstantFactory implements StreamFactory {
+
+        private final Object value;
+        private final Set<Class<?>> idClasses;
+
+        private ConstantFactory(Object value, Class<?>... idClasses) {
+            this.value = value;
+            this.idClasses = new HashSet<>(asList(idClasses));
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+            return ErrorStreamPair.ofData((Publisher<T>) Flowable.just(value));
+        }
+
+        @Override
+        public Set<Class<?>> streamIdClasses() {
+            return idClasses;
+        }
+    }
+
+    private static class SpecialNamedStreamId extends NamedStreamId<Object> {
+        private static final long serialVersionUID = 1L;
+
+        SpecialNamedStreamId(String id) {
+            super(id);
+        }
+    }
+}
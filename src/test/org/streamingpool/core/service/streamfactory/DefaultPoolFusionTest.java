@@ -0,0 +1,96 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.annotation.DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD;
+import static org.streamingpool.core.service.streamfactory.MapFilterChainTest.idsAddedUpTo;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.streamingpool.core.conf.DefaultStreamFactories;
+import org.streamingpool.core.conf.EmbeddedPoolConfiguration;
+import org.streamingpool.core.conf.StreamCreatorFactoryConfiguration;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.FilteredStreamId;
+import org.streamingpool.core.service.streamid.LongDerivedStreamId;
+import org.streamingpool.core.service.streamid.LongFilteredStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Checks that the chains of (boxed and primitive) ids are fused in a pool configured with the default factories, in
+ * which the generic {@link CreatorStreamFactory} is asked first for every id.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = { EmbeddedPoolConfiguration.class, StreamCreatorFactoryConfiguration.class,
+        DefaultStreamFactories.class })
+@DirtiesContext(classMode = BEFORE_EACH_TEST_METHOD)
+public class DefaultPoolFusionTest {
+
+    private static final StreamId<Integer> SOURCE_ID = new NamedStreamId<>("source");
+
+    @Autowired
+    private LocalPool pool;
+
+    @Autowired
+    private CreatorStreamFactory creatorStreamFactory;
+
+    @Test
+    public void chainOfDerivedAndFilteredIdsIsFused() {
+        creatorStreamFactory.provide(SOURCE_ID, discovery -> Flowable.just(1, 2, 3, 4));
+        StreamId<Integer> incremented = DerivedStreamId.derive(SOURCE_ID, i -> i + 1);
+        StreamId<Integer> even = FilteredStreamId.filterBy(incremented, i -> i % 2 == 0);
+        StreamId<Integer> chainEnd = DerivedStreamId.derive(even, i -> i * 10);
+
+        TestSubscriber<Integer> values = Flowable.fromPublisher(pool.discover(chainEnd)).test();
+
+        values.awaitTerminalEvent(1, SECONDS);
+        values.assertResult(20, 40);
+        assertThat(idsAddedUpTo(chainEnd, pool)).contains(SOURCE_ID).doesNotContain(incremented, even);
+    }
+
+    @Test
+    public void chainOfPrimitiveIdsIsFused() {
+        StreamId<Long> longSourceId = new NamedStreamId<>("longs");
+        creatorStreamFactory.provide(longSourceId, discovery -> Flowable.just(1L, 2L, 3L, 4L));
+        StreamId<Long> incremented = LongDerivedStreamId.deriveLong(longSourceId, value -> value + 1);
+        StreamId<Long> even = LongFilteredStreamId.filterLong(incremented, value -> value % 2 == 0);
+        StreamId<Long> chainEnd = LongDerivedStreamId.deriveLong(even, value -> value * 10);
+
+        TestSubscriber<Long> values = Flowable.fromPublisher(pool.discover(chainEnd)).test();
+
+        values.awaitTerminalEvent(1, SECONDS);
+        values.assertResult(20L, 40L);
+        assertThat(idsAddedUpTo(chainEnd, pool)).contains(longSourceId).doesNotContain(incremented, even);
+    }
+
+}
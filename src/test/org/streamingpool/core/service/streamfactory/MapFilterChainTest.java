@@ -0,0 +1,196 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.streamingpool.core.service.streamid.StreamingPoolHook.NEW_STREAM_HOOK;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.FilteredStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for the fusion of chains of derived and filtered ids by {@link MapFilterChain}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class MapFilterChainTest {
+
+    private static final StreamId<Integer> SOURCE_ID = new NamedStreamId<>("source");
+    private static final StreamId<Integer> INCREMENTED_ID = DerivedStreamId.derive(SOURCE_ID, i -> i + 1);
+    private static final StreamId<Integer> EVEN_ID = FilteredStreamId.filterBy(INCREMENTED_ID, i -> i % 2 == 0);
+    private static final StreamId<Integer> CHAIN_END_ID = DerivedStreamId.derive(EVEN_ID, i -> i * 10);
+
+    private final DerivedStreamFactory factory = new DerivedStreamFactory();
+    private final TestSubscriber<Integer> values = new TestSubscriber<>();
+    private final TestSubscriber<Throwable> errors = new TestSubscriber<>();
+
+    @Mock(extraInterfaces = FusionSupport.class)
+    private DiscoveryService discoveryService;
+
+    @Test
+    public void chainOverIntermediateIdsOfTheChainFactoriesIsFused() {
+        doReturn(true).when(fusionSupport()).wouldBeCreatedBy(any(), any());
+        doReturn(Flowable.just(1, 2, 3, 4)).when(discoveryService).discover(SOURCE_ID);
+
+        subscribe(factory.create(CHAIN_END_ID, discoveryService));
+
+        values.assertValues(20, 40);
+        errors.assertNoValues();
+        verify(discoveryService, never()).discover(EVEN_ID);
+        verify(discoveryService, never()).discover(INCREMENTED_ID);
+    }
+
+    @Test
+    public void chainStopsAtIntermediateIdWhichWouldNotBeCreatedByTheChainFactories() {
+        doReturn(Flowable.just(2, 3)).when(discoveryService).discover(EVEN_ID);
+
+        subscribe(factory.create(CHAIN_END_ID, discoveryService));
+
+        values.assertValues(20, 30);
+        verify(discoveryService, never()).discover(SOURCE_ID);
+    }
+
+    @Test
+    public void chainIsNotFusedWithoutFusionSupport() {
+        DiscoveryService plainDiscoveryService = mock(DiscoveryService.class);
+        doReturn(Flowable.just(2, 3)).when(plainDiscoveryService).discover(EVEN_ID);
+
+        subscribe(factory.create(CHAIN_END_ID, plainDiscoveryService));
+
+        values.assertValues(20, 30);
+    }
+
+    @Test
+    public void exceptionInIntermediateStageDropsItemAndIsPublishedOnErrorStream() {
+        StreamId<Integer> failingOnTwo = DerivedStreamId.derive(SOURCE_ID, i -> 10 / (i - 2));
+        StreamId<Integer> chainEnd = DerivedStreamId.derive(failingOnTwo, i -> -i);
+        doReturn(true).when(fusionSupport()).wouldBeCreatedBy(any(), any());
+        doReturn(Flowable.just(1, 2, 3)).when(discoveryService).discover(SOURCE_ID);
+
+        subscribe(factory.create(chainEnd, discoveryService));
+
+        values.assertValues(10, -10);
+        assertThat(errors.values()).hasSize(1);
+        assertThat(errors.values().get(0)).hasCauseInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    public void nullConversionResultIsPublishedOnErrorStream() {
+        StreamId<Integer> nullOnTwo = DerivedStreamId.derive(SOURCE_ID, i -> i == 2 ? null : i);
+        doReturn(Flowable.just(1, 2, 3)).when(discoveryService).discover(SOURCE_ID);
+
+        subscribe(factory.create(nullOnTwo, discoveryService));
+
+        values.assertValues(1, 3);
+        assertThat(errors.values()).hasSize(1);
+        verify(fusionSupport(), never()).wouldBeCreatedBy(any(), any());
+    }
+
+    @Test
+    public void poolFusesChainOverAbsentIntermediateIds() {
+        LocalPool pool = poolWithChainFactories();
+        pool.provide(SOURCE_ID, Flowable.just(1, 2, 3, 4));
+
+        Flowable.fromPublisher(pool.discover(CHAIN_END_ID)).test().assertValues(20, 40);
+        assertThat(idsAddedUpTo(CHAIN_END_ID, pool)).doesNotContain(INCREMENTED_ID, EVEN_ID);
+    }
+
+    @Test
+    public void poolFusesChainOverIdsWhichFactoriesAskedBeforeCannotCreate() {
+        LocalPool pool = new LocalPool(
+                asList(new CreatorStreamFactory(Collections.emptyList()), new DerivedStreamFactory(),
+                        new FilteredStreamFactory()),
+                new PoolConfiguration(Schedulers.trampoline()));
+        pool.provide(SOURCE_ID, Flowable.just(1, 2, 3, 4));
+
+        Flowable.fromPublisher(pool.discover(CHAIN_END_ID)).test().assertValues(20, 40);
+        assertThat(idsAddedUpTo(CHAIN_END_ID, pool)).doesNotContain(INCREMENTED_ID, EVEN_ID);
+    }
+
+    @Test
+    public void poolDoesNotFuseOverInterceptedIntermediateId() {
+        LocalPool pool = poolWithChainFactories();
+        pool.provide(SOURCE_ID, Flowable.just(1, 2, 3, 4));
+        pool.addIntercept(new StreamFactory() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discovery) {
+                if (INCREMENTED_ID.equals(id)) {
+                    return ErrorStreamPair.ofData((Flowable<T>) Flowable.just(6, 7));
+                }
+                return ErrorStreamPair.empty();
+            }
+        });
+
+        Flowable.fromPublisher(pool.discover(CHAIN_END_ID)).test().assertValues(60);
+        assertThat(idsAddedUpTo(CHAIN_END_ID, pool)).contains(INCREMENTED_ID);
+    }
+
+    private static LocalPool poolWithChainFactories() {
+        return new LocalPool(asList(new DerivedStreamFactory(), new FilteredStreamFactory()),
+                new PoolConfiguration(Schedulers.trampoline()));
+    }
+
+    /**
+     * @return the ids added to the given pool up to the given one (they are published in the order of their addition)
+     */
+    static List<StreamId<?>> idsAddedUpTo(StreamId<?> lastId, DiscoveryService pool) {
+        return Flowable.fromPublisher(pool.discover(NEW_STREAM_HOOK)).takeUntil((StreamId<?> id) -> id.equals(lastId))
+                .timeout(1, TimeUnit.SECONDS).toList().blockingGet();
+    }
+
+    private FusionSupport fusionSupport() {
+        return (FusionSupport) discoveryService;
+    }
+
+    private void subscribe(ErrorStreamPair<Integer> stream) {
+        stream.error().subscribe(errors);
+        stream.data().subscribe(values);
+        values.awaitTerminalEvent(1, TimeUnit.SECONDS);
+        values.assertComplete();
+    }
+
+}
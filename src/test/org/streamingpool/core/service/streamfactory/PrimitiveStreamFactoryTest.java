@@ -0,0 +1,147 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.streamingpool.core.conf.PoolConfiguration;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.DoubleDerivedStreamId;
+import org.streamingpool.core.service.streamid.DoubleFilteredStreamId;
+import org.streamingpool.core.service.streamid.LongDerivedStreamId;
+import org.streamingpool.core.service.streamid.LongFilteredStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for {@link PrimitiveStreamFactory}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PrimitiveStreamFactoryTest {
+
+    private static final StreamId<Double> DOUBLE_SOURCE_ID = new NamedStreamId<>("doubles");
+    private static final StreamId<Long> LONG_SOURCE_ID = new NamedStreamId<>("longs");
+
+    private final PrimitiveStreamFactory factory = new PrimitiveStreamFactory();
+
+    @Mock(extraInterfaces = FusionSupport.class)
+    private DiscoveryService discoveryService;
+
+    @Test
+    public void doubleChainIsFused() {
+        StreamId<Double> halved = DoubleDerivedStreamId.deriveDouble(DOUBLE_SOURCE_ID, value -> value / 2);
+        StreamId<Double> positive = DoubleFilteredStreamId.filterDouble(halved, value -> value > 0);
+        StreamId<Double> incremented = DoubleDerivedStreamId.deriveDouble(positive, value -> value + 1);
+        doReturn(true).when((FusionSupport) discoveryService).wouldBeCreatedBy(any(),
+                eq(PrimitiveStreamFactory.class));
+        doReturn(Flowable.just(-2.0, 0.0, 3.0)).when(discoveryService).discover(DOUBLE_SOURCE_ID);
+
+        TestSubscriber<Double> values = subscribe(factory.create(incremented, discoveryService),
+                new TestSubscriber<>());
+
+        values.assertValues(2.5);
+        verify(discoveryService, never()).discover(positive);
+        verify(discoveryService, never()).discover(halved);
+    }
+
+    @Test
+    public void longChainStopsAtIntermediateIdWhichWouldNotBeCreatedByThisFactory() {
+        StreamId<Long> even = LongFilteredStreamId.filterLong(LONG_SOURCE_ID, value -> value % 2 == 0);
+        StreamId<Long> squared = LongDerivedStreamId.deriveLong(even, value -> value * value);
+        doReturn(Flowable.just(2L, 3L)).when(discoveryService).discover(even);
+
+        TestSubscriber<Long> values = subscribe(factory.create(squared, discoveryService), new TestSubscriber<>());
+
+        values.assertValues(4L, 9L);
+        verify(discoveryService, never()).discover(LONG_SOURCE_ID);
+    }
+
+    @Test
+    public void exceptionInStageDropsItemAndIsPublishedOnErrorStream() {
+        StreamId<Long> failingOnZero = LongDerivedStreamId.deriveLong(LONG_SOURCE_ID, value -> 10 / value);
+        doReturn(Flowable.just(1L, 0L, 2L)).when(discoveryService).discover(LONG_SOURCE_ID);
+        ErrorStreamPair<Long> stream = factory.create(failingOnZero, discoveryService);
+        TestSubscriber<Throwable> errors = Flowable.fromPublisher(stream.error()).test();
+
+        TestSubscriber<Long> values = subscribe(stream, new TestSubscriber<>());
+
+        values.assertValues(10L, 5L);
+        assertThat(errors.values()).hasSize(1);
+        assertThat(errors.values().get(0)).hasCauseInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    public void otherIdsAreNotCreated() {
+        StreamId<Long> boxed = DerivedStreamId.derive(LONG_SOURCE_ID, value -> value + 1);
+
+        assertThat(factory.create(boxed, discoveryService).isPresent()).isFalse();
+    }
+
+    @Test
+    public void poolDoesNotFuseOverInterceptedIntermediateId() {
+        StreamId<Long> even = LongFilteredStreamId.filterLong(LONG_SOURCE_ID, value -> value % 2 == 0);
+        StreamId<Long> squared = LongDerivedStreamId.deriveLong(even, value -> value * value);
+        LocalPool pool = new LocalPool(singletonList(factory), new PoolConfiguration(Schedulers.trampoline()));
+        pool.provide(LONG_SOURCE_ID, Flowable.just(1L, 2L, 3L, 4L));
+        pool.addIntercept(new StreamFactory() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discovery) {
+                if (even.equals(id)) {
+                    return ErrorStreamPair.ofData((Flowable<T>) Flowable.just(5L));
+                }
+                return ErrorStreamPair.empty();
+            }
+        });
+
+        Flowable.fromPublisher(pool.discover(squared)).test().assertValues(25L);
+        assertThat(MapFilterChainTest.idsAddedUpTo(squared, pool)).contains(even);
+    }
+
+    private static <T> TestSubscriber<T> subscribe(ErrorStreamPair<T> stream, TestSubscriber<T> subscriber) {
+        stream.data().subscribe(subscriber);
+        subscriber.awaitTerminalEvent(1, TimeUnit.SECONDS);
+        subscriber.assertComplete();
+        return subscriber;
+    }
+
+}
@@ -0,0 +1,183 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+package org.streamingpool.core.service.streamid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.streamingpool.core.testing.PojoClassFilters.excludeNonConcrete;
+import static org.streamingpool.core.testing.PojoClassFilters.includeTypes;
+import static org.streamingpool.core.testing.PojoTests.pojocClassesForPackageName;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.diagnostic.ErrorStreamId;
+import org.streamingpool.core.service.streamid.BufferSpecification.EndStreamMatcher;
+
+/**
+ * Tests for the hash caching of {@link AbstractCompositeStreamId} (and {@link BufferSpecification}) and the interning
+ * by {@link StreamIdInterner}.
+ */
+public class AbstractCompositeStreamIdTest {
+
+    private static final StreamId<Integer> SOURCE_ID = ClassBasedId.of(AbstractCompositeStreamIdTest.class);
+    private static final Function<Integer, String> CONVERSION = Object::toString;
+
+    @Test
+    public void hashCodeIsComputedOnlyOnce() {
+        CountingId id = new CountingId(SOURCE_ID);
+
+        int firstHash = id.hashCode();
+        int secondHash = id.hashCode();
+
+        assertThat(secondHash).isEqualTo(firstHash);
+        assertThat(id.computations.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void cachedHashCodeIsTheStructuralOne() {
+        DerivedStreamId<Integer, String> id = DerivedStreamId.derive(SOURCE_ID, CONVERSION);
+        DerivedStreamId<Integer, String> equalId = DerivedStreamId.derive(SOURCE_ID, CONVERSION);
+
+        assertThat(equalId).isNotSameAs(id);
+        assertThat(equalId).isEqualTo(id);
+        assertThat(equalId.hashCode()).isEqualTo(id.hashCode());
+    }
+
+    @Test
+    public void idsWithDifferentPartsAreNotEqual() {
+        DerivedStreamId<Integer, String> id = DerivedStreamId.derive(SOURCE_ID, CONVERSION);
+        DerivedStreamId<Integer, String> otherId = DerivedStreamId.derive(SOURCE_ID, i -> "other");
+
+        assertThat(otherId).isNotEqualTo(id);
+        assertThat(ErrorStreamId.of(otherId)).isNotEqualTo(ErrorStreamId.of(id));
+    }
+
+    @Test
+    public void hashCodeIsRecomputedAfterDeserialization() throws Exception {
+        ErrorStreamId<StreamId<Integer>> id = ErrorStreamId.of(SOURCE_ID);
+        int hash = id.hashCode();
+
+        ErrorStreamId<?> deserialized = serializeAndDeserialize(id);
+
+        assertThat(deserialized).isEqualTo(id);
+        assertThat(deserialized.hashCode()).isEqualTo(hash);
+    }
+
+    @Test
+    public void bufferSpecificationIsNotChangedByItsMatcherSet() {
+        Set<EndStreamMatcher<?, ?>> matchers = new HashSet<>();
+        matchers.add(EndStreamMatcher.endingOnEvery(SOURCE_ID));
+        BufferSpecification specification = BufferSpecification.ofStartEnd(SOURCE_ID, matchers);
+        int hash = specification.hashCode();
+
+        matchers.add(EndStreamMatcher.endingOnEquals(SOURCE_ID));
+
+        assertThat(specification.endStreamMatchers()).hasSize(1);
+        assertThat(specification.hashCode()).isEqualTo(hash);
+    }
+
+    @Test
+    public void compositeIdsDoNotOverrideTheCachedHashCode() throws Exception {
+        List<Class<?>> compositeIds = pojocClassesForPackageName("org.streamingpool.core",
+                excludeNonConcrete(), includeTypes(AbstractCompositeStreamId.class));
+
+        assertThat(compositeIds).isNotEmpty();
+        for (Class<?> compositeId : compositeIds) {
+            Method hashCode = compositeId.getMethod("hashCode");
+            assertThat(Modifier.isFinal(hashCode.getModifiers())).as("%s.hashCode() is final", compositeId).isTrue();
+        }
+    }
+
+    @Test
+    public void internReturnsTheFirstInternedOfEqualIds() {
+        DerivedStreamId<Integer, String> id = StreamIdInterner.intern(DerivedStreamId.derive(SOURCE_ID, CONVERSION));
+        DerivedStreamId<Integer, String> equalId = DerivedStreamId.derive(SOURCE_ID, CONVERSION);
+
+        assertThat(StreamIdInterner.intern(equalId)).isSameAs(id);
+    }
+
+    @Test
+    public void internKeepsDifferentIdsApart() {
+        FilteredStreamId<Integer> evenId = FilteredStreamId.filterBy(SOURCE_ID, i -> i % 2 == 0);
+        FilteredStreamId<Integer> oddId = FilteredStreamId.filterBy(SOURCE_ID, i -> i % 2 == 1);
+
+        assertThat(StreamIdInterner.intern(evenId)).isSameAs(evenId);
+        assertThat(StreamIdInterner.intern(oddId)).isSameAs(oddId);
+    }
+
+    private static <T> T serializeAndDeserialize(T object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            T result = (T) in.readObject();
+            return result;
+        }
+    }
+
+    private static class CountingId extends AbstractCompositeStreamId<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final StreamId<Integer> sourceId;
+        private final AtomicInteger computations = new AtomicInteger();
+
+        CountingId(StreamId<Integer> sourceId) {
+            this.sourceId = sourceId;
+        }
+
+        @Override
+        protected int computeHashCode() {
+            computations.incrementAndGet();
+            return sourceId.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return cachedHashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CountingId && sourceId.equals(((CountingId) obj).sourceId);
+        }
+
+        @Override
+        public String toString() {
+            return "CountingId [sourceId=" + sourceId + "]";
+        }
+    }
+
+}